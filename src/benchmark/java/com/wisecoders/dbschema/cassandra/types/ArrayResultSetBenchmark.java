@@ -0,0 +1,53 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import java.sql.SQLException;
+
+/**
+ * Measures building and reading an ArrayResultSet shaped like getColumns() ( 24 columns per row ) for growing row counts.
+ * With amortized constant appends the time per row stays flat while the row count doubles.
+ * Run it with: gradle benchmark
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ArrayResultSetBenchmark {
+
+    private static final int COLUMNS = 24;
+    private static final int ITERATIONS = 5;
+
+    public static void main(String[] args) throws SQLException {
+        // warm up
+        for (int i = 0; i < 10; i++) {
+            build(20_000);
+        }
+        System.out.printf("%10s %12s %12s%n", "rows", "total ms", "ns/row");
+        for (int rows = 10_000; rows <= 1_280_000; rows *= 2) {
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < ITERATIONS; i++) {
+                final long start = System.nanoTime();
+                build(rows);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            System.out.printf("%10d %12.2f %12.1f%n", rows, best / 1e6, (double) best / rows);
+        }
+    }
+
+    private static int build(int rows) throws SQLException {
+        final ArrayResultSet resultSet = new ArrayResultSet();
+        final ArrayResultSet part = new ArrayResultSet();
+        for (int i = 0; i < rows; i++) {
+            final Object[] row = new Object[COLUMNS];
+            row[0] = "ks";
+            row[3] = "column" + (i & 1023);
+            (i % 4 == 0 ? part : resultSet).addRow(row);
+        }
+        resultSet.addResultSet(part);
+        int count = 0;
+        while (resultSet.next()) {
+            if (resultSet.getString(1) != null) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,102 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Fully fetched driver result set over rows kept in memory. Used to replay cached or shared results through CassandraResultSet.
+ * Each instance has its own cursor, the rows are shared and never modified.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class CachedResultSet implements ResultSet {
+
+    private final ColumnDefinitions columnDefinitions;
+    private final List<ExecutionInfo> executionInfos;
+    private final List<Row> rows;
+    private final boolean wasApplied;
+    private final Iterator<Row> iterator;
+    private int position;
+
+    CachedResultSet(ColumnDefinitions columnDefinitions, List<ExecutionInfo> executionInfos, List<Row> rows, boolean wasApplied) {
+        this.columnDefinitions = columnDefinitions;
+        this.executionInfos = executionInfos;
+        this.rows = rows;
+        this.wasApplied = wasApplied;
+        this.iterator = new Iterator<Row>() {
+            @Override
+            public boolean hasNext() {
+                return position < CachedResultSet.this.rows.size();
+            }
+
+            @Override
+            public Row next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return CachedResultSet.this.rows.get(position++);
+            }
+        };
+    }
+
+    /**
+     * Read the rows available without fetching into memory. The source rows are consumed.
+     */
+    static CachedResultSet copyOf(ResultSet source) {
+        final List<Row> rows = new ArrayList<>(source.getAvailableWithoutFetching());
+        for (Row row : source) {
+            rows.add(row);
+        }
+        return new CachedResultSet(source.getColumnDefinitions(), source.getExecutionInfos(), Collections.unmodifiableList(rows), source.wasApplied());
+    }
+
+    /**
+     * @return a new result set over the same rows, with the cursor before the first row.
+     */
+    CachedResultSet replay() {
+        return new CachedResultSet(columnDefinitions, executionInfos, rows, wasApplied);
+    }
+
+    List<Row> getRows() {
+        return rows;
+    }
+
+    @Override
+    public ColumnDefinitions getColumnDefinitions() {
+        return columnDefinitions;
+    }
+
+    @Override
+    public List<ExecutionInfo> getExecutionInfos() {
+        return executionInfos;
+    }
+
+    @Override
+    public boolean isFullyFetched() {
+        return true;
+    }
+
+    @Override
+    public int getAvailableWithoutFetching() {
+        return rows.size() - position;
+    }
+
+    @Override
+    public boolean wasApplied() {
+        return wasApplied;
+    }
+
+    @Override
+    public Iterator<Row> iterator() {
+        return iterator;
+    }
+}
@@ -3,8 +3,16 @@ package com.wisecoders.dbschema.cassandra;
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.BatchStatementBuilder;
 import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
+import com.wisecoders.dbschema.cassandra.types.ByteBufferPool;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
@@ -12,18 +20,88 @@ import java.sql.*;
  * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
  */
 public abstract class CassandraBaseStatement implements Statement {
+    final CassandraConnection connection;
     final CqlSession session;
     BatchStatementBuilder batchStatementBuilder = null;
     private boolean isClosed = false;
     CassandraResultSet result;
+    private final List<ByteBuffer> pooledBuffers = new ArrayList<>();
+    private final List<ByteBuffer> executedBuffers = new ArrayList<>();
 
-    CassandraBaseStatement(CqlSession session) {
-        this.session = session;
+    private final Set<String> batchQueries = new HashSet<>();
+    private final LeakDetector.Tracked leakHandle;
+
+    CassandraBaseStatement(CassandraConnection connection) {
+        this.connection = connection;
+        this.session = connection.getSession();
+        this.leakHandle = connection.trackLeak(this, "Statement", null);
     }
 
     @Override
     public void close() {
         isClosed = true;
+        closeResult();
+        releasePooledBuffers();
+        if (leakHandle != null) {
+            leakHandle.closed();
+        }
+    }
+
+    /**
+     * Read a stream parameter into a pooled direct buffer. The buffer is returned to the pool after the next execution
+     * of the statement, as the following pages of a query re-send the bound values.
+     */
+    ByteBuffer readStream(InputStream in, long length) throws SQLException {
+        if (in == null) return null;
+        try {
+            final ByteBuffer buffer = ByteBufferPool.INSTANCE.read(in, length);
+            pooledBuffers.add(buffer);
+            return buffer;
+        } catch (IOException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Called when the parameters are bound for a new execution. The result set of the previous execution is closed first,
+     * as its following pages would re-send the bound values from the released buffers.
+     */
+    void rotatePooledBuffers() {
+        closeResult();
+        release(executedBuffers);
+        if (batchStatementBuilder == null) {
+            executedBuffers.addAll(pooledBuffers);
+            pooledBuffers.clear();
+        }
+    }
+
+    /**
+     * Close the result set of the previous execution, called at the start of each execution. This finishes its timer,
+     * so the connection does not wait for an abandoned result set on close.
+     */
+    void closeResult() {
+        if (result != null) {
+            result.close();
+            result = null;
+        }
+    }
+
+    void addBatchQuery(String query) {
+        if (connection.getResultCache() != null) {
+            batchQueries.add(query);
+        }
+    }
+
+    void releasePooledBuffers() {
+        release(executedBuffers);
+        release(pooledBuffers);
+    }
+
+    private static void release(List<ByteBuffer> buffers) {
+        for (ByteBuffer buffer : buffers) {
+            ByteBufferPool.INSTANCE.release(buffer);
+        }
+        buffers.clear();
     }
 
     void checkClosed() throws SQLException {
@@ -37,10 +115,12 @@ public abstract class CassandraBaseStatement implements Statement {
         return isClosed;
     }
 
-    boolean executeInner(com.datastax.oss.driver.api.core.cql.ResultSet resultSet, boolean returnNullStrings) throws SQLException {
+    boolean executeInner(com.datastax.oss.driver.api.core.cql.ResultSet resultSet, boolean returnNullStrings, StatementTimer timer) throws SQLException {
         try {
-            result = new CassandraResultSet(this, resultSet, returnNullStrings);
+            result = new CassandraResultSet(this, resultSet, returnNullStrings, timer);
             if (!result.isQuery()) {
+                // finishes the timer
+                result.close();
                 result = null;
                 return false;
             }
@@ -67,13 +147,19 @@ public abstract class CassandraBaseStatement implements Statement {
     @Override
     public int[] executeBatch() throws SQLException {
         if (batchStatementBuilder == null) throw new SQLException("No batch statements were submitted");
+        closeResult();
         int statementsCount = batchStatementBuilder.getStatementsCount();
         try {
-            session.execute(batchStatementBuilder.build());
+            session.execute(connection.withNetworkTimeout(batchStatementBuilder.build()));
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         } finally {
             batchStatementBuilder = null;
+            releasePooledBuffers();
+            for (String query : batchQueries) {
+                connection.invalidateResultCache(query);
+            }
+            batchQueries.clear();
         }
         int[] res = new int[statementsCount];
         for (int i = 0; i < statementsCount; i++) {
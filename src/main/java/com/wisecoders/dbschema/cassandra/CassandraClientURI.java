@@ -2,7 +2,13 @@ package com.wisecoders.dbschema.cassandra;
 
 import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.CqlSessionBuilder;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
 import com.datastax.oss.driver.api.core.config.DriverConfigLoader;
+import com.datastax.oss.driver.api.core.config.ProgrammaticDriverConfigLoaderBuilder;
+import com.datastax.oss.driver.api.core.metadata.NodeStateListener;
+import com.datastax.oss.driver.api.core.metadata.schema.SchemaChangeListener;
+import com.datastax.oss.driver.api.core.metrics.DefaultNodeMetric;
+import com.datastax.oss.driver.api.core.metrics.DefaultSessionMetric;
 import software.amazon.awssdk.utils.StringUtils;
 
 import javax.net.ssl.KeyManagerFactory;
@@ -18,6 +24,8 @@ import java.security.KeyStore;
 import java.security.SecureRandom;
 import java.time.Duration;
 import java.util.*;
+import java.util.function.Function;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -50,10 +58,22 @@ public class CassandraClientURI {
     private final String awsSecretKey;
     private final String awsRegion;
     private final String configFile;
+    private final String resultCache;
+    private final int resultCacheMaxEntries;
+    private final long resultCacheMaxBytes;
+    private final boolean coalesceReads;
+    private final long statsTtl;
+    private final String schemaCache;
+    private final List<String> sessionMetrics;
+    private final List<String> nodeMetrics;
+    private final long slowQueryThreshold;
+    private final long leakDetectionThreshold;
+    private final int leakSampling;
+    private final long closeGracePeriod;
+    private final long heartbeatInterval;
 
     public CassandraClientURI(String uri, Properties info) {
         this.uri = uri;
-        LOGGER.info("URI: " + maskAllPassowords(uri));
         if (!uri.startsWith(PREFIX))
             throw new IllegalArgumentException("URI needs to start with " + PREFIX);
 
@@ -79,6 +99,11 @@ public class CassandraClientURI {
             }
         }
 
+        DriverLogging.configure(getOption(info, options, "loglevel"), getOption(info, options, "logfile"));
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("URI: " + maskAllPassowords(this.uri));
+        }
+
         this.userName = getOption(info, options, "user");
 
         this.awsRegion = getOption(info, options, "awsregion");
@@ -105,6 +130,28 @@ public class CassandraClientURI {
 
         this.configFile = getOption(info, options, "configfile");
 
+        this.resultCache = getOption(info, options, "resultcache");
+        String resultCacheMaxEntries = getOption(info, options, "resultcachemaxentries");
+        String resultCacheMaxBytes = getOption(info, options, "resultcachemaxbytes");
+        this.resultCacheMaxEntries = resultCacheMaxEntries == null ? ResultCache.DEFAULT_MAX_ENTRIES : Integer.parseInt(resultCacheMaxEntries);
+        this.resultCacheMaxBytes = resultCacheMaxBytes == null ? ResultCache.DEFAULT_MAX_BYTES : Long.parseLong(resultCacheMaxBytes);
+        this.coalesceReads = Boolean.parseBoolean(getOption(info, options, "coalescereads"));
+        String statsTtl = getOption(info, options, "statsttl");
+        this.statsTtl = statsTtl == null ? SizeEstimates.DEFAULT_TTL_MILLIS : Long.parseLong(statsTtl);
+        this.schemaCache = getOption(info, options, "schemacache");
+        this.sessionMetrics = parseMetrics(getOption(info, options, "sessionmetrics"), DefaultSessionMetric.values(), DefaultSessionMetric::getPath);
+        String slowQueryThreshold = getOption(info, options, "slowquerythreshold");
+        this.slowQueryThreshold = slowQueryThreshold == null ? -1 : Long.parseLong(slowQueryThreshold);
+        this.nodeMetrics = parseMetrics(getOption(info, options, "nodemetrics"), DefaultNodeMetric.values(), DefaultNodeMetric::getPath);
+        String leakDetection = getOption(info, options, "leakdetection");
+        this.leakDetectionThreshold = leakDetection == null ? -1 : Long.parseLong(leakDetection);
+        String leakSampling = getOption(info, options, "leaksampling");
+        this.leakSampling = leakSampling == null ? LeakDetector.DEFAULT_SAMPLING : Integer.parseInt(leakSampling);
+        String heartbeatInterval = getOption(info, options, "heartbeatinterval");
+        this.heartbeatInterval = heartbeatInterval == null ? -1 : Long.parseLong(heartbeatInterval);
+        String closeGracePeriod = getOption(info, options, "closegraceperiod");
+        this.closeGracePeriod = closeGracePeriod == null ? CassandraConnection.DEFAULT_CLOSE_GRACE_PERIOD : Long.parseLong(closeGracePeriod);
+
         { // userName,password,hosts
             List<String> all = new LinkedList<>();
             Collections.addAll(all, serverPart.split(","));
@@ -124,7 +171,9 @@ public class CassandraClientURI {
                 collection = nsPart.substring(dotIndex + 1);
             }
         }
-        LOGGER.info("hosts=" + hosts + " keyspace=" + keyspace + " collection=" + collection + " user=" + userName + " dc=" + dataCenter + " sslenabled=" + sslEnabledOption );
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("hosts=" + hosts + " keyspace=" + keyspace + " collection=" + collection + " user=" + userName + " dc=" + dataCenter + " sslenabled=" + sslEnabledOption );
+        }
 
     }
 
@@ -156,8 +205,20 @@ public class CassandraClientURI {
         return getLastValue(options, optionName);
     }
 
-    CqlSession createCqlSession() throws IOException, GeneralSecurityException {
+    CqlSession createCqlSession(SchemaChangeListener schemaChangeListener, NodeStateListener nodeStateListener) throws IOException, GeneralSecurityException {
         CqlSessionBuilder builder = CqlSession.builder();
+        if (schemaChangeListener != null) {
+            builder.addSchemaChangeListener(schemaChangeListener);
+        }
+        if (nodeStateListener != null) {
+            builder.addNodeStateListener(nodeStateListener);
+        }
+        SSLContext sslContext = null;
+        if (sslEnabled) {
+            final Object event = JfrEvents.CONNECT.begin();
+            sslContext = getSslContext();
+            JfrEvents.CONNECT.commit(event, "ssl context", String.join(",", hosts));
+        }
         int port = 9042;
         for ( String host : hosts ){
             int idx = host.indexOf(":");
@@ -166,24 +227,74 @@ public class CassandraClientURI {
                 host = host.substring( 0, idx ).trim();
             }
             builder.addContactPoint( new InetSocketAddress( host, port ) );
-            LOGGER.info("sslenabled: " + sslEnabled.toString());
-            if (sslEnabled) {
-                builder.withSslContext(getSslContext());
+            if (sslContext != null) {
+                builder.withSslContext(sslContext);
             }
             if (getConfigFile() != null) {
                 File file = new File(this.getConfigFile());
                 builder.withConfigLoader(DriverConfigLoader.fromFile(file));
             }
         }
+        if (getConfigFile() == null && (isSchemaLoadDeferred() || !sessionMetrics.isEmpty() || !nodeMetrics.isEmpty() || heartbeatInterval > 0)) {
+            final ProgrammaticDriverConfigLoaderBuilder config = DriverConfigLoader.programmaticBuilder();
+            if (isSchemaLoadDeferred()) {
+                // the schema metadata is loaded after connect, the metadata is served meanwhile from the schema file cache
+                config.withBoolean(DefaultDriverOption.METADATA_SCHEMA_ENABLED, false);
+            }
+            if (!sessionMetrics.isEmpty()) {
+                config.withStringList(DefaultDriverOption.METRICS_SESSION_ENABLED, sessionMetrics);
+            }
+            if (!nodeMetrics.isEmpty()) {
+                config.withStringList(DefaultDriverOption.METRICS_NODE_ENABLED, nodeMetrics);
+            }
+            if (heartbeatInterval > 0) {
+                // idle connections are probed by the driver, so the node states used by isValid() stay current
+                config.withDuration(DefaultDriverOption.HEARTBEAT_INTERVAL, Duration.ofMillis(heartbeatInterval));
+            }
+            builder.withConfigLoader(config.build());
+        } else if (!sessionMetrics.isEmpty() || !nodeMetrics.isEmpty()) {
+            LOGGER.warning("The sessionmetrics and nodemetrics options are ignored with configfile, enable the metrics in advanced.metrics of the file");
+        }
+        if (getConfigFile() != null && heartbeatInterval > 0) {
+            LOGGER.warning("The heartbeatinterval option is ignored with configfile, set advanced.heartbeat.interval in the file");
+        }
         builder.withLocalDatacenter( dataCenter != null ? dataCenter : "datacenter1" );
         if ( userName != null && !userName.isEmpty() && password != null ) {
             builder.withAuthCredentials(userName, password);
-            LOGGER.info("Authenticating as user '" + userName + "'");
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.info("Authenticating as user '" + userName + "'");
+            }
         }
         return builder.build();
     }
 
 
+    /**
+     * @param value comma separated metric paths like cql-requests,bytes-sent, or all.
+     * @return the metric paths, validated against the driver metrics.
+     */
+    private static <M> List<String> parseMetrics(String value, M[] metrics, Function<M, String> path) {
+        if (value == null || value.trim().isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Set<String> known = new LinkedHashSet<>();
+        for (M metric : metrics) {
+            known.add(path.apply(metric));
+        }
+        if ("all".equalsIgnoreCase(value.trim())) {
+            return new ArrayList<>(known);
+        }
+        final List<String> paths = new ArrayList<>();
+        for (String name : value.split(",")) {
+            final String trimmed = name.trim().toLowerCase(Locale.ENGLISH);
+            if (!known.contains(trimmed)) {
+                throw new IllegalArgumentException("Unknown driver metric '" + name + "', known metrics are " + known);
+            }
+            paths.add(trimmed);
+        }
+        return paths;
+    }
+
     private String getLastValue(final Map<String, List<String>> optionsMap, final String key) {
         if (optionsMap == null) return null;
         List<String> valueList = optionsMap.get(key);
@@ -353,4 +464,89 @@ public class CassandraClientURI {
     public String getConfigFile() {
         return configFile;
     }
+
+    /**
+     * @return the result cache configured with the resultcache option, or null if the option is missing.
+     */
+    public ResultCache createResultCache() {
+        if (!isResultCacheEnabled()) {
+            return null;
+        }
+        return new ResultCache(resultCache, resultCacheMaxEntries, resultCacheMaxBytes);
+    }
+
+    public boolean isResultCacheEnabled() {
+        return resultCache != null && !resultCache.trim().isEmpty();
+    }
+
+    /**
+     * @return the resultcache option with the size limits, connections with equal options can share the cache.
+     */
+    String getResultCacheOptions() {
+        return resultCache + ':' + resultCacheMaxEntries + ':' + resultCacheMaxBytes;
+    }
+
+    public boolean isCoalesceReads() {
+        return coalesceReads;
+    }
+
+    /**
+     * @return how long table size estimates are cached, in milliseconds.
+     */
+    public long getStatsTtl() {
+        return statsTtl;
+    }
+
+    /**
+     * @return the session metrics enabled by the sessionmetrics option, as driver metric paths.
+     */
+    public List<String> getSessionMetrics() {
+        return sessionMetrics;
+    }
+
+    /**
+     * @return the node metrics enabled by the nodemetrics option, as driver metric paths.
+     */
+    public List<String> getNodeMetrics() {
+        return nodeMetrics;
+    }
+
+    /**
+     * @return the slow query log, or null if the slowquerythreshold option is not set.
+     */
+    SlowQueryLog createSlowQueryLog() {
+        return slowQueryThreshold < 0 ? null : new SlowQueryLog(slowQueryThreshold);
+    }
+
+    /**
+     * @return how long Connection.close() waits for the in-flight requests and the session close, in milliseconds.
+     */
+    public long getCloseGracePeriod() {
+        return closeGracePeriod;
+    }
+
+    /**
+     * @return the leak detector, or null if the leakdetection option is not set.
+     */
+    LeakDetector createLeakDetector() {
+        return leakDetectionThreshold < 0 ? null : new LeakDetector(leakDetectionThreshold, leakSampling);
+    }
+
+    /**
+     * @return the on-disk schema metadata cache, or null if the schemacache option is not set.
+     */
+    SchemaFileCache createSchemaFileCache() {
+        if (schemaCache == null || schemaCache.isEmpty() || "false".equalsIgnoreCase(schemaCache)) {
+            return null;
+        }
+        return new SchemaFileCache("true".equalsIgnoreCase(schemaCache) ? SchemaFileCache.DEFAULT_DIRECTORY : new File(schemaCache));
+    }
+
+    /**
+     * With the schema file cache, the session is built without waiting for the schema metadata.
+     * Not done with a configfile, which may configure the schema metadata itself.
+     */
+    boolean isSchemaLoadDeferred() {
+        return createSchemaFileCache() != null && getConfigFile() == null;
+    }
 }
@@ -1,17 +1,33 @@
 package com.wisecoders.dbschema.cassandra;
 
 
+import com.datastax.oss.driver.api.core.CqlIdentifier;
 import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.config.DefaultDriverOption;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
 import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
 import com.wisecoders.dbschema.cassandra.types.ArrayResultSet;
 import com.wisecoders.dbschema.cassandra.types.BlindPreparedStatement;
 
 import java.sql.*;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
 
 /**
  * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
@@ -21,54 +37,317 @@ import java.util.regex.Pattern;
 
 public class CassandraConnection implements Connection {
 
+    static final long DEFAULT_CLOSE_GRACE_PERIOD = 2000;
+    static final long VALIDATION_CACHE_MILLIS = 1000;
+    static final long IDLE_PROBE_MILLIS = 30000;
+    static final String PROBE_QUERY = "SELECT release_version FROM system.local";
+
+    private final SessionContext sessionContext;
     private final CqlSession session;
     private final JdbcDriver driver;
+    private final CassandraClientURI clientURI;
     private final boolean returnNullStringsFromIntroQuery;
-    private boolean isClosed = false;
+    private final ResultCache resultCache;
+    private final ReadCoalescer readCoalescer;
+    private final SlowQueryLog slowQueryLog;
+    private final LeakDetector leakDetector;
+    private final LeakDetector.Tracked leakHandle;
+    private final long closeGracePeriod;
+    // statements executing or with a result set not yet exhausted or closed
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean isClosed = false;
+    private volatile long lastSuccessNanos = System.nanoTime();
+    private volatile long validatedNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(VALIDATION_CACHE_MILLIS);
+    private volatile boolean validated;
+    private volatile int networkTimeout;
     private boolean isReadOnly = false;
 
-    CassandraConnection(CqlSession session, JdbcDriver jdbcDriver, boolean returnNullStringsFromIntroQuery) {
-        this.session = session;
+    CassandraConnection(SessionContext sessionContext, JdbcDriver jdbcDriver, CassandraClientURI clientURI, boolean returnNullStringsFromIntroQuery) {
+        this.sessionContext = sessionContext;
+        this.session = sessionContext.getSession();
         driver = jdbcDriver;
         this.returnNullStringsFromIntroQuery = returnNullStringsFromIntroQuery;
+        this.clientURI = clientURI;
+        this.resultCache = jdbcDriver.acquireResultCache(clientURI);
+        this.readCoalescer = jdbcDriver.acquireReadCoalescer(clientURI);
+        this.slowQueryLog = clientURI.createSlowQueryLog();
+        this.closeGracePeriod = clientURI.getCloseGracePeriod();
+        this.leakDetector = clientURI.createLeakDetector();
+        // the release action holds the session context, not the connection, so the connection can be reclaimed
+        this.leakHandle = trackLeak(this, "Connection", () -> {
+            sessionContext.close(false);
+            jdbcDriver.releaseShared(clientURI);
+        });
     }
 
-    public String getCatalog() throws SQLException {
+    /**
+     * @return the handle to close with the object, or null if the leakdetection URL option is not set.
+     */
+    LeakDetector.Tracked trackLeak(Object resource, String kind, Runnable release) {
+        return leakDetector == null ? null : leakDetector.track(resource, kind, release);
+    }
+
+    /**
+     * @return the coalescer of identical concurrent reads, or null if it is not enabled by the coalescereads URL option.
+     */
+    public ReadCoalescer getReadCoalescer() {
+        return readCoalescer;
+    }
+
+    /**
+     * @return the JDBC metadata rows cache of the session.
+     */
+    public MetadataCache getMetadataCache() {
+        return sessionContext.getMetadataCache();
+    }
+
+    /**
+     * @return the Cassandra versions of the cluster nodes.
+     */
+    public ClusterVersions getClusterVersions() {
+        return sessionContext.getClusterVersions();
+    }
+
+    /**
+     * @return the table size estimates cache of the session.
+     */
+    public SizeEstimates getSizeEstimates() {
+        return sessionContext.getSizeEstimates();
+    }
+
+    /**
+     * @return the latency histograms per statement fingerprint of the session.
+     */
+    public StatementMetrics getStatementMetrics() {
+        return sessionContext.getStatementMetrics();
+    }
+
+    /**
+     * @return the DataStax driver metrics of the session, or null if no metric is enabled by the sessionmetrics and nodemetrics URL options.
+     */
+    public SessionMetrics getSessionMetrics() {
+        return sessionContext.getSessionMetrics();
+    }
+
+    /**
+     * Start a request. The request is in flight until its timer is finished or failed.
+     */
+    StatementTimer startTimer(String cql) throws SQLException {
+        inFlight.incrementAndGet();
+        if (isClosed) {
+            requestDone(false);
+            checkClosed();
+        }
+        return sessionContext.getStatementMetrics().start(cql, slowQueryLog, this::requestDone);
+    }
+
+    private void requestDone(boolean succeeded) {
+        if (succeeded) {
+            lastSuccessNanos = System.nanoTime();
+        }
+        if (inFlight.decrementAndGet() == 0 && isClosed) {
+            synchronized (inFlight) {
+                inFlight.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Estimated partition count and size of a table, aggregated from system.size_estimates of all nodes.
+     * The result is cached for statsttl milliseconds, unless fresh is true.
+     */
+    public SizeEstimates.Estimate getTableStats(String keyspace, String table, boolean fresh) throws SQLException {
         checkClosed();
         try {
-            return session.getKeyspace().toString();
+            return sessionContext.getSizeEstimates().get(session, keyspace, table, !fresh);
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         }
     }
 
-    private static final Pattern describeTable = Pattern.compile("DESC (.*)\\.(.*)", Pattern.CASE_INSENSITIVE);
-    private static final Pattern describeKeyspace = Pattern.compile("DESC (.*)", Pattern.CASE_INSENSITIVE );
+    /**
+     * @return the client side result cache, shared by the connections with the same URL and user,
+     * or null if it is not enabled by the resultcache URL option.
+     */
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
 
+    /**
+     * Drop the cached results of the tables written by this CQL. Called also when the execution failed,
+     * as a write which timed out may still have been applied.
+     */
+    void invalidateResultCache(String cql) {
+        if (resultCache != null) {
+            resultCache.invalidate(cql, session.getKeyspace().map(CqlIdentifier::asInternal).orElse(null));
+        }
+    }
+
+    public String getCatalog() throws SQLException {
+        checkClosed();
+        try {
+            return session.getKeyspace().toString();
+        } catch (Throwable t) {
+            throw new SQLException(t.getMessage(), t);
+        }
+    }
 
+    /**
+     * DESC KEYSPACE name and DESC SCHEMA return one row per keyspace, type, table, view, function and aggregate,
+     * in dependency order. DESC keyspace returns the whole keyspace in one row, DESC [TABLE] keyspace.table the table.
+     * @return the result set, or null if the sql is not one of these DESC commands.
+     */
     public ResultSet executeDescribeCommand(String sql ){
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        if (info.getKind() != CqlStatementInfo.Kind.DESCRIBE) {
+            return null;
+        }
+        getMetadataCache().awaitSchema();
+        if ("SCHEMA".equals(info.getObjectType())) {
+            return describeObjects(SchemaDescription.describeSchema(session.getMetadata()));
+        }
+        final Optional<KeyspaceMetadata> keyspace = describedKeyspace(info);
+        if ("KEYSPACE".equals(info.getObjectType())) {
+            return describeObjects(SchemaDescription.describe(keyspace.map(Collections::singletonList).orElse(Collections.emptyList())));
+        }
         final ArrayResultSet rs = new ArrayResultSet("KEYSPACE", "CAT", "OBJECT", "DESC");
-        {
-            final Matcher matcher = describeTable.matcher(sql);
-            if (matcher.matches()) {
-                session.getMetadata().getKeyspace(matcher.group(1)).ifPresent(keyspaceMetadata -> {
-                    keyspaceMetadata.getTable(matcher.group(2)).ifPresent(tableMetadata -> {
-                        rs.addRow(new String[]{String.valueOf(keyspaceMetadata.getName()), null, matcher.group(1), tableMetadata.describeWithChildren(true)});
-                    });
+        keyspace.ifPresent(keyspaceMetadata -> {
+            if (info.getTable() != null) {
+                keyspaceMetadata.getTable(info.getTable()).ifPresent(tableMetadata -> {
+                    rs.addRow(new String[]{String.valueOf(keyspaceMetadata.getName()), null, keyspaceMetadata.getName().asInternal(), tableMetadata.describeWithChildren(true)});
                 });
-                return rs;
+            } else {
+                rs.addRow(new String[]{String.valueOf(keyspaceMetadata.getName()), null, keyspaceMetadata.getName().asInternal(), keyspaceMetadata.describeWithChildren(true)});
             }
+        });
+        return rs;
+    }
+
+    private Optional<KeyspaceMetadata> describedKeyspace(CqlStatementInfo info) {
+        if (info.getKeyspace() != null) {
+            return session.getMetadata().getKeyspace(info.getKeyspace());
         }
-        {
-            final Matcher matcher = describeKeyspace.matcher(sql);
-            if (matcher.matches()) {
-                session.getMetadata().getKeyspace(matcher.group(1)).ifPresent(keyspaceMetadata -> {
-                    rs.addRow(new String[]{String.valueOf(keyspaceMetadata.getName()), null, matcher.group(1), keyspaceMetadata.describeWithChildren(true)});
-                });
-                return rs;
+        return session.getKeyspace().flatMap(keyspace -> session.getMetadata().getKeyspace(keyspace));
+    }
+
+    /**
+     * @return true if the DESC command can be answered from the driver metadata. Objects unknown to the driver are described by the server.
+     */
+    boolean canDescribeLocally(CqlStatementInfo info) {
+        if (info.getKind() != CqlStatementInfo.Kind.DESCRIBE) {
+            return false;
+        }
+        if ("SCHEMA".equals(info.getObjectType())) {
+            return true;
+        }
+        getMetadataCache().awaitSchema();
+        final Optional<KeyspaceMetadata> keyspace = describedKeyspace(info);
+        return keyspace.isPresent() && (info.getTable() == null || keyspace.get().getTable(info.getTable()).isPresent());
+    }
+
+    /**
+     * Writes are refused on read-only connections, before they are sent to the server.
+     */
+    void checkWritable(CqlStatementInfo info) throws SQLException {
+        if (isReadOnly && info.isWrite()) {
+            throw new SQLException("The connection is read-only, " + info.getKind() + " statements are not allowed.");
+        }
+    }
+
+    private static ResultSet describeObjects(List<Object[]> rows) {
+        final ArrayResultSet rs = new ArrayResultSet(SchemaDescription.COLUMNS);
+        for (Object[] row : rows) {
+            rs.addRow(row);
+        }
+        return rs;
+    }
+
+    /**
+     * Pseudo-command SHOW STATS keyspace.table, or SHOW STATS keyspace for all tables of a keyspace.
+     * A single name is first resolved as a table of the current keyspace, then as a keyspace.
+     * Returns one row per table with the estimates from system.size_estimates, collected from all nodes with one query per node.
+     * @return the result set, or null if the sql is not a SHOW STATS command.
+     */
+    public ResultSet executeShowStatsCommand(String sql) throws SQLException {
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        if (info.getKind() != CqlStatementInfo.Kind.SHOW_STATS) {
+            return null;
+        }
+        final ArrayResultSet rs = new ArrayResultSet("KEYSPACE", "TABLE", "PARTITIONS", "MEAN_PARTITION_SIZE", "SIZE_BYTES", "RANGES", "NODES");
+        CqlIdentifier keyspace = CqlIdentifier.fromCql(info.getKeyspace());
+        final List<String> tables = new ArrayList<>();
+        if (info.getTable() != null) {
+            tables.add(CqlIdentifier.fromCql(info.getTable()).asInternal());
+        } else {
+            getMetadataCache().awaitSchema();
+            final CqlIdentifier name = keyspace;
+            final Optional<CqlIdentifier> current = session.getKeyspace();
+            if (current.isPresent() && session.getMetadata().getKeyspace(current.get()).flatMap(metadata -> metadata.getTable(name)).isPresent()) {
+                keyspace = current.get();
+                tables.add(name.asInternal());
+            } else {
+                session.getMetadata().getKeyspace(keyspace).ifPresent(keyspaceMetadata ->
+                        keyspaceMetadata.getTables().keySet().forEach(table -> tables.add(table.asInternal())));
             }
         }
-        return null;
+        final Map<String, SizeEstimates.Estimate> estimates;
+        try {
+            estimates = getSizeEstimates().getAll(session, keyspace.asInternal(), tables, true);
+        } catch (RuntimeException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+        for (Map.Entry<String, SizeEstimates.Estimate> entry : estimates.entrySet()) {
+            final SizeEstimates.Estimate estimate = entry.getValue();
+            rs.addRow(new Object[]{keyspace.asInternal(), entry.getKey(), estimate.getPartitions(), estimate.getMeanPartitionSize(),
+                    estimate.getSizeInBytes(), estimate.getRanges(), estimate.getNodes()});
+        }
+        return rs;
+    }
+
+    /**
+     * Pseudo-table SELECT * FROM jdbc_stats.statements [LIMIT n], the statistics of the statements executed on the session,
+     * one row per fingerprint, the statements with the highest total time first. Times are in milliseconds.
+     * @return the result set, or null if the sql is not a query of the jdbc_stats pseudo-tables.
+     */
+    public ResultSet executeStatementStatsQuery(String sql) throws SQLException {
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        if (info.getKind() != CqlStatementInfo.Kind.JDBC_STATS) {
+            return null;
+        }
+        if (!"statements".equalsIgnoreCase(info.getTable())) {
+            throw new SQLException("Unknown table " + info.getKeyspace() + "." + info.getTable() + ", the driver statistics are in " +
+                    CqlStatementInfo.JDBC_STATS_KEYSPACE + ".statements");
+        }
+        final List<Map.Entry<String, StatementMetrics.Stats>> entries = new ArrayList<>(getStatementMetrics().getAll().entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().getTotalNanos(), a.getValue().getTotalNanos()));
+        final ArrayResultSet rs = new ArrayResultSet("FINGERPRINT", "CALLS", "ROWS", "TOTAL_MS", "MEAN_MS", "MAX_MS", "P99_EXECUTE_MS",
+                "ERRORS", "TIMEOUTS", "BYTES");
+        final int limit = limit(sql);
+        for (Map.Entry<String, StatementMetrics.Stats> entry : entries.subList(0, Math.min(limit, entries.size()))) {
+            final StatementMetrics.Stats stats = entry.getValue();
+            final long calls = stats.getCalls();
+            rs.addRow(new Object[]{entry.getKey(), calls, stats.getRows(), millis(stats.getTotalNanos()),
+                    calls == 0 ? 0.0 : millis(stats.getTotalNanos() / calls), millis(stats.getMaxNanos()),
+                    millis(stats.getExecute().getPercentileMicros(99) * 1000), stats.getErrors(), stats.getTimeouts(), stats.getBytes()});
+        }
+        return rs;
+    }
+
+    private static double millis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+
+    private static int limit(String sql) {
+        final List<CqlLexer.Token> tokens = CqlLexer.tokenize(sql);
+        for (int i = 0; i + 1 < tokens.size(); i++) {
+            if (tokens.get(i).isWord("LIMIT") && tokens.get(i + 1).type == CqlLexer.TokenType.NUMBER) {
+                try {
+                    return Integer.parseInt(tokens.get(i + 1).text);
+                } catch (NumberFormatException ignored) {
+                }
+            }
+        }
+        return Integer.MAX_VALUE;
     }
 
     @SuppressWarnings("WeakerAccess")
@@ -77,15 +356,26 @@ public class CassandraConnection implements Connection {
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T unwrap(Class<T> iface) throws SQLException {
         checkClosed();
-        return null;
+        if (iface.isInstance(this)) {
+            return (T) this;
+        } else if (iface.isInstance(session)) {
+            return (T) session;
+        }
+        final SessionMetrics sessionMetrics = getSessionMetrics();
+        if (sessionMetrics != null && sessionMetrics.isWrapperFor(iface)) {
+            return sessionMetrics.unwrap(iface);
+        }
+        throw new SQLException("CassandraConnection is not a wrapper for " + iface.getName());
     }
 
     @Override
     public boolean isWrapperFor(Class<?> iface) throws SQLException {
         checkClosed();
-        return false;
+        final SessionMetrics sessionMetrics = getSessionMetrics();
+        return iface.isInstance(this) || iface.isInstance(session) || (sessionMetrics != null && sessionMetrics.isWrapperFor(iface));
     }
 
     @Override
@@ -118,8 +408,16 @@ public class CassandraConnection implements Connection {
     @Override
     public PreparedStatement prepareStatement(String sql) throws SQLException {
         checkClosed();
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        if (canDescribeLocally(info)) {
+            return new BlindPreparedStatement(executeDescribeCommand(sql));
+        }
+        if (info.getKind() == CqlStatementInfo.Kind.JDBC_STATS) {
+            return new BlindPreparedStatement(executeStatementStatsQuery(sql));
+        }
+        checkWritable(info);
         try {
-            return new CassandraPreparedStatement(session, session.prepare(sql), returnNullStringsFromIntroQuery || !SELECT_COLUMNS_INTRO_QUERY.equals(sql));
+            return new CassandraPreparedStatement(this, session.prepare(sql), returnNullStringsFromIntroQuery || !SELECT_COLUMNS_INTRO_QUERY.equals(sql));
         } catch ( SyntaxError error ) {
             ResultSet rs = executeDescribeCommand( sql );
             if ( rs != null ){
@@ -163,9 +461,51 @@ public class CassandraConnection implements Connection {
         checkClosed();
     }
 
+    /**
+     * Refuse new requests, wait up to closegraceperiod milliseconds for the executing statements and the result sets
+     * still reading pages, then close the CqlSession. If the session is not closed within the grace period it is force-closed.
+     */
     @Override
     public void close() {
+        if (!markClosed()) {
+            return;
+        }
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(closeGracePeriod);
+        try {
+            awaitInFlight(deadline);
+            sessionContext.close(false).toCompletableFuture().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (LOGGER.isLoggable(Level.INFO)) {
+                LOGGER.info("Session not closed after " + closeGracePeriod + " ms, " + inFlight.get() + " requests in flight, force closing");
+            }
+            sessionContext.close(true);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            sessionContext.close(true);
+        } catch (ExecutionException ex) {
+            LOGGER.log(Level.FINE, "Error closing the session", ex.getCause());
+        }
+    }
+
+    private synchronized boolean markClosed() {
+        if (isClosed) {
+            return false;
+        }
         isClosed = true;
+        if (leakHandle != null) {
+            leakHandle.closed();
+        }
+        driver.releaseShared(clientURI);
+        return true;
+    }
+
+    private void awaitInFlight(long deadline) throws InterruptedException {
+        synchronized (inFlight) {
+            long remaining;
+            while (inFlight.get() > 0 && (remaining = deadline - System.nanoTime()) > 0) {
+                TimeUnit.NANOSECONDS.timedWait(inFlight, remaining);
+            }
+        }
     }
 
     @Override
@@ -323,10 +663,59 @@ public class CassandraConnection implements Connection {
         return null;
     }
 
+    /**
+     * The connection is valid if a node is up and a statement succeeded in the last IDLE_PROBE_MILLIS. Otherwise a query
+     * on system.local is sent, and must answer within the timeout. The result is reused for VALIDATION_CACHE_MILLIS,
+     * so pools validating the connection at each borrow do not add a round trip each time.
+     * @param timeout in seconds, 0 for the driver request timeout.
+     */
     @Override
     public boolean isValid(int timeout) throws SQLException {
-        checkClosed();
-        return true;
+        if (timeout < 0) {
+            throw new SQLException("The timeout is negative");
+        }
+        if (isClosed) {
+            return false;
+        }
+        final long now = System.nanoTime();
+        if (now - validatedNanos < TimeUnit.MILLISECONDS.toNanos(VALIDATION_CACHE_MILLIS)) {
+            return validated;
+        }
+        final boolean valid = (hasNodeUp() && now - lastSuccessNanos < TimeUnit.MILLISECONDS.toNanos(IDLE_PROBE_MILLIS)) || probe(timeout);
+        validated = valid;
+        validatedNanos = System.nanoTime();
+        return valid;
+    }
+
+    private boolean hasNodeUp() {
+        return session.getMetadata().getNodes().values().stream().anyMatch(node -> node.getState() == NodeState.UP);
+    }
+
+    private boolean probe(int timeout) {
+        SimpleStatement statement = SimpleStatement.newInstance(PROBE_QUERY).setIdempotent(true);
+        if (timeout > 0) {
+            statement = statement.setTimeout(Duration.ofSeconds(timeout));
+        }
+        final CompletableFuture<?> future = session.executeAsync(statement).toCompletableFuture();
+        try {
+            if (timeout > 0) {
+                future.get(timeout, TimeUnit.SECONDS);
+            } else {
+                future.get();
+            }
+            lastSuccessNanos = System.nanoTime();
+            return true;
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            return false;
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException ex) {
+            LOGGER.log(Level.FINE, "Connection validation failed", ex.getCause());
+            return false;
+        }
     }
 
     @Override
@@ -383,17 +772,49 @@ public class CassandraConnection implements Connection {
 
     @Override
     public void abort(Executor executor) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        if (executor == null) {
+            throw new SQLException("The executor is null");
+        }
+        if (markClosed()) {
+            executor.execute(() -> sessionContext.close(true));
+        }
     }
 
+    /**
+     * The timeout becomes the request timeout of the statements executed on this connection, including the fetch of each page
+     * of their result sets. A request timing out fails with a DriverTimeoutException, and the driver cancels it, freeing its stream id.
+     * The executor is not used, the timeout is enforced by the driver.
+     * @param milliseconds the timeout, or 0 for the request timeout of the driver configuration.
+     */
     @Override
     public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        if (milliseconds < 0) {
+            throw new SQLException("The network timeout is negative");
+        }
+        networkTimeout = milliseconds;
     }
 
     @Override
     public int getNetworkTimeout() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        return networkTimeout;
+    }
+
+    /**
+     * @return the request timeout of the statement, or of the driver configuration if the statement has none.
+     */
+    Duration getRequestTimeout(com.datastax.oss.driver.api.core.cql.Statement<?> statement) {
+        final Duration timeout = statement.getTimeout();
+        return timeout != null ? timeout : session.getContext().getConfig().getDefaultProfile().getDuration(DefaultDriverOption.REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Apply the network timeout to the statement, if one is set.
+     */
+    <S extends com.datastax.oss.driver.api.core.cql.Statement<S>> S withNetworkTimeout(S statement) {
+        final int timeout = networkTimeout;
+        return timeout > 0 ? statement.setTimeout(Duration.ofMillis(timeout)) : statement;
     }
 
 
@@ -1,15 +1,12 @@
 package com.wisecoders.dbschema.cassandra;
 
 import com.datastax.oss.driver.api.core.CqlIdentifier;
-import com.datastax.oss.driver.api.core.metadata.schema.ClusteringOrder;
-import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
-import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
 import com.wisecoders.dbschema.cassandra.types.ArrayResultSet;
 
 import java.sql.*;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Cassandra databases are equivalent to catalogs for this driver. Schemas aren't used. Cassandra collections are
@@ -43,43 +40,41 @@ public class CassandraMetaData implements DatabaseMetaData {
     {
         ArrayResultSet retVal = new ArrayResultSet();
         retVal.setColumnNames(new String[]{"TABLE_CAT"});
-        for ( CqlIdentifier identifier : connection.getSession().getMetadata().getKeyspaces().keySet() ){
+        for ( CqlIdentifier identifier : connection.getMetadataCache().getKeyspaces() ){
             retVal.addRow(new String[] { identifier.toString() });
         }
         return retVal;
     }
 
+    /**
+     * Catalog and table name are JDBC search patterns. A null catalog returns the tables of all keyspaces.
+     */
     public ResultSet getTables(String catalogName, String schemaPattern, String tableNamePattern, String[] types) {
         ArrayResultSet resultSet = new ArrayResultSet();
         resultSet.setColumnNames(new String[]{"TABLE_CAT", "TABLE_SCHEM", "TABLE_NAME",
                 "TABLE_TYPE", "REMARKS", "TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "SELF_REFERENCING_COL_NAME",
                 "REF_GENERATION"});
-
-        this.connection.getSession().getMetadata().getKeyspace(catalogName).ifPresent( metadata -> {
-            for (Map.Entry<CqlIdentifier, TableMetadata> entry: metadata.getTables().entrySet()){
-                CqlIdentifier cqlIdentifier = entry.getKey();
-
-                String[] data = new String[10];
-                data[0] = catalogName; // TABLE_CAT
-                data[1] = ""; // TABLE_SCHEM
-                data[2] = cqlIdentifier.toString(); // TABLE_NAME
-                data[3] = "TABLE"; // TABLE_TYPE
-                data[4] = null; // REMARKS
-                data[5] = ""; // TYPE_CAT
-                data[6] = ""; // TYPE_SCHEM
-                data[7] = ""; // TYPE_NAME
-                data[8] = ""; // SELF_REFERENCING_COL_NAME
-                data[9] = ""; // REF_GENERATION
-
-                resultSet.addRow( data );
+        final LikePattern tablePattern = LikePattern.compile(tableNamePattern);
+        final List<String> typeList = types != null ? Arrays.asList(types) : null;
+        final MetadataCache metadataCache = connection.getMetadataCache();
+        final List<Object[]> rows = forEachKeyspace(catalogName, keyspace -> {
+            final List<Object[]> ret = new ArrayList<>();
+            for (Object[] row : metadataCache.getTables(keyspace)) {
+                if (tablePattern.matches((String) row[2]) && (typeList == null || typeList.contains((String) row[3]))) {
+                    ret.add(row);
+                }
             }
+            return ret;
         });
-
+        for (Object[] row : rows) {
+            resultSet.addRow(row);
+        }
         return resultSet;
     }
 
 
     /**
+     * Catalog, table and column name are JDBC search patterns. A null catalog returns the columns of all keyspaces.
      * @see java.sql.DatabaseMetaData#getColumns(java.lang.String, java.lang.String, java.lang.String, java.lang.String)
      */
     public ResultSet getColumns(String catalogName, String schemaName, String tableNamePattern, String columnNamePattern) {
@@ -91,78 +86,91 @@ public class CassandraMetaData implements DatabaseMetaData {
                 "ORDINAL_POSITION", "IS_NULLABLE", "SCOPE_CATALOG", "SCOPE_SCHEMA", "SCOPE_TABLE",
                 "SOURCE_DATA_TYPE", "IS_AUTOINCREMENT", "OPTIONS" });
 
-        connection.getSession().getMetadata().getKeyspace( catalogName ).ifPresent( metadata -> {
-            if ( tableNamePattern == null ){
-                for ( TableMetadata tableMetadata : metadata.getTables().values() ){
-                    for ( ColumnMetadata field : tableMetadata.getColumns().values() ){
-                        if ( columnNamePattern == null || columnNamePattern.equals( String.valueOf( field ))){
-                            exportColumnsRecursive( tableMetadata, result, field);
-                        }
-                    }
+        final LikePattern columnPattern = LikePattern.compile(columnNamePattern);
+        for (MetadataCache.TableRows tableRows : getTableRows(catalogName, tableNamePattern)) {
+            for (Object[] row : tableRows.columns) {
+                if (columnPattern.matches((String) row[3])) {
+                    result.addRow(row);
                 }
-            } else {
-                metadata.getTable( tableNamePattern ).ifPresent( tableMetadata -> {
-                    for (ColumnMetadata field : tableMetadata.getColumns().values() ) {
-                        if (columnNamePattern == null || columnNamePattern.equals(String.valueOf( field ))) {
-                            exportColumnsRecursive(tableMetadata, result, field);
-                        }
-                    }
-                } );
             }
-        } );
+        }
         return result;
     }
 
-    private void exportColumnsRecursive( TableMetadata tableMetadata, ArrayResultSet result, ColumnMetadata columnMetadata) {
-        StringBuilder sb = new StringBuilder();
-        /*
-        TableOptionsMetadata options = tableMetadata.getOptions();
-        if( options != null ){
-            sb.append("bloom_filter_fp_chance = " ).append(options.getBloomFilterFalsePositiveChance() ).
-                    append("\n AND caching = '").append( options.getCaching()).append("'").
-                    append("\n  AND comment = '").append( options.getComment()).append("'").
-                    append("\n  AND compaction = ").append( options.getCompaction()).
-                    append("\n  AND compression = ").append( options.getCompression()).
-                    append("\n  AND dclocal_read_repair_chance = " ).append(options.getLocalReadRepairChance() ).
-                    append("\n  AND default_time_to_live = " ).append(options.getDefaultTimeToLive() ).
-                    append("\n  AND gc_grace_seconds = " ).append(options.getGcGraceInSeconds() ).
-                    append("\n  AND max_index_interval = " ).append(options.getMaxIndexInterval() ).
-                    append("\n  AND memtable_flush_period_in_ms = " ).append(options.getMemtableFlushPeriodInMs() ).
-                    append("\n  AND min_index_interval = " ).append(options.getMinIndexInterval() ).
-                    append("\n  AND read_repair_chance = " ).append(options.getReadRepairChance() ).
-                    append("\n  AND speculative_retry = '").append(options.getSpeculativeRetry() ).append("'");
-        }*/
-
-        result.addRow(new String[] {
-                String.valueOf(tableMetadata.getKeyspace()), // "TABLE_CAT",
-                null, // "TABLE_SCHEMA",
-                String.valueOf( tableMetadata ), // "TABLE_NAME", (i.e. Cassandra Collection Name)
-                String.valueOf( columnMetadata ), // "COLUMN_NAME",
-                "" + columnMetadata.getType(), // "DATA_TYPE",
-                "" + columnMetadata.getType(), // "TYPE_NAME", -- I LET THIS INTENTIONALLY TO USE .toString() BECAUSE OF USER DEFINED TYPES.
-                "800", // "COLUMN_SIZE",
-                "0", // "BUFFER_LENGTH", (not used)
-                "0", // "DECIMAL_DIGITS",
-                "10", // "NUM_PREC_RADIX",
-                "0", // "NULLABLE", // I RETREIVE HERE IF IS FROZEN ( MANDATORY ) OR NOT ( NULLABLE )
-                "", // "REMARKS",
-                "", // "COLUMN_DEF",
-                "0", // "SQL_DATA_TYPE", (not used)
-                "0", // "SQL_DATETIME_SUB", (not used)
-                "800", // "CHAR_OCTET_LENGTH",
-                "1", // "ORDINAL_POSITION",
-                "NO", // "IS_NULLABLE",
-                null, // "SCOPE_CATLOG", (not a REF type)
-                null, // "SCOPE_SCHEMA", (not a REF type)
-                null, // "SCOPE_TABLE", (not a REF type)
-                null, // "SOURCE_DATA_TYPE", (not a DISTINCT or REF type)
-                "NO", // "IS_AUTOINCREMENT" (can be auto-generated, but can also be specified)
-                sb.toString() // TABLE_OPTIONS
+    /**
+     * Keyspaces matching the catalog pattern, sorted by name. A name without wildcards is looked up directly,
+     * as written then folded to lower case, a name with only '_' wildcards is looked up first the same way.
+     */
+    private List<CqlIdentifier> getKeyspaces(String catalogName) {
+        final LikePattern catalogPattern = LikePattern.compile(catalogName);
+        final List<CqlIdentifier> literals = catalogPattern.getLiteralIdentifiers();
+        if (!literals.isEmpty()) {
+            final List<CqlIdentifier> allKeyspaces = connection.getMetadataCache().getKeyspaces();
+            for (CqlIdentifier literal : literals) {
+                if (allKeyspaces.contains(literal)) {
+                    return Collections.singletonList(literal);
+                }
+            }
+        }
+        if (catalogPattern.getExact() != null) {
+            return literals.isEmpty() ? Collections.emptyList() : Collections.singletonList(literals.get(literals.size() - 1));
+        }
+        final List<CqlIdentifier> keyspaces = new ArrayList<>();
+        for (CqlIdentifier keyspace : connection.getMetadataCache().getKeyspaces()) {
+            if (catalogPattern.matches(keyspace.asInternal())) {
+                keyspaces.add(keyspace);
+            }
+        }
+        keyspaces.sort(Comparator.comparing(CqlIdentifier::asInternal));
+        return keyspaces;
+    }
+
+    /**
+     * Collect the rows of each keyspace matching the catalog pattern, in keyspace order.
+     * The keyspaces are processed in the calling thread, building the rows may block on the driver metadata.
+     */
+    private <T> List<T> forEachKeyspace(String catalogName, Function<CqlIdentifier, List<T>> work) {
+        final List<CqlIdentifier> keyspaces = getKeyspaces(catalogName);
+        if (keyspaces.size() == 1) {
+            return work.apply(keyspaces.get(0));
+        }
+        final List<T> ret = new ArrayList<>();
+        for (CqlIdentifier keyspace : keyspaces) {
+            ret.addAll(work.apply(keyspace));
+        }
+        return ret;
+    }
+
+    /**
+     * Cached rows of the tables matching the patterns. A null table pattern returns all tables.
+     */
+    private List<MetadataCache.TableRows> getTableRows(String catalogName, String tableNamePattern) {
+        final MetadataCache metadataCache = connection.getMetadataCache();
+        final LikePattern tablePattern = LikePattern.compile(tableNamePattern);
+        return forEachKeyspace(catalogName, keyspace -> {
+            final List<MetadataCache.TableRows> ret = new ArrayList<>();
+            MetadataCache.TableRows literalRows = null;
+            for (CqlIdentifier literal : tablePattern.getLiteralIdentifiers()) {
+                literalRows = metadataCache.getTable(keyspace, literal);
+                if (literalRows != null) break;
+            }
+            if (literalRows != null) {
+                ret.add(literalRows);
+            } else if (tablePattern.getExact() == null) {
+                for (Object[] table : metadataCache.getTables(keyspace)) {
+                    if (tablePattern.matches((String) table[2])) {
+                        final MetadataCache.TableRows tableRows = metadataCache.getTable(keyspace, CqlIdentifier.fromInternal((String) table[2]));
+                        if (tableRows != null) ret.add(tableRows);
+                    }
+                }
+            }
+            return ret;
         });
     }
 
 
     /**
+     * Catalog and table name may be JDBC search patterns. A null catalog returns the keys of all keyspaces.
      * @see java.sql.DatabaseMetaData#getPrimaryKeys(java.lang.String, java.lang.String, java.lang.String)
      */
     public ResultSet getPrimaryKeys(String catalogName, String schemaName, String tableNamePattern) {
@@ -170,25 +178,20 @@ public class CassandraMetaData implements DatabaseMetaData {
         final ArrayResultSet result = new ArrayResultSet();
         result.setColumnNames(new String[] { "TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "COLUMN_NAME", "KEY_SEQ", "PK_NAME" });
 
-        connection.getSession().getMetadata().getKeyspace( catalogName ).ifPresent( keyspaceMetadata -> {
-            keyspaceMetadata.getTable( tableNamePattern ).ifPresent( tableMetadata -> {
-                int seq = 0;
-                for ( ColumnMetadata columnMetadata : tableMetadata.getPrimaryKey() ){
-                    result.addRow(new String[]{
-                            String.valueOf( keyspaceMetadata), // "TABLE_CAT",
-                            null, // "TABLE_SCHEMA",
-                            String.valueOf( tableMetadata), // "TABLE_NAME", (i.e. Cassandra Collection Name)
-                            String.valueOf(columnMetadata), // "COLUMN_NAME",
-                            "" + seq++, // "ORDINAL_POSITION"
-                            "PRIMARY KEY" // "PK_NAME"
-                    });
-                }
-            });
-        });
+        for (MetadataCache.TableRows tableRows : getTableRows(catalogName, tableNamePattern)) {
+            for (Object[] row : tableRows.primaryKeys) {
+                result.addRow(row);
+            }
+        }
         return result;
     }
 
     /**
+     * Returns the clustering columns as CLUSTER KEY, followed by the secondary, SASI and SAI indexes of the table.
+     * Besides the JDBC columns, INDEX_KIND, INDEX_TARGET and INDEX_OPTIONS describe each index.
+     * CARDINALITY is the estimated number of partitions and PAGES the estimated table size in 4 KB pages, from system.size_estimates.
+     * With approximate=true the estimates may be up to a few minutes old, otherwise they are read again, with one query per node
+     * for all the tables of a keyspace.
      * @see java.sql.DatabaseMetaData#getIndexInfo(java.lang.String, java.lang.String, java.lang.String,
      *      boolean, boolean)
      */
@@ -196,30 +199,31 @@ public class CassandraMetaData implements DatabaseMetaData {
         final ArrayResultSet result = new ArrayResultSet();
         result.setColumnNames(new String[]{"TABLE_CAT", "TABLE_SCHEMA", "TABLE_NAME", "NON_UNIQUE",
                 "INDEX_QUALIFIER", "INDEX_NAME", "TYPE", "ORDINAL_POSITION", "COLUMN_NAME", "ASC_OR_DESC",
-                "CARDINALITY", "PAGES", "FILTER_CONDITION"});
-
-        connection.getSession().getMetadata().getKeyspace( catalogName ).ifPresent( keyspaceMetadata -> {
-            keyspaceMetadata.getTable( tableNamePattern ).ifPresent( tableMetadata -> {
-                int seq = 0;
-                for ( Map.Entry<ColumnMetadata, ClusteringOrder> entry : tableMetadata.getClusteringColumns().entrySet() ) {
-                    result.addRow(new String[]{
-                            String.valueOf(keyspaceMetadata), // "TABLE_CAT",
-                            null, // "TABLE_SCHEMA",
-                            String.valueOf( tableMetadata.getName() ), // "TABLE_NAME", (i.e. Cassandra Collection Name)
-                            "FALSE", // "NON-UNIQUE",
-                            String.valueOf( entry.getKey().getName()), // "INDEX QUALIFIER",
-                            "CLUSTER KEY", // "INDEX_NAME",
-                            "0", // "TYPE",
-                            "" + seq++ , // "ORDINAL_POSITION"
-                            String.valueOf( entry.getKey().getName() ), // "COLUMN_NAME",
-                            entry.getValue() == ClusteringOrder.ASC ? "A" : "D", // "ASC_OR_DESC",
-                            "0", // "CARDINALITY",
-                            "0", // "PAGES",
-                            "" // "FILTER_CONDITION",
-                    });
+                "CARDINALITY", "PAGES", "FILTER_CONDITION", "INDEX_KIND", "INDEX_TARGET", "INDEX_OPTIONS"});
+
+        final List<Object[]> rows = new ArrayList<>();
+        final Map<String, Set<String>> tablesByKeyspace = new LinkedHashMap<>();
+        for (MetadataCache.TableRows tableRows : getTableRows(catalogName, tableNamePattern)) {
+            for (Object[] row : tableRows.indexInfo) {
+                if (unique && "TRUE".equals(row[3])) {
+                    continue;
                 }
-        });
-        });
+                rows.add(row);
+                tablesByKeyspace.computeIfAbsent((String) row[0], keyspace -> new LinkedHashSet<>()).add((String) row[2]);
+            }
+        }
+        final SizeEstimates sizeEstimates = connection.getSizeEstimates();
+        final Map<String, Map<String, SizeEstimates.Estimate>> estimates = new HashMap<>();
+        for (Map.Entry<String, Set<String>> entry : tablesByKeyspace.entrySet()) {
+            estimates.put(entry.getKey(), sizeEstimates.getAll(connection.getSession(), entry.getKey(), entry.getValue(), approximate));
+        }
+        for (Object[] row : rows) {
+            final SizeEstimates.Estimate estimate = estimates.get((String) row[0]).get((String) row[2]);
+            final Object[] copy = row.clone();
+            copy[10] = String.valueOf(estimate.getPartitions()); // "CARDINALITY"
+            copy[11] = String.valueOf(estimate.getPages()); // "PAGES"
+            result.addRow(copy);
+        }
         return result;
     }
 
@@ -241,9 +245,90 @@ public class CassandraMetaData implements DatabaseMetaData {
     }
 
 
+    /**
+     * The CQL native types, including duration and vector, and the collection types, sorted by DATA_TYPE.
+     * DATA_TYPE is a java.sql.Types value: ARRAY for list, set and vector, JAVA_OBJECT for map and tuple.
+     */
     @Override
     public ResultSet getTypeInfo() throws SQLException {
-        return null;
+        final ArrayResultSet resultSet = new ArrayResultSet("TYPE_NAME", "DATA_TYPE", "PRECISION", "LITERAL_PREFIX", "LITERAL_SUFFIX",
+                "CREATE_PARAMS", "NULLABLE", "CASE_SENSITIVE", "SEARCHABLE", "UNSIGNED_ATTRIBUTE", "FIXED_PREC_SCALE", "AUTO_INCREMENT",
+                "LOCAL_TYPE_NAME", "MINIMUM_SCALE", "MAXIMUM_SCALE", "SQL_DATA_TYPE", "SQL_DATETIME_SUB", "NUM_PREC_RADIX");
+        for (Object[] row : TYPE_INFO) {
+            resultSet.addRow(row);
+        }
+        return resultSet;
+    }
+
+    private static final List<Object[]> TYPE_INFO = new ArrayList<>();
+
+    /**
+     * Types without a java.sql.Types value in CassandraResultSetMetaData.
+     */
+    private static final Map<String, Integer> TYPE_INFO_DATA_TYPES = new HashMap<>();
+
+    static {
+        TYPE_INFO_DATA_TYPES.put("list", Types.ARRAY);
+        TYPE_INFO_DATA_TYPES.put("set", Types.ARRAY);
+        TYPE_INFO_DATA_TYPES.put("vector", Types.ARRAY);
+        TYPE_INFO_DATA_TYPES.put("map", Types.JAVA_OBJECT);
+        TYPE_INFO_DATA_TYPES.put("varchar", Types.VARCHAR);
+
+        final String quote = "'";
+        final int unlimited = Integer.MAX_VALUE;
+        addTypeInfo("ascii", unlimited, quote, quote, null, true, typeSearchable, 0);
+        addTypeInfo("bigint", 19, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("blob", unlimited, "0x", null, null, false, typePredBasic, 0);
+        addTypeInfo("boolean", 1, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("counter", 19, null, null, null, false, typePredNone, 0);
+        addTypeInfo("date", 10, quote, quote, null, false, typePredBasic, 0);
+        addTypeInfo("decimal", unlimited, null, null, null, false, typePredBasic, Short.MAX_VALUE);
+        addTypeInfo("double", 15, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("duration", 0, null, null, null, false, typePredNone, 9);
+        addTypeInfo("float", 7, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("inet", 39, quote, quote, null, false, typePredBasic, 0);
+        addTypeInfo("int", 10, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("smallint", 5, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("text", unlimited, quote, quote, null, true, typeSearchable, 0);
+        addTypeInfo("time", 18, quote, quote, null, false, typePredBasic, 9);
+        addTypeInfo("timestamp", 29, quote, quote, null, false, typePredBasic, 3);
+        addTypeInfo("timeuuid", 36, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("tinyint", 3, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("uuid", 36, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("varchar", unlimited, quote, quote, null, true, typeSearchable, 0);
+        addTypeInfo("varint", unlimited, null, null, null, false, typePredBasic, 0);
+        addTypeInfo("vector", unlimited, "[", "]", "element type, dimension", false, typePredNone, 0);
+        addTypeInfo("list", unlimited, "[", "]", "element type", false, typePredNone, 0);
+        addTypeInfo("set", unlimited, "{", "}", "element type", false, typePredNone, 0);
+        addTypeInfo("map", unlimited, "{", "}", "key type, value type", false, typePredNone, 0);
+        addTypeInfo("tuple", unlimited, "(", ")", "component types", false, typePredNone, 0);
+        TYPE_INFO.sort(Comparator.comparing((Object[] row) -> Integer.parseInt((String) row[1])).thenComparing(row -> (String) row[0]));
+    }
+
+    private static void addTypeInfo(String name, int precision, String prefix, String suffix, String createParams,
+                                    boolean caseSensitive, int searchable, int maximumScale) {
+        final int dataType = TYPE_INFO_DATA_TYPES.containsKey(name) ? TYPE_INFO_DATA_TYPES.get(name) :
+                new CassandraResultSetMetaData.ColumnMetaData(name, null, null, name).getJavaType();
+        TYPE_INFO.add(new String[]{
+                name, // TYPE_NAME
+                String.valueOf(dataType), // DATA_TYPE
+                String.valueOf(precision), // PRECISION
+                prefix, // LITERAL_PREFIX
+                suffix, // LITERAL_SUFFIX
+                createParams, // CREATE_PARAMS
+                String.valueOf(typeNullable), // NULLABLE
+                String.valueOf(caseSensitive), // CASE_SENSITIVE
+                String.valueOf(searchable), // SEARCHABLE
+                "false", // UNSIGNED_ATTRIBUTE
+                "false", // FIXED_PREC_SCALE
+                "false", // AUTO_INCREMENT
+                name, // LOCAL_TYPE_NAME
+                "0", // MINIMUM_SCALE
+                String.valueOf(maximumScale), // MAXIMUM_SCALE
+                "0", // SQL_DATA_TYPE, unused
+                "0", // SQL_DATETIME_SUB, unused
+                "10" // NUM_PREC_RADIX
+        });
     }
 
     public <T> T unwrap(Class<T> iface) throws SQLException {
@@ -295,9 +380,18 @@ public class CassandraMetaData implements DatabaseMetaData {
         return "Cassandra";
     }
 
+    /**
+     * @return the lowest Cassandra version of the cluster nodes, from the driver node metadata.
+     */
     public String getDatabaseProductVersion() {
-        com.datastax.oss.driver.api.core.cql.ResultSet result = connection.getSession().execute("select release_version from system.local");
-        return result.one().getString(0);
+        return connection.getClusterVersions().getVersion().toString();
+    }
+
+    /**
+     * @return the Cassandra version of each node, by node endpoint. Useful for clusters in a rolling upgrade.
+     */
+    public Map<String, String> getNodeVersions() {
+        return connection.getClusterVersions().getNodeVersions();
     }
 
     public String getDriverName() {
@@ -381,7 +475,7 @@ public class CassandraMetaData implements DatabaseMetaData {
     }
 
     public String getSearchStringEscape() {
-        return null;
+        return LikePattern.ESCAPE;
     }
 
     public String getExtraNameCharacters() {
@@ -731,9 +825,13 @@ public class CassandraMetaData implements DatabaseMetaData {
         throw new SQLFeatureNotSupportedException();
     }
 
+    /**
+     * Cassandra has no stored procedures, user defined functions and aggregates are listed by getFunctions().
+     */
     public ResultSet getProcedures(String catalogName, String schemaPattern,
                                    String procedureNamePattern) {
-        return null;
+        return new ArrayResultSet("PROCEDURE_CAT", "PROCEDURE_SCHEM", "PROCEDURE_NAME", "RESERVED1", "RESERVED2", "RESERVED3",
+                "REMARKS", "PROCEDURE_TYPE", "SPECIFIC_NAME");
     }
 
     @Override
@@ -744,7 +842,10 @@ public class CassandraMetaData implements DatabaseMetaData {
 
     @Override
     public ResultSet getTableTypes() {
-        return null;
+        final ArrayResultSet result = new ArrayResultSet("TABLE_TYPE");
+        result.addRow(new String[]{MetadataCache.TABLE});
+        result.addRow(new String[]{MetadataCache.MATERIALIZED_VIEW});
+        return result;
     }
 
     @Override
@@ -847,9 +948,24 @@ public class CassandraMetaData implements DatabaseMetaData {
         return true;
     }
 
+    /**
+     * User defined types, as STRUCT. The REMARKS column lists the fields.
+     */
     @Override
     public ResultSet getUDTs(String catalogName, String schemaPattern, String typeNamePattern, int[] types) {
-        return null;
+        final ArrayResultSet resultSet = new ArrayResultSet("TYPE_CAT", "TYPE_SCHEM", "TYPE_NAME", "CLASS_NAME", "DATA_TYPE", "REMARKS", "BASE_TYPE");
+        if (types != null && Arrays.stream(types).noneMatch(type -> type == Types.STRUCT)) {
+            return resultSet;
+        }
+        final LikePattern typePattern = LikePattern.compile(typeNamePattern);
+        final MetadataCache metadataCache = connection.getMetadataCache();
+        final List<Object[]> rows = forEachKeyspace(catalogName, keyspace -> metadataCache.getRoutines(keyspace).udts.stream()
+                .filter(row -> typePattern.matches((String) row[2]))
+                .collect(Collectors.toList()));
+        for (Object[] row : rows) {
+            resultSet.addRow(row);
+        }
+        return resultSet;
     }
 
     @Override
@@ -905,12 +1021,12 @@ public class CassandraMetaData implements DatabaseMetaData {
 
     @Override
     public int getDatabaseMajorVersion() {
-        return Integer.parseInt((getDatabaseProductVersion().split("\\."))[0]);
+        return connection.getClusterVersions().getVersion().getMajor();
     }
 
     @Override
     public int getDatabaseMinorVersion() {
-        return Integer.parseInt((getDatabaseProductVersion().split("\\."))[1]);
+        return connection.getClusterVersions().getVersion().getMinor();
     }
 
     @Override
@@ -963,9 +1079,21 @@ public class CassandraMetaData implements DatabaseMetaData {
         throw new SQLFeatureNotSupportedException();
     }
 
+    /**
+     * User defined functions and aggregates. Overloaded functions have one row each, with the parameter types in SPECIFIC_NAME.
+     */
     @Override
     public ResultSet getFunctions(String catalogName, String schemaPattern, String functionNamePattern) {
-        return null;
+        final ArrayResultSet resultSet = new ArrayResultSet("FUNCTION_CAT", "FUNCTION_SCHEM", "FUNCTION_NAME", "REMARKS", "FUNCTION_TYPE", "SPECIFIC_NAME");
+        final LikePattern functionPattern = LikePattern.compile(functionNamePattern);
+        final MetadataCache metadataCache = connection.getMetadataCache();
+        final List<Object[]> rows = forEachKeyspace(catalogName, keyspace -> metadataCache.getRoutines(keyspace).functions.stream()
+                .filter(row -> functionPattern.matches((String) row[2]))
+                .collect(Collectors.toList()));
+        for (Object[] row : rows) {
+            resultSet.addRow(row);
+        }
+        return resultSet;
     }
 
     @Override
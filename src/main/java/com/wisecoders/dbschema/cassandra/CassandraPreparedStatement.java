@@ -1,11 +1,11 @@
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.CqlSession;
 import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BatchType;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.servererrors.SyntaxError;
+import com.wisecoders.dbschema.cassandra.types.BlobImpl;
 
 import java.io.InputStream;
 import java.io.Reader;
@@ -26,18 +26,47 @@ import static com.wisecoders.dbschema.cassandra.DateUtil.considerTimeZone;
 public class CassandraPreparedStatement extends CassandraBaseStatement implements java.sql.PreparedStatement {
 
     private final PreparedStatement preparedStatement;
+    private final CqlStatementInfo info;
     private final boolean returnNullStrings;
     private Object[] params;
 
-    CassandraPreparedStatement(CqlSession session, final PreparedStatement preparedStatement, boolean returnNullStrings) {
-        super(session);
+    CassandraPreparedStatement(CassandraConnection connection, final PreparedStatement preparedStatement, boolean returnNullStrings) {
+        super(connection);
         this.preparedStatement = preparedStatement;
+        this.info = CqlStatementInfo.classify(preparedStatement.getQuery());
         this.returnNullStrings = returnNullStrings;
     }
 
     @Override
-    public ResultSet executeQuery() {
-        return new CassandraResultSet(this, session.execute(bindParameters()), returnNullStrings);
+    public ResultSet executeQuery() throws SQLException {
+        checkClosed();
+        final ResultCache cache = connection.getResultCache();
+        final long ttl = cache != null ? cache.ttlFor(preparedStatement) : -1;
+        final BoundStatement boundStatement = bindParameters();
+        final StatementTimer timer = connection.startTimer(preparedStatement.getQuery());
+        try {
+            com.datastax.oss.driver.api.core.cql.ResultSet resultSet = ttl >= 0 ? cache.get(boundStatement) : null;
+            if (resultSet == null) {
+                final long generation = ttl >= 0 ? cache.getGeneration() : 0;
+                final ReadCoalescer coalescer = connection.getReadCoalescer();
+                resultSet = coalescer != null && ReadCoalescer.isRead(preparedStatement) ?
+                        coalescer.execute(boundStatement, connection.getRequestTimeout(boundStatement), session::execute) :
+                        session.execute(boundStatement);
+                if (ttl >= 0) {
+                    resultSet = cache.put(boundStatement, resultSet, ttl, generation);
+                }
+            }
+            timer.executed();
+            result = new CassandraResultSet(this, resultSet, returnNullStrings, timer);
+            if (!result.isQuery()) {
+                // no rows will be read, like for CREATE or INSERT
+                timer.finished(resultSet);
+            }
+            return result;
+        } catch (RuntimeException | Error ex) {
+            timer.failed(ex);
+            throw ex;
+        }
     }
 
     @Override
@@ -73,16 +102,28 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     @Override
     public int executeUpdate() throws SQLException {
         checkClosed();
+        connection.checkWritable(info);
+        if (info.isQuery()) {
+            throw new SQLException("Not an update statement");
+        }
+        final StatementTimer timer = connection.startTimer(preparedStatement.getQuery());
         try {
-            result = new CassandraResultSet(this, session.execute(bindParameters()), returnNullStrings);
+            final com.datastax.oss.driver.api.core.cql.ResultSet resultSet = session.execute(bindParameters());
+            timer.executed();
+            timer.finished(resultSet);
+            result = new CassandraResultSet(this, resultSet, returnNullStrings);
             if (result.isQuery()) {
                 throw new SQLException("Not an update statement");
             }
             return 1;
         } catch (SyntaxError ex) {
+            timer.failed(ex);
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
         } catch (Throwable t) {
+            timer.failed(t);
             throw new SQLException(t.getLocalizedMessage(), t);
+        } finally {
+            connection.invalidateResultCache(preparedStatement.getQuery());
         }
     }
 
@@ -91,15 +132,6 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
         throw new SQLException("Method should not be called on prepared statement");
     }
 
-    @Override
-    public void close() {
-        super.close();
-        if (result != null) {
-            result.close();
-            result = null;
-        }
-    }
-
     @Override
     public ResultSet getResultSet() throws SQLException {
         checkClosed();
@@ -232,8 +264,7 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
-        checkClosed();
-        setObject(parameterIndex, x);
+        setBinaryStream(parameterIndex, x, (long) length);
     }
 
     @Override
@@ -250,16 +281,25 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
     @Override
     public boolean execute() throws SQLException {
         checkClosed();
+        connection.checkWritable(info);
+        final StatementTimer timer = connection.startTimer(preparedStatement.getQuery());
         try {
-            return executeInner(session.execute(bindParameters()), returnNullStrings);
+            final com.datastax.oss.driver.api.core.cql.ResultSet resultSet = session.execute(bindParameters());
+            timer.executed();
+            return executeInner(resultSet, returnNullStrings, timer);
         } catch (Throwable t) {
+            timer.failed(t);
             throw new SQLException(t.getMessage(), t);
+        } finally {
+            connection.invalidateResultCache(preparedStatement.getQuery());
         }
     }
 
     private BoundStatement bindParameters() {
+        rotatePooledBuffers();
         try {
-            return preparedStatement.bind(params == null ? new Object[]{} : params);
+            final BoundStatement boundStatement = connection.withNetworkTimeout(preparedStatement.bind(params == null ? new Object[]{} : params));
+            return info.isKnown() && !info.isIdempotent() ? boundStatement.setIdempotent(false) : boundStatement;
         } finally {
             clearParams();
         }
@@ -272,11 +312,14 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public void addBatch() throws SQLException {
+        checkClosed();
+        connection.checkWritable(info);
         try {
             if (batchStatementBuilder == null) {
                 batchStatementBuilder = BatchStatement.builder(BatchType.LOGGED);
             }
             batchStatementBuilder.addStatement(preparedStatement.bind(params == null ? new Object[]{} : params));
+            addBatchQuery(preparedStatement.getQuery());
         } catch (Throwable t) {
             throw new SQLException(t.getMessage(), t);
         } finally {
@@ -296,7 +339,12 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public void setBlob(int parameterIndex, Blob x) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        if (x instanceof BlobImpl) {
+            setObject(parameterIndex, ((BlobImpl) x).getByteBuffer());
+        } else {
+            setObject(parameterIndex, x == null ? null : readStream(x.getBinaryStream(), x.length()));
+        }
     }
 
     @Override
@@ -379,7 +427,7 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        setBinaryStream(parameterIndex, inputStream, length);
     }
 
     @Override
@@ -402,9 +450,13 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
         throw new SQLFeatureNotSupportedException();
     }
 
+    /**
+     * The stream is read into a pooled direct buffer, which is bound as it is.
+     */
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        setObject(parameterIndex, readStream(x, length));
     }
 
     @Override
@@ -419,7 +471,7 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        setBinaryStream(parameterIndex, x, -1);
     }
 
     @Override
@@ -439,7 +491,7 @@ public class CassandraPreparedStatement extends CassandraBaseStatement implement
 
     @Override
     public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        setBinaryStream(parameterIndex, inputStream, -1);
     }
 
     @Override
@@ -2,9 +2,12 @@ package com.wisecoders.dbschema.cassandra;
 
 import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
 import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.ListType;
+import com.datastax.oss.driver.api.core.type.SetType;
 import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
-import com.wisecoders.dbschema.cassandra.types.ArrayImpl;
 import com.wisecoders.dbschema.cassandra.types.BlobImpl;
+import com.wisecoders.dbschema.cassandra.types.CollectionArrayImpl;
 
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
@@ -15,9 +18,6 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.sql.Date;
 import java.sql.*;
-import java.time.Instant;
-import java.time.LocalDate;
-import java.time.LocalTime;
 import java.util.*;
 
 import static com.wisecoders.dbschema.cassandra.DateUtil.considerTimeZone;
@@ -36,13 +36,24 @@ public class CassandraResultSet implements ResultSet {
     private final com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet;
     private final Iterator<Row> iterator;
     private final boolean returnNullStrings;
+    private final StatementTimer timer;
+    private final LeakDetector.Tracked leakHandle;
     private Row currentRow;
+    private CodecCache codecCache;
 
-    CassandraResultSet(Statement statement, com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet, boolean returnNullStrings) {
+    CassandraResultSet(Statement statement, com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet, boolean returnNullStrings, StatementTimer timer) {
         this.statement = statement;
         this.dsResultSet = dsResultSet;
         this.iterator = dsResultSet.iterator();
         this.returnNullStrings = returnNullStrings;
+        this.timer = timer;
+        // the release must not reference this result set, it finishes the timer so the connection does not wait for it on close
+        this.leakHandle = statement instanceof CassandraBaseStatement ?
+                ((CassandraBaseStatement) statement).connection.trackLeak(this, "ResultSet", timer == null ? null : () -> timer.finished(dsResultSet)) : null;
+    }
+
+    CassandraResultSet(Statement statement, com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet, boolean returnNullStrings) {
+        this(statement, dsResultSet, returnNullStrings, null);
     }
 
     CassandraResultSet(Statement statement, com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet) {
@@ -60,7 +71,35 @@ public class CassandraResultSet implements ResultSet {
     }
 
     @Override
-    public boolean next() {
+    public boolean next() throws SQLException {
+        // a closed result set may hold bound values from buffers already returned to the pool, it must not fetch pages
+        checkClosed();
+        if (timer == null) {
+            return nextRow();
+        }
+        // the iterator blocks fetching the next page when the current one is consumed
+        final boolean fetch = dsResultSet.getAvailableWithoutFetching() == 0 && !dsResultSet.isFullyFetched();
+        final long start = fetch ? System.nanoTime() : 0;
+        final Object jfrEvent = fetch ? JfrEvents.PAGE_FETCH.begin() : null;
+        final boolean hasRow;
+        try {
+            hasRow = nextRow();
+        } catch (RuntimeException ex) {
+            timer.failed(ex);
+            throw ex;
+        }
+        if (fetch) {
+            timer.pageFetched(System.nanoTime() - start, dsResultSet, jfrEvent);
+        }
+        if (hasRow) {
+            timer.rowRead();
+        } else {
+            timer.finished(dsResultSet);
+        }
+        return hasRow;
+    }
+
+    private boolean nextRow() {
         if (iterator.hasNext()) {
             currentRow = iterator.next();
             return true;
@@ -71,6 +110,12 @@ public class CassandraResultSet implements ResultSet {
     @Override
     public void close() {
         isClosed = true;
+        if (timer != null) {
+            timer.finished(dsResultSet);
+        }
+        if (leakHandle != null) {
+            leakHandle.closed();
+        }
     }
 
     public boolean isQuery() {
@@ -166,42 +211,22 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public byte[] getBytes(int columnIndex) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            final ByteBuffer bytes = currentRow.getByteBuffer(columnIndex - 1);
-            return bytes != null ? bytes.array() : null;
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        return getObject(columnIndex, byte[].class);
     }
 
     @Override
     public Date getDate(int columnIndex) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            final LocalDate date = currentRow.getLocalDate(columnIndex - 1);
-            return date != null ? Date.valueOf( date ) : null;
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        return getObject(columnIndex, Date.class);
     }
 
     @Override
     public Time getTime(int columnIndex) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            LocalTime time = currentRow.getLocalTime(columnIndex - 1);
-            return Time.valueOf( time );
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        return getObject(columnIndex, Time.class);
     }
 
     @Override
     public Timestamp getTimestamp(int columnIndex) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            final Instant instant = currentRow.getInstant(columnIndex - 1);
-            return instant != null ? Timestamp.from( instant ) : null;
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        return getObject(columnIndex, Timestamp.class);
     }
 
     @Override
@@ -222,7 +247,8 @@ public class CassandraResultSet implements ResultSet {
     public InputStream getBinaryStream(int columnIndex) throws SQLException {
         checkClosed();
         if (currentRow != null) {
-            return new ByteBufferBackedInputStream( currentRow.getByteBuffer(columnIndex));
+            final ByteBuffer bytes = currentRow.getBytesUnsafe(columnIndex - 1);
+            return bytes == null ? null : new ByteBufferBackedInputStream(bytes.duplicate());
         }
         throw new SQLException("Result exhausted.");
     }
@@ -306,27 +332,22 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public byte[] getBytes(String columnLabel) throws SQLException {
-        checkClosed();
-        if (currentRow != null) {
-            ByteBuffer bytes = currentRow.getByteBuffer(columnLabel);
-            return bytes == null ? null : bytes.array();
-        }
-        throw new SQLException("Result exhausted.");
+        return getObject(columnLabel, byte[].class);
     }
 
     @Override
     public Date getDate(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getObject(columnLabel, Date.class);
     }
 
     @Override
     public Time getTime(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getObject(columnLabel, Time.class);
     }
 
     @Override
     public Timestamp getTimestamp(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return getObject(columnLabel, Timestamp.class);
     }
 
     @Override
@@ -341,7 +362,12 @@ public class CassandraResultSet implements ResultSet {
 
     @Override
     public InputStream getBinaryStream(String columnLabel) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        if (currentRow != null) {
+            final ByteBuffer bytes = currentRow.getBytesUnsafe(columnLabel);
+            return bytes == null ? null : new ByteBufferBackedInputStream(bytes.duplicate());
+        }
+        throw new SQLException("Result exhausted.");
     }
 
     @Override
@@ -727,8 +753,8 @@ public class CassandraResultSet implements ResultSet {
     public Blob getBlob(int columnIndex) throws SQLException {
         checkClosed();
         if (currentRow != null) {
-            ByteBuffer bytes = currentRow.getByteBuffer(columnIndex - 1);
-            return bytes == null ? null : new BlobImpl(bytes.array());
+            final ByteBuffer bytes = currentRow.getBytesUnsafe(columnIndex - 1);
+            return bytes == null ? null : new BlobImpl(bytes);
         }
         throw new SQLException("Exhausted ResultSet.");
     }
@@ -737,25 +763,27 @@ public class CassandraResultSet implements ResultSet {
         throw new SQLException("Clob type is not supported by Cassandra");
     }
 
+    /**
+     * For list and set columns returns an Array over the serialized collection, which decodes only the elements read.
+     */
     public Array getArray(int columnIndex) throws SQLException {
         checkClosed();
         if (currentRow != null) {
-            Object o = currentRow.getObject(columnIndex - 1);
-            if (!(o instanceof List)) return null;
-            List list = (List) o;
-            return toArray(list);
+            final DataType type = currentRow.getType(columnIndex - 1);
+            final DataType elementType;
+            if (type instanceof ListType) {
+                elementType = ((ListType) type).getElementType();
+            } else if (type instanceof SetType) {
+                elementType = ((SetType) type).getElementType();
+            } else {
+                return null;
+            }
+            final ByteBuffer bytes = currentRow.getBytesUnsafe(columnIndex - 1);
+            return bytes == null ? null : new CollectionArrayImpl(bytes, elementType, currentRow.codecRegistry(), currentRow.protocolVersion());
         }
         throw new SQLException("Exhausted ResultSet.");
     }
 
-    private Array toArray(List list) {
-        Object[] array = new Object[list.size()];
-        for (int i = 0; i < list.size(); i++) {
-            array[i] = list.get(i);
-        }
-        return new ArrayImpl(array);
-    }
-
     public Object getObject(String columnLabel, Map<String, Class<?>> map) throws SQLException {
         throw new SQLFeatureNotSupportedException();
     }
@@ -767,8 +795,8 @@ public class CassandraResultSet implements ResultSet {
     public Blob getBlob(String columnLabel) throws SQLException {
         checkClosed();
         if (currentRow != null) {
-            ByteBuffer bytes = currentRow.getByteBuffer(columnLabel);
-            return bytes == null ? null : new BlobImpl(bytes.array());
+            final ByteBuffer bytes = currentRow.getBytesUnsafe(columnLabel);
+            return bytes == null ? null : new BlobImpl(bytes);
         }
         throw new SQLException("Exhausted ResultSet.");
     }
@@ -779,13 +807,9 @@ public class CassandraResultSet implements ResultSet {
 
     public Array getArray(String columnLabel) throws SQLException {
         checkClosed();
-        if (currentRow != null) {
-            Object o = currentRow.getObject(columnLabel);
-            if (!(o instanceof List)) return null;
-            List list = (List) o;
-            return toArray(list);
-        }
-        throw new SQLException("Exhausted ResultSet.");
+        final int idx = dsResultSet.getColumnDefinitions().firstIndexOf(columnLabel);
+        if (idx < 0) throw new SQLException("Column " + columnLabel + " doesn't exist in this ResultSet");
+        return getArray(idx + 1);
     }
 
     public Date getDate(int columnIndex, Calendar cal) throws SQLException {
@@ -1050,13 +1074,33 @@ public class CassandraResultSet implements ResultSet {
         }
     }
 
+    /**
+     * Decode the column directly into the requested class. Besides the classes known by the codec registry
+     * ( java.time types, UUID, InetAddress, ByteBuffer, List, Set, Map, UdtValue, TupleValue or any registered custom codec )
+     * the JDBC classes Timestamp, Date, Time and byte[] are accepted.
+     * The codec is resolved once per column and class, and reused for the next rows and pages.
+     */
     @Override
     public <T> T getObject(int columnIndex, Class<T> type) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        if (type == null) throw new SQLException("Type is null.");
+        if (currentRow == null) throw new SQLException("Exhausted ResultSet.");
+        if (codecCache == null) {
+            codecCache = new CodecCache(dsResultSet.getColumnDefinitions(), currentRow.codecRegistry());
+        }
+        final CodecCache.Reader reader = codecCache.readerFor(columnIndex - 1, type);
+        try {
+            return type.cast(reader.read(currentRow.getBytesUnsafe(columnIndex - 1), currentRow.protocolVersion()));
+        } catch (ClassCastException ex) {
+            throw new SQLException("Cannot convert column " + columnIndex + " to " + type.getName(), ex);
+        }
     }
 
     @Override
     public <T> T getObject(String columnLabel, Class<T> type) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        checkClosed();
+        final int idx = dsResultSet.getColumnDefinitions().firstIndexOf(columnLabel);
+        if (idx < 0) throw new SQLException("Column " + columnLabel + " doesn't exist in this ResultSet");
+        return getObject(idx + 1, type);
     }
 }
@@ -19,69 +19,136 @@ import java.sql.SQLSyntaxErrorException;
 
 public class CassandraStatement extends CassandraBaseStatement {
 
-    private final CassandraConnection connection;
+    private ResultSet commandResult;
 
     CassandraStatement( CassandraConnection connection) {
-        super(connection.getSession());
-        this.connection = connection;
+        super(connection);
     }
 
 
     @Override
     public ResultSet executeQuery(String sql) throws SQLException {
         checkClosed();
+        closeResult();
+        commandResult = null;
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        if (info.getKind() == CqlStatementInfo.Kind.SHOW_STATS) {
+            return connection.executeShowStatsCommand(sql);
+        }
+        if (info.getKind() == CqlStatementInfo.Kind.JDBC_STATS) {
+            return connection.executeStatementStatsQuery(sql);
+        }
+        if (connection.canDescribeLocally(info)) {
+            return connection.executeDescribeCommand(sql);
+        }
+        connection.checkWritable(info);
+        final StatementTimer timer = connection.startTimer(sql);
         try {
-            result = new CassandraResultSet(this, session.execute(sql));
+            final com.datastax.oss.driver.api.core.cql.ResultSet resultSet = session.execute(newStatement(sql, info));
+            timer.executed();
+            result = new CassandraResultSet(this, resultSet, true, timer);
+            if (!result.isQuery()) {
+                // no rows will be read, like for CREATE or INSERT
+                timer.finished(resultSet);
+            }
             return result;
         } catch (SyntaxError ex) {
+            timer.failed(ex);
             ResultSet rs = connection.executeDescribeCommand( sql );
             if ( rs != null ){
                 return rs;
             }
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
         } catch (Throwable t) {
+            timer.failed(t);
             throw new SQLException(t.getMessage(), t);
+        } finally {
+            connection.invalidateResultCache(sql);
         }
     }
 
     @Override
     public int executeUpdate(String sql) throws SQLException {
         checkClosed();
+        closeResult();
+        commandResult = null;
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        connection.checkWritable(info);
+        if (info.isQuery()) {
+            throw new SQLException("Not an update statement");
+        }
+        final StatementTimer timer = connection.startTimer(sql);
         try {
-            result = new CassandraResultSet(this, session.execute(sql));
+            final com.datastax.oss.driver.api.core.cql.ResultSet resultSet = session.execute(newStatement(sql, info));
+            timer.executed();
+            timer.finished(resultSet);
+            result = new CassandraResultSet(this, resultSet);
             if (result.isQuery()) {
                 throw new SQLException("Not an update statement");
             }
             return 1;
         } catch (SyntaxError ex) {
+            timer.failed(ex);
             throw new SQLSyntaxErrorException(ex.getMessage(), ex);
         } catch (Throwable t) {
+            timer.failed(t);
             throw new SQLException(t.getMessage(), t);
+        } finally {
+            connection.invalidateResultCache(sql);
         }
     }
 
     @Override
     public boolean execute(String sql) throws SQLException {
         checkClosed();
+        closeResult();
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        commandResult = info.getKind() == CqlStatementInfo.Kind.SHOW_STATS ? connection.executeShowStatsCommand(sql) :
+                info.getKind() == CqlStatementInfo.Kind.JDBC_STATS ? connection.executeStatementStatsQuery(sql) :
+                connection.canDescribeLocally(info) ? connection.executeDescribeCommand(sql) : null;
+        if (commandResult != null) {
+            return true;
+        }
+        connection.checkWritable(info);
+        final StatementTimer timer = connection.startTimer(sql);
         try {
-            return executeInner(session.execute(sql), true);
+            final com.datastax.oss.driver.api.core.cql.ResultSet resultSet = session.execute(newStatement(sql, info));
+            timer.executed();
+            return executeInner(resultSet, true, timer);
         } catch (Throwable t) {
+            timer.failed(t);
             throw new SQLException(t.getMessage(), t);
+        } finally {
+            connection.invalidateResultCache(sql);
         }
     }
 
+    /**
+     * Statements the classifier knows to be not idempotent are marked so, and the driver never retries them.
+     * The others keep the default idempotence of the driver configuration.
+     * The network timeout of the connection is the request timeout.
+     */
+    private SimpleStatement newStatement(String sql, CqlStatementInfo info) {
+        final SimpleStatement statement = connection.withNetworkTimeout(SimpleStatement.newInstance(sql));
+        return info.isKnown() && !info.isIdempotent() ? statement.setIdempotent(false) : statement;
+    }
+
     @Override
     public ResultSet getResultSet() throws SQLException {
         checkClosed();
-        return result;
+        return commandResult != null ? commandResult : result;
     }
 
     @Override
-    public void addBatch(String sql) {
+    public void addBatch(String sql) throws SQLException {
+        checkClosed();
+        final CqlStatementInfo info = CqlStatementInfo.classify(sql);
+        connection.checkWritable(info);
         if (batchStatementBuilder == null) {
             batchStatementBuilder = BatchStatement.builder(BatchType.LOGGED);
         }
-        batchStatementBuilder.addStatement(SimpleStatement.newInstance(sql));
+        batchStatementBuilder.addStatement(newStatement(sql, info));
+        addBatchQuery(sql);
     }
 
     @Override
@@ -0,0 +1,144 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.Version;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeStateListenerBase;
+import com.datastax.oss.driver.api.core.session.Session;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cassandra versions of the cluster nodes, read from the driver node metadata instead of querying system.local.
+ * The versions are computed once and recomputed only after the driver reports a node added, removed, up or down,
+ * for example during a rolling upgrade.
+ * In a mixed-version cluster the lowest version is reported as product version, so version-dependent features are enabled
+ * only if all nodes support them.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ClusterVersions extends NodeStateListenerBase {
+
+    private volatile CqlSession session;
+    private volatile Snapshot snapshot;
+    private final AtomicInteger generation = new AtomicInteger();
+
+    private static class Snapshot {
+        private final Version lowest;
+        private final Map<String, String> nodeVersions;
+
+        Snapshot(Version lowest, Map<String, String> nodeVersions) {
+            this.lowest = lowest;
+            this.nodeVersions = Collections.unmodifiableMap(nodeVersions);
+        }
+    }
+
+    void setSession(CqlSession session) {
+        this.session = session;
+    }
+
+    @Override
+    public void onSessionReady(Session session) {
+        if (session instanceof CqlSession) {
+            this.session = (CqlSession) session;
+        }
+    }
+
+    /**
+     * @return the lowest Cassandra version of the cluster nodes.
+     */
+    public Version getVersion() {
+        return getSnapshot().lowest;
+    }
+
+    /**
+     * @return the Cassandra version of each node, by node endpoint. Nodes without a known version are listed with null.
+     */
+    public Map<String, String> getNodeVersions() {
+        return getSnapshot().nodeVersions;
+    }
+
+    /**
+     * @return true if all the nodes run at least this Cassandra version.
+     */
+    public boolean isAtLeast(int major, int minor) {
+        final Version version = getVersion();
+        return version.getMajor() > major || (version.getMajor() == major && version.getMinor() >= minor);
+    }
+
+    private Snapshot getSnapshot() {
+        Snapshot snapshot = this.snapshot;
+        if (snapshot == null) {
+            final int loadedGeneration = generation.get();
+            snapshot = load();
+            synchronized (this) {
+                // a topology event during the load may have made it stale, keep it only for this call
+                if (loadedGeneration == generation.get()) {
+                    this.snapshot = snapshot;
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private Snapshot load() {
+        final Map<String, String> nodeVersions = new TreeMap<>();
+        Version lowest = null;
+        for (Node node : session.getMetadata().getNodes().values()) {
+            final Version version = node.getCassandraVersion();
+            nodeVersions.put(String.valueOf(node.getEndPoint()), version == null ? null : version.toString());
+            if (version != null && (lowest == null || version.compareTo(lowest) < 0)) {
+                lowest = version;
+            }
+        }
+        if (lowest == null) {
+            // node metadata without release_version, ask the coordinator
+            lowest = Version.parse(session.execute("select release_version from system.local").one().getString(0));
+        }
+        return new Snapshot(lowest, nodeVersions);
+    }
+
+    private synchronized void invalidate() {
+        generation.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Override
+    public void onAdd(Node node) {
+        invalidate();
+    }
+
+    @Override
+    public void onUp(Node node) {
+        invalidate();
+    }
+
+    @Override
+    public void onDown(Node node) {
+        invalidate();
+    }
+
+    @Override
+    public void onRemove(Node node) {
+        invalidate();
+    }
+
+    /**
+     * Nothing to release, declared without the InterruptedException of the base class.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        final Snapshot snapshot = this.snapshot;
+        return snapshot == null ? "ClusterVersions{not loaded}" : "ClusterVersions{version=" + snapshot.lowest + ", nodes=" + snapshot.nodeVersions + "}";
+    }
+}
@@ -0,0 +1,131 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.codec.CodecNotFoundException;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves, per result set column and requested Java class, the codec used by ResultSet.getObject(int, Class).
+ * A column keeps its CQL type for all the pages of a result, so the codec registry is asked only once per
+ * (column, class) pair. Later reads decode the raw column bytes directly into the requested class.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class CodecCache {
+
+    interface Reader {
+        Object read(ByteBuffer bytes, ProtocolVersion protocolVersion);
+    }
+
+    /**
+     * JDBC classes which have no codec of their own. They are decoded with the codec of the native class and converted.
+     */
+    private static final Map<Class<?>, Conversion> CONVERSIONS = new HashMap<>();
+
+    static {
+        CONVERSIONS.put(Timestamp.class, new Conversion(Instant.class, value -> Timestamp.from((Instant) value)));
+        CONVERSIONS.put(java.util.Date.class, new Conversion(Instant.class, value -> java.util.Date.from((Instant) value)));
+        CONVERSIONS.put(Date.class, new Conversion(LocalDate.class, value -> Date.valueOf((LocalDate) value)));
+        CONVERSIONS.put(Time.class, new Conversion(LocalTime.class, value -> Time.valueOf((LocalTime) value)));
+        CONVERSIONS.put(byte[].class, new Conversion(ByteBuffer.class, value -> {
+            final ByteBuffer buffer = ((ByteBuffer) value).duplicate();
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            return bytes;
+        }));
+    }
+
+    private final ColumnDefinitions columnDefinitions;
+    private final CodecRegistry codecRegistry;
+    private final List<Map<Class<?>, Reader>> readers;
+
+    CodecCache(ColumnDefinitions columnDefinitions, CodecRegistry codecRegistry) {
+        this.columnDefinitions = columnDefinitions;
+        this.codecRegistry = codecRegistry;
+        this.readers = new ArrayList<>(Collections.nCopies(columnDefinitions.size(), null));
+    }
+
+    /**
+     * @param index zero based column index
+     */
+    Reader readerFor(int index, Class<?> type) throws SQLException {
+        if (index < 0 || index >= readers.size()) {
+            throw new SQLException("Column index does not exist: " + (index + 1));
+        }
+        Map<Class<?>, Reader> columnReaders = readers.get(index);
+        if (columnReaders == null) {
+            columnReaders = new HashMap<>(4);
+            readers.set(index, columnReaders);
+        }
+        Reader reader = columnReaders.get(type);
+        if (reader == null) {
+            reader = resolve(columnDefinitions.get(index).getType(), type);
+            columnReaders.put(type, reader);
+        }
+        return reader;
+    }
+
+    private Reader resolve(DataType cqlType, Class<?> type) throws SQLException {
+        final Conversion conversion = CONVERSIONS.get(type);
+        try {
+            if (conversion != null) {
+                final TypeCodec<?> codec = codecRegistry.codecFor(cqlType, conversion.source);
+                return (bytes, protocolVersion) -> {
+                    final Object value = codec.decode(bytes, protocolVersion);
+                    return value == null ? null : conversion.converter.apply(value);
+                };
+            }
+            final TypeCodec<?> codec = codecRegistry.codecFor(cqlType, type);
+            return codec::decode;
+        } catch (CodecNotFoundException ex) {
+            // Fall back on the natural codec of the column, if it produces a compatible class.
+            final TypeCodec<?> codec;
+            try {
+                codec = codecRegistry.codecFor(cqlType);
+            } catch (CodecNotFoundException ex2) {
+                throw new SQLException("No codec found for CQL type " + cqlType.asCql(true, true), ex2);
+            }
+            if (type == String.class) {
+                return (bytes, protocolVersion) -> {
+                    final Object value = codec.decode(bytes, protocolVersion);
+                    return value == null ? null : String.valueOf(value);
+                };
+            }
+            if (type.isAssignableFrom(codec.getJavaType().getRawType())) {
+                return codec::decode;
+            }
+            throw new SQLException("Cannot convert CQL type " + cqlType.asCql(true, true) + " to " + type.getName(), ex);
+        }
+    }
+
+    private static class Conversion {
+        private final Class<?> source;
+        private final Function<Object, Object> converter;
+
+        Conversion(Class<?> source, Function<Object, Object> converter) {
+            this.source = source;
+            this.converter = converter;
+        }
+    }
+}
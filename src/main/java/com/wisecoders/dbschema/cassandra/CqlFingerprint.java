@@ -0,0 +1,89 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.wisecoders.dbschema.cassandra.CqlLexer.Token;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Normalized form of a CQL statement, used to group the statistics of statements which differ only by their literals.
+ * Strings, numbers, uuids, blobs, true, false and null become ?, comments and whitespace are dropped,
+ * and a list of values after IN is reduced to one ?. Keywords and identifiers are kept as written.
+ * Example: select * from ks.t where id in (1, 2, 3) and name = 'x'  gives  select * from ks.t where id in (?) and name = ?
+ * Fingerprints are cached by statement text.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class CqlFingerprint {
+
+    private static final int MAX_CACHED = 4096;
+    private static final ConcurrentHashMap<String, String> cache = new ConcurrentHashMap<>();
+
+    static String of(String cql) {
+        String fingerprint = cache.get(cql);
+        if (fingerprint == null) {
+            fingerprint = normalize(CqlLexer.tokenize(cql));
+            if (cache.size() >= MAX_CACHED) {
+                cache.clear();
+            }
+            cache.put(cql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(List<Token> tokens) {
+        final StringBuilder sb = new StringBuilder();
+        String previous = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            final Token token = tokens.get(i);
+            String text = isLiteral(token) ? "?" : token.text;
+            if (token.isWord("IN") && i + 1 < tokens.size() && tokens.get(i + 1).isSymbol('(')) {
+                final int end = skipValueList(tokens, i + 2);
+                if (end > 0) {
+                    text = token.text + " (?)";
+                    i = end;
+                }
+            }
+            if (text.equals(";") && i == tokens.size() - 1) {
+                break;
+            }
+            if (previous != null && needsSpace(previous, text)) {
+                sb.append(' ');
+            }
+            sb.append(text);
+            previous = text;
+        }
+        return sb.toString();
+    }
+
+    private static boolean isLiteral(Token token) {
+        return token.type == CqlLexer.TokenType.STRING || token.type == CqlLexer.TokenType.NUMBER ||
+                token.isWord("TRUE") || token.isWord("FALSE") || token.isWord("NULL") || token.isSymbol('?');
+    }
+
+    /**
+     * @return the index of the ) closing a list of literals or bind markers starting at start, or -1 if the list contains something else.
+     */
+    private static int skipValueList(List<Token> tokens, int start) {
+        boolean value = false;
+        for (int i = start; i < tokens.size(); i++) {
+            final Token token = tokens.get(i);
+            if (token.isSymbol(')')) {
+                return value ? i : -1;
+            } else if (isLiteral(token)) {
+                value = true;
+            } else if (!token.isSymbol(',') && !token.isSymbol('-')) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean needsSpace(String previous, String text) {
+        return !text.equals(".") && !text.equals(",") && !text.equals(")") && !text.equals(";") &&
+                !previous.equals(".") && !previous.equals("(");
+    }
+}
@@ -0,0 +1,100 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Minimal CQL tokenizer used to classify statements before they are sent to the server.
+ * It knows only what is needed to skip literals and comments: words, "quoted identifiers", 'strings', $$strings$$,
+ * numbers and single character symbols. Unterminated literals end at the end of the text, the server reports the error.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class CqlLexer {
+
+    enum TokenType {WORD, QUOTED_IDENTIFIER, STRING, NUMBER, SYMBOL}
+
+    static class Token {
+        final TokenType type;
+        final String text;
+
+        Token(TokenType type, String text) {
+            this.type = type;
+            this.text = text;
+        }
+
+        boolean isWord(String word) {
+            return type == TokenType.WORD && text.equalsIgnoreCase(word);
+        }
+
+        boolean isSymbol(char symbol) {
+            return type == TokenType.SYMBOL && text.charAt(0) == symbol;
+        }
+
+        boolean isIdentifier() {
+            return type == TokenType.WORD || type == TokenType.QUOTED_IDENTIFIER;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    static List<Token> tokenize(String cql) {
+        final List<Token> tokens = new ArrayList<>();
+        final int length = cql.length();
+        int i = 0;
+        while (i < length) {
+            final char c = cql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if ((c == '-' && next(cql, i) == '-') || (c == '/' && next(cql, i) == '/')) {
+                while (i < length && cql.charAt(i) != '\n') i++;
+            } else if (c == '/' && next(cql, i) == '*') {
+                final int end = cql.indexOf("*/", i + 2);
+                i = end < 0 ? length : end + 2;
+            } else if (c == '\'' || c == '"') {
+                // quotes inside are doubled
+                int end = i + 1;
+                while (end < length) {
+                    if (cql.charAt(end) == c) {
+                        if (next(cql, end) != c) break;
+                        end++;
+                    }
+                    end++;
+                }
+                end = Math.min(end + 1, length);
+                tokens.add(new Token(c == '"' ? TokenType.QUOTED_IDENTIFIER : TokenType.STRING, cql.substring(i, end)));
+                i = end;
+            } else if (c == '$' && next(cql, i) == '$') {
+                final int end = cql.indexOf("$$", i + 2);
+                final int stop = end < 0 ? length : end + 2;
+                tokens.add(new Token(TokenType.STRING, cql.substring(i, stop)));
+                i = stop;
+            } else if (Character.isLetter(c) || c == '_') {
+                int end = i + 1;
+                while (end < length && (Character.isLetterOrDigit(cql.charAt(end)) || cql.charAt(end) == '_')) end++;
+                tokens.add(new Token(TokenType.WORD, cql.substring(i, end)));
+                i = end;
+            } else if (Character.isDigit(c)) {
+                // numbers, uuids and blobs like 0x0a
+                int end = i + 1;
+                while (end < length && (Character.isLetterOrDigit(cql.charAt(end)) || cql.charAt(end) == '.' || cql.charAt(end) == '-')) end++;
+                tokens.add(new Token(TokenType.NUMBER, cql.substring(i, end)));
+                i = end;
+            } else {
+                tokens.add(new Token(TokenType.SYMBOL, String.valueOf(c)));
+                i++;
+            }
+        }
+        return tokens;
+    }
+
+    private static char next(String cql, int i) {
+        return i + 1 < cql.length() ? cql.charAt(i + 1) : 0;
+    }
+}
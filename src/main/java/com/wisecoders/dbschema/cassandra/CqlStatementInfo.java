@@ -0,0 +1,464 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.wisecoders.dbschema.cassandra.CqlLexer.Token;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classification of a CQL statement, done on the client before the statement is executed:
+ * the kind, the keyspace and table, if the statement is idempotent or a lightweight transaction, and if it is one of the
+ * driver pseudo-commands DESC and SHOW STATS or a query of the jdbc_stats pseudo-tables, which are answered by the driver.
+ * The statements use it to route pseudo-commands without a failed server round trip, to reject updates executed as queries
+ * and writes on read-only connections, and to mark the statements which are not idempotent, so the driver never retries them.
+ * Classifications are cached by statement text.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class CqlStatementInfo {
+
+    enum Kind {SELECT, INSERT, UPDATE, DELETE, BATCH, DDL, DCL, USE, DESCRIBE, SHOW_STATS, JDBC_STATS, OTHER}
+
+    /**
+     * Keyspace of the pseudo-tables answered by the driver, like jdbc_stats.statements.
+     */
+    static final String JDBC_STATS_KEYSPACE = "jdbc_stats";
+
+    private static final int MAX_CACHED = 4096;
+    private static final ConcurrentHashMap<String, CqlStatementInfo> cache = new ConcurrentHashMap<>();
+
+    private static final Set<String> NON_IDEMPOTENT_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "NOW", "UUID", "CURRENTTIMEUUID", "CURRENTTIMESTAMP", "CURRENTDATE", "CURRENTTIME"));
+
+    private final Kind kind;
+    private final String keyspace;
+    private final String table;
+    private final boolean idempotent;
+    private final boolean lwt;
+    private final List<String[]> writtenTables;
+    private final String objectType;
+
+    private CqlStatementInfo(Kind kind, String keyspace, String table, boolean idempotent, boolean lwt, List<String[]> writtenTables) {
+        this(kind, keyspace, table, idempotent, lwt, writtenTables, null);
+    }
+
+    private CqlStatementInfo(Kind kind, String keyspace, String table, boolean idempotent, boolean lwt, List<String[]> writtenTables, String objectType) {
+        this.kind = kind;
+        this.keyspace = keyspace;
+        this.table = table;
+        this.idempotent = idempotent;
+        this.lwt = lwt;
+        this.writtenTables = writtenTables;
+        this.objectType = objectType;
+    }
+
+    static CqlStatementInfo classify(String cql) {
+        CqlStatementInfo info = cache.get(cql);
+        if (info == null) {
+            info = parse(CqlLexer.tokenize(cql));
+            if (cache.size() >= MAX_CACHED) {
+                cache.clear();
+            }
+            cache.put(cql, info);
+        }
+        return info;
+    }
+
+    Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the keyspace as written in the statement, or null if the statement uses the session keyspace.
+     */
+    String getKeyspace() {
+        return keyspace;
+    }
+
+    /**
+     * @return the table as written in the statement, or null.
+     */
+    String getTable() {
+        return table;
+    }
+
+    boolean isIdempotent() {
+        return idempotent;
+    }
+
+    /**
+     * @return true for statements with IF conditions ( lightweight transactions ).
+     */
+    boolean isLwt() {
+        return lwt;
+    }
+
+    /**
+     * @return for DDL the object type, like TABLE or KEYSPACE. For DESC the SCHEMA, KEYSPACE or TABLE keyword, if used.
+     */
+    String getObjectType() {
+        return objectType;
+    }
+
+    boolean isPseudoCommand() {
+        return kind == Kind.DESCRIBE || kind == Kind.SHOW_STATS || kind == Kind.JDBC_STATS;
+    }
+
+    boolean isQuery() {
+        return kind == Kind.SELECT || isPseudoCommand();
+    }
+
+    boolean isWrite() {
+        return kind == Kind.INSERT || kind == Kind.UPDATE || kind == Kind.DELETE || kind == Kind.BATCH || kind == Kind.DDL || kind == Kind.DCL;
+    }
+
+    /**
+     * @return false if the kind is OTHER, the statement is passed unchanged to the server.
+     */
+    boolean isKnown() {
+        return kind != Kind.OTHER;
+    }
+
+    /**
+     * @return keyspace and table of the tables modified or dropped by the statement, the keyspace is null for the session keyspace.
+     */
+    List<String[]> getWrittenTables() {
+        return writtenTables;
+    }
+
+    @Override
+    public String toString() {
+        return kind + (table != null ? " " + (keyspace != null ? keyspace + "." : "") + table : keyspace != null ? " " + keyspace : "") +
+                (idempotent ? " idempotent" : "") + (lwt ? " lwt" : "");
+    }
+
+    private static final CqlStatementInfo OTHER = new CqlStatementInfo(Kind.OTHER, null, null, false, false, Collections.emptyList());
+
+    /**
+     * Token cursor over one statement.
+     */
+    private static class Parser {
+        private final List<Token> tokens;
+        private int pos;
+
+        Parser(List<Token> tokens) {
+            this.tokens = tokens;
+        }
+
+        Token peek(int offset) {
+            return pos + offset < tokens.size() ? tokens.get(pos + offset) : null;
+        }
+
+        boolean atEnd() {
+            return pos >= tokens.size() || tokens.get(pos).isSymbol(';');
+        }
+
+        boolean accept(String word) {
+            final Token token = peek(0);
+            if (token != null && token.isWord(word)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        boolean acceptSequence(String... words) {
+            for (int i = 0; i < words.length; i++) {
+                final Token token = peek(i);
+                if (token == null || !token.isWord(words[i])) {
+                    return false;
+                }
+            }
+            pos += words.length;
+            return true;
+        }
+
+        /**
+         * Move after the next word at parenthesis depth zero, in the current statement.
+         */
+        boolean skipTo(String word) {
+            int depth = 0;
+            while (!atEnd()) {
+                final Token token = tokens.get(pos++);
+                if (token.isSymbol('(') || token.isSymbol('[') || token.isSymbol('{')) depth++;
+                else if (token.isSymbol(')') || token.isSymbol(']') || token.isSymbol('}')) depth--;
+                else if (depth == 0 && token.isWord(word)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * @return keyspace and name of a [keyspace.]name, or null.
+         */
+        String[] qualifiedName() {
+            final Token first = peek(0);
+            if (first == null || !first.isIdentifier()) {
+                return null;
+            }
+            pos++;
+            final Token dot = peek(0);
+            final Token second = peek(1);
+            if (dot != null && dot.isSymbol('.') && second != null && second.isIdentifier()) {
+                pos += 2;
+                return new String[]{first.text, second.text};
+            }
+            return new String[]{null, first.text};
+        }
+
+        void skipIfExists() {
+            if (!acceptSequence("IF", "NOT", "EXISTS")) {
+                acceptSequence("IF", "EXISTS");
+            }
+        }
+
+        /**
+         * Move to the next statement of a batch.
+         */
+        void endStatement() {
+            while (pos < tokens.size() && !tokens.get(pos).isSymbol(';')) {
+                if (tokens.get(pos).isWord("APPLY")) return;
+                pos++;
+            }
+            if (pos < tokens.size()) pos++;
+        }
+    }
+
+    static CqlStatementInfo parse(List<Token> tokens) {
+        final Parser parser = new Parser(tokens);
+        final CqlStatementInfo info = parseStatement(parser);
+        return info != null ? info : OTHER;
+    }
+
+    private static CqlStatementInfo parseStatement(Parser parser) {
+        final Token first = parser.peek(0);
+        if (first == null || first.type != CqlLexer.TokenType.WORD) {
+            return null;
+        }
+        parser.pos++;
+        switch (first.text.toUpperCase(Locale.ENGLISH)) {
+            case "SELECT": {
+                final String[] name = parser.skipTo("FROM") ? parser.qualifiedName() : null;
+                if (name == null) {
+                    return null;
+                }
+                final Kind kind = JDBC_STATS_KEYSPACE.equalsIgnoreCase(name[0]) ? Kind.JDBC_STATS : Kind.SELECT;
+                return new CqlStatementInfo(kind, name[0], name[1], true, false, Collections.emptyList());
+            }
+            case "INSERT": {
+                final String[] name = parser.accept("INTO") ? parser.qualifiedName() : null;
+                return name == null ? null : write(Kind.INSERT, name, parser, false);
+            }
+            case "UPDATE": {
+                final String[] name = parser.qualifiedName();
+                return name == null ? null : write(Kind.UPDATE, name, parser, false);
+            }
+            case "DELETE": {
+                final int start = parser.pos;
+                if (!parser.skipTo("FROM")) {
+                    return null;
+                }
+                // deleting a list element by index is not idempotent
+                boolean listIndex = false;
+                for (int i = start; i < parser.pos; i++) {
+                    listIndex |= parser.tokens.get(i).isSymbol('[');
+                }
+                final String[] name = parser.qualifiedName();
+                return name == null ? null : write(Kind.DELETE, name, parser, listIndex);
+            }
+            case "BEGIN":
+                return batch(parser);
+            case "TRUNCATE": {
+                parser.accept("TABLE");
+                parser.accept("COLUMNFAMILY");
+                final String[] name = parser.qualifiedName();
+                return name == null ? null : new CqlStatementInfo(Kind.DDL, name[0], name[1], true, false, Collections.singletonList(name), "TABLE");
+            }
+            case "CREATE":
+            case "ALTER":
+            case "DROP":
+                return ddl(first.text.toUpperCase(Locale.ENGLISH), parser);
+            case "GRANT":
+            case "REVOKE":
+                return new CqlStatementInfo(Kind.DCL, null, null, false, false, Collections.emptyList());
+            case "USE": {
+                final String[] name = parser.qualifiedName();
+                return name == null ? null : new CqlStatementInfo(Kind.USE, name[1], null, true, false, Collections.emptyList());
+            }
+            case "DESC":
+            case "DESCRIBE":
+                return describe(parser);
+            case "SHOW": {
+                if (!parser.accept("STATS")) {
+                    return null;
+                }
+                final String[] name = parser.qualifiedName();
+                if (name == null) {
+                    return null;
+                }
+                return name[0] == null ?
+                        new CqlStatementInfo(Kind.SHOW_STATS, name[1], null, true, false, Collections.emptyList()) :
+                        new CqlStatementInfo(Kind.SHOW_STATS, name[0], name[1], true, false, Collections.emptyList());
+            }
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * INSERT, UPDATE or DELETE: scan the rest of the statement for IF conditions, counter or list updates, and non-idempotent functions.
+     */
+    private static CqlStatementInfo write(Kind kind, String[] name, Parser parser, boolean nonIdempotent) {
+        boolean lwt = false;
+        int depth = 0;
+        while (!parser.atEnd() && !parser.peek(0).isWord("APPLY")) {
+            final Token token = parser.peek(0);
+            if (token.isSymbol('(') || token.isSymbol('[') || token.isSymbol('{')) {
+                depth++;
+            } else if (token.isSymbol(')') || token.isSymbol(']') || token.isSymbol('}')) {
+                depth--;
+            } else if (depth == 0 && token.isWord("IF")) {
+                lwt = true;
+            } else if (token.type == CqlLexer.TokenType.WORD && NON_IDEMPOTENT_FUNCTIONS.contains(token.text.toUpperCase(Locale.ENGLISH))
+                    && parser.peek(1) != null && parser.peek(1).isSymbol('(')) {
+                nonIdempotent = true;
+            } else if (token.isSymbol('=') && kind == Kind.UPDATE) {
+                nonIdempotent |= isCounterOrListUpdate(parser);
+            }
+            parser.pos++;
+        }
+        return new CqlStatementInfo(kind, name[0], name[1], !lwt && !nonIdempotent, lwt, Collections.singletonList(name));
+    }
+
+    /**
+     * c = c + 1, c = c - 1, l = l + [..] or a prepend l = <term> + l, the term being a literal or a bind marker like ? or :v,
+     * with the parser on the '='.
+     */
+    private static boolean isCounterOrListUpdate(Parser parser) {
+        final Token column = parser.pos > 0 ? parser.tokens.get(parser.pos - 1) : null;
+        final Token value = parser.peek(1);
+        final Token operator = parser.peek(2);
+        if (column == null || value == null) {
+            return false;
+        }
+        if (value.isIdentifier() && value.text.equalsIgnoreCase(column.text) && operator != null && (operator.isSymbol('+') || operator.isSymbol('-'))) {
+            return true;
+        }
+        int depth = 0;
+        Token token;
+        for (int i = 1; (token = parser.peek(i)) != null && !token.isSymbol(';'); i++) {
+            if (token.isSymbol('(') || token.isSymbol('[') || token.isSymbol('{')) {
+                depth++;
+            } else if (token.isSymbol(')') || token.isSymbol(']') || token.isSymbol('}')) {
+                depth--;
+            } else if (depth == 0 && (token.isSymbol(',') || token.isWord("WHERE") || token.isWord("IF") || token.isWord("APPLY"))) {
+                return false;
+            } else if (depth == 0 && token.isSymbol('+')) {
+                final Token next = parser.peek(i + 1);
+                return next != null && next.isIdentifier() && next.text.equalsIgnoreCase(column.text);
+            }
+        }
+        return false;
+    }
+
+    private static CqlStatementInfo batch(Parser parser) {
+        final boolean counter = parser.accept("COUNTER");
+        if (!counter) {
+            if (!parser.accept("UNLOGGED")) {
+                parser.accept("LOGGED");
+            }
+        }
+        if (!parser.accept("BATCH")) {
+            return null;
+        }
+        if (parser.accept("USING")) {
+            parser.pos += 2; // TIMESTAMP value
+        }
+        final List<String[]> writtenTables = new ArrayList<>();
+        boolean idempotent = !counter, lwt = false;
+        while (parser.pos < parser.tokens.size() && !parser.peek(0).isWord("APPLY")) {
+            final CqlStatementInfo statement = parseStatement(parser);
+            if (statement == null) {
+                idempotent = false;
+            } else {
+                writtenTables.addAll(statement.writtenTables);
+                idempotent &= statement.idempotent;
+                lwt |= statement.lwt;
+            }
+            parser.endStatement();
+        }
+        return new CqlStatementInfo(Kind.BATCH, null, null, idempotent && !lwt, lwt, Collections.unmodifiableList(writtenTables));
+    }
+
+    private static CqlStatementInfo ddl(String verb, Parser parser) {
+        parser.acceptSequence("OR", "REPLACE");
+        parser.accept("CUSTOM");
+        final Token object = parser.peek(0);
+        if (object == null || object.type != CqlLexer.TokenType.WORD) {
+            return null;
+        }
+        parser.pos++;
+        final String objectType = object.text.toUpperCase(Locale.ENGLISH);
+        if ("MATERIALIZED".equals(objectType)) {
+            parser.accept("VIEW");
+        }
+        parser.skipIfExists();
+        switch (objectType) {
+            case "KEYSPACE":
+            case "SCHEMA": {
+                final String[] name = parser.qualifiedName();
+                return new CqlStatementInfo(Kind.DDL, name == null ? null : name[1], null, false, false, Collections.emptyList(), "KEYSPACE");
+            }
+            case "TABLE":
+            case "COLUMNFAMILY": {
+                final String[] name = parser.qualifiedName();
+                if (name == null) {
+                    return null;
+                }
+                final List<String[]> written = "CREATE".equals(verb) ? Collections.emptyList() : Collections.singletonList(name);
+                return new CqlStatementInfo(Kind.DDL, name[0], name[1], false, false, written, "TABLE");
+            }
+            case "INDEX": {
+                if ("CREATE".equals(verb) && parser.skipTo("ON")) {
+                    final String[] name = parser.qualifiedName();
+                    if (name != null) {
+                        return new CqlStatementInfo(Kind.DDL, name[0], name[1], false, false, Collections.emptyList(), objectType);
+                    }
+                }
+                return new CqlStatementInfo(Kind.DDL, null, null, false, false, Collections.emptyList(), objectType);
+            }
+            case "ROLE":
+            case "USER":
+                return new CqlStatementInfo(Kind.DCL, null, null, false, false, Collections.emptyList(), objectType);
+            default: {
+                final String[] name = parser.qualifiedName();
+                return new CqlStatementInfo(Kind.DDL, name == null ? null : name[0], name == null ? null : name[1], false, false, Collections.emptyList(),
+                        "MATERIALIZED".equals(objectType) ? "MATERIALIZED VIEW" : objectType);
+            }
+        }
+    }
+
+    /**
+     * DESC SCHEMA, DESC KEYSPACE name, DESC TABLE [keyspace.]name, DESC keyspace or DESC keyspace.table.
+     * Other DESC forms are left to the server, which supports them since Cassandra 4.0.
+     */
+    private static CqlStatementInfo describe(Parser parser) {
+        if (parser.accept("SCHEMA")) {
+            return parser.atEnd() ? new CqlStatementInfo(Kind.DESCRIBE, null, null, true, false, Collections.emptyList(), "SCHEMA") : null;
+        }
+        final String objectType = parser.accept("KEYSPACE") ? "KEYSPACE" : parser.accept("TABLE") ? "TABLE" : null;
+        final String[] name = parser.qualifiedName();
+        if (name == null || !parser.atEnd() || ("KEYSPACE".equals(objectType) && name[0] != null)) {
+            return null;
+        }
+        if (name[0] == null && objectType == null) {
+            return new CqlStatementInfo(Kind.DESCRIBE, name[1], null, true, false, Collections.emptyList());
+        }
+        if ("KEYSPACE".equals(objectType)) {
+            return new CqlStatementInfo(Kind.DESCRIBE, name[1], null, true, false, Collections.emptyList(), objectType);
+        }
+        return new CqlStatementInfo(Kind.DESCRIBE, name[0], name[1], true, false, Collections.emptyList(), objectType);
+    }
+}
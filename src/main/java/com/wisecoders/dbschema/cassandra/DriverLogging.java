@@ -0,0 +1,157 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.*;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Logging of the driver, set up at the first connect instead of at class load. The JdbcDriver logger is OFF unless a level is set with
+ * the loglevel URL option or the cassandra.jdbc.loglevel system property, like FINE or INFO. The records are written to the file
+ * from the logfile option or the cassandra.jdbc.logfile property, default user.dir/logs/CassandraJdbcDriver.log. The directory is
+ * created if missing. Records are handed to an AsyncHandler, so the file is written by a background thread, not by the request threads.
+ * A later connect with other options reconfigures the logging. An invalid level is reported as a warning and turns the logging off.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class DriverLogging {
+
+    static final String LEVEL_PROPERTY = "cassandra.jdbc.loglevel";
+    static final String FILE_PROPERTY = "cassandra.jdbc.logfile";
+
+    private static String configuredLevel;
+    private static String configuredFile;
+    private static AsyncHandler handler;
+
+    /**
+     * @param level the loglevel option, or null for the system property.
+     * @param file the logfile option, or null for the system property or the default file.
+     */
+    static synchronized void configure(String level, String file) {
+        if (level == null) {
+            level = System.getProperty(LEVEL_PROPERTY);
+        }
+        if (file == null) {
+            file = System.getProperty(FILE_PROPERTY);
+        }
+        if (level == null || (level.equals(configuredLevel) && (file == null || file.equals(configuredFile)))) {
+            return;
+        }
+        Level parsed;
+        try {
+            parsed = Level.parse(level.trim().toUpperCase(Locale.ENGLISH));
+        } catch (IllegalArgumentException ex) {
+            // the driver logger may be off, so the warning goes to the parent logger, by default the console
+            LOGGER.getParent().warning("Invalid Cassandra JDBC log level '" + level +
+                    "', use one of OFF, SEVERE, WARNING, INFO, FINE, FINER, FINEST, ALL. The driver logging is off.");
+            parsed = Level.OFF;
+        }
+        configuredLevel = level;
+        LOGGER.setLevel(parsed);
+        if (parsed == Level.OFF) {
+            return;
+        }
+        final File logFile = new File(file != null ? file : System.getProperty("user.dir") + "/logs/CassandraJdbcDriver.log");
+        if (handler != null && logFile.getPath().equals(configuredFile)) {
+            return;
+        }
+        try {
+            final File directory = logFile.getAbsoluteFile().getParentFile();
+            if (directory != null) {
+                Files.createDirectories(directory.toPath());
+            }
+            final FileHandler fileHandler = new FileHandler(logFile.getPath(), true);
+            fileHandler.setFormatter(new SimpleFormatter());
+            fileHandler.setLevel(Level.ALL);
+            if (handler != null) {
+                LOGGER.removeHandler(handler);
+                handler.close();
+            }
+            handler = new AsyncHandler(fileHandler);
+            LOGGER.addHandler(handler);
+            configuredFile = logFile.getPath();
+        } catch (IOException | SecurityException ex) {
+            // the records go to the parent handlers, usually the console
+            LOGGER.log(Level.WARNING, "Cannot open log file " + logFile, ex);
+        }
+    }
+
+    /**
+     * Publishes the records to the delegate handler from a daemon thread. The queue is bounded, records are dropped when it is full.
+     */
+    static class AsyncHandler extends Handler {
+
+        private static final int QUEUE_SIZE = 4096;
+
+        private final Handler delegate;
+        private final BlockingQueue<LogRecord> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+        private final AtomicLong dropped = new AtomicLong();
+        private final Thread writer;
+        private volatile boolean closed;
+
+        AsyncHandler(Handler delegate) {
+            this.delegate = delegate;
+            writer = new Thread(this::write, "cassandra-jdbc-log");
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        @Override
+        public void publish(LogRecord record) {
+            if (closed || !isLoggable(record)) {
+                return;
+            }
+            // the caller is inferred from the stack of the calling thread
+            record.getSourceMethodName();
+            if (!queue.offer(record)) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        private void write() {
+            while (!closed || !queue.isEmpty()) {
+                try {
+                    final LogRecord record = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (record != null) {
+                        final long droppedRecords = dropped.getAndSet(0);
+                        if (droppedRecords > 0) {
+                            delegate.publish(new LogRecord(Level.WARNING, droppedRecords + " log records were dropped, the log queue was full"));
+                        }
+                        delegate.publish(record);
+                    }
+                } catch (InterruptedException ex) {
+                    return;
+                }
+            }
+        }
+
+        @Override
+        public void flush() {
+            delegate.flush();
+        }
+
+        /**
+         * Write the queued records and close the delegate.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+            delegate.close();
+        }
+    }
+}
@@ -1,14 +1,13 @@
 
 package com.wisecoders.dbschema.cassandra;
 
-import com.datastax.oss.driver.api.core.CqlSession;
-
 import java.io.IOException;
 import java.net.UnknownHostException;
 import java.security.GeneralSecurityException;
 import java.sql.*;
 import java.util.Properties;
-import java.util.logging.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import static com.wisecoders.dbschema.cassandra.CassandraClientURI.PREFIX;
 
@@ -31,21 +30,16 @@ public class JdbcDriver implements Driver {
 
     public static final Logger LOGGER = Logger.getLogger( JdbcDriver.class.getName() );
 
+    private final SharedRegistry<ReadCoalescer> readCoalescers = new SharedRegistry<>();
+    private final SharedRegistry<ResultCache> resultCaches = new SharedRegistry<>();
+
     static {
         try {
             DriverManager.registerDriver( new JdbcDriver());
+            // off until a level is set with the loglevel option or property, see DriverLogging
             LOGGER.setLevel(Level.OFF);
-            // final ConsoleHandler consoleHandler = new ConsoleHandler();
-            // consoleHandler.setLevel(Level.ALL);
-            // consoleHandler.setFormatter(new SimpleFormatter());
-            // LOGGER.addHandler(consoleHandler);
-
-            final FileHandler fileHandler = new FileHandler(System.getProperty("user.dir") + "/logs/CassandraJdbcDriver.log");
-            fileHandler.setFormatter( new SimpleFormatter());
-            fileHandler.setLevel(Level.ALL);
-            LOGGER.addHandler(fileHandler);
-        } catch ( Exception ex ){
-            ex.printStackTrace();
+        } catch ( SQLException ex ){
+            throw new ExceptionInInitializerError(ex);
         }
     }
 
@@ -57,16 +51,24 @@ public class JdbcDriver implements Driver {
      */
     public Connection connect(String url, Properties info) throws SQLException {
         if (url != null && acceptsURL(url)) {
+            Object event = JfrEvents.CONNECT.begin();
             CassandraClientURI clientURI = new CassandraClientURI(url, info);
+            final String hosts = String.join(",", clientURI.getHosts());
+            JfrEvents.CONNECT.commit(event, "uri parse", hosts);
             try {
-                CqlSession session = clientURI.createCqlSession();
+                event = JfrEvents.CONNECT.begin();
+                SessionContext sessionContext = SessionContext.open(clientURI);
+                JfrEvents.CONNECT.commit(event, "session build", hosts);
                 try {
-                    session.execute("SELECT cql_version FROM system.local");
+                    event = JfrEvents.CONNECT.begin();
+                    sessionContext.getSession().execute("SELECT cql_version FROM system.local");
+                    JfrEvents.CONNECT.commit(event, "probe query", hosts);
                 } catch (Throwable e) {
+                    sessionContext.close(true);
                     throw new SQLException(e.getMessage(), e);
                 }
                 boolean returnNullStringsFromIntroQuery = Boolean.parseBoolean( info.getProperty( RETURN_NULL_STRINGS_FROM_INTRO_QUERY_KEY ) );
-                return new CassandraConnection(session, this, returnNullStringsFromIntroQuery);
+                return new CassandraConnection(sessionContext, this, clientURI, returnNullStringsFromIntroQuery);
             } catch (UnknownHostException e) {
                 throw new SQLException(e.getMessage(), e);
             } catch (GeneralSecurityException e) {
@@ -79,6 +81,58 @@ public class JdbcDriver implements Driver {
     }
 
 
+    /**
+     * Connections using the same URL and user share the coalescer, so identical reads from a connection pool are sent only once.
+     * Release it with releaseShared() when the connection is closed.
+     * @return the read coalescer for this URL, or null if coalescereads is not enabled.
+     */
+    ReadCoalescer acquireReadCoalescer(CassandraClientURI clientURI) {
+        if (!clientURI.isCoalesceReads()) {
+            return null;
+        }
+        return readCoalescers.acquire(sharedKey(clientURI), ReadCoalescer::new);
+    }
+
+    /**
+     * Connections using the same URL and user share the result cache, so the connections of a pool share the cached results.
+     * Release it with releaseShared() when the connection is closed.
+     * @return the result cache for this URL, or null if resultcache is not enabled.
+     */
+    ResultCache acquireResultCache(CassandraClientURI clientURI) {
+        if (!clientURI.isResultCacheEnabled()) {
+            return null;
+        }
+        return resultCaches.acquire(resultCacheKey(clientURI), clientURI::createResultCache);
+    }
+
+    /**
+     * Release the objects acquired for a connection, when it is closed.
+     */
+    void releaseShared(CassandraClientURI clientURI) {
+        if (clientURI.isResultCacheEnabled()) {
+            resultCaches.release(resultCacheKey(clientURI));
+        }
+        if (clientURI.isCoalesceReads()) {
+            readCoalescers.release(sharedKey(clientURI));
+        }
+    }
+
+    SharedRegistry<ResultCache> getResultCaches() {
+        return resultCaches;
+    }
+
+    SharedRegistry<ReadCoalescer> getReadCoalescers() {
+        return readCoalescers;
+    }
+
+    private static String sharedKey(CassandraClientURI clientURI) {
+        return clientURI.getURI() + '|' + clientURI.getUsername();
+    }
+
+    private static String resultCacheKey(CassandraClientURI clientURI) {
+        return sharedKey(clientURI) + '|' + clientURI.getResultCacheOptions();
+    }
+
     /**
      * URLs accepted are of the form: jdbc:cassandra://host1[:port1][,host2[:port2],...[,hostN[:portN]]][/[keyspace][?options]]
      */
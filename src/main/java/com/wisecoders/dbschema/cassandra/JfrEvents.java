@@ -0,0 +1,199 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Java Flight Recorder events of the driver, in the category Cassandra JDBC: Connect, one event per connect phase,
+ * Statement Execution, from the execution until the result set is exhausted or closed, and Page Fetch, the wait for each next page.
+ * The driver is compiled for Java 8, so the events cannot extend jdk.jfr.Event. They are defined at runtime with jdk.jfr.EventFactory,
+ * through reflection, when the JVM has the jdk.jfr module ( Java 11, or Java 8 from update 262 ).
+ * A FlightRecorderListener keeps a flag telling if a recording is running. Without a recording, begin() reads only this flag and
+ * returns null, and commit(null) returns at once, so the events cost nothing until a recording is started.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class JfrEvents {
+
+    private static final String CATEGORY = "Cassandra JDBC";
+
+    private static volatile boolean recording;
+
+    static final EventType CONNECT = new EventType("Connect", "Phase of JdbcDriver.connect",
+            new Field(String.class, "phase", "Phase", null),
+            new Field(String.class, "hosts", "Hosts", null));
+
+    static final EventType STATEMENT = new EventType("StatementExecution", "Execution of a statement, until its result set is exhausted or closed",
+            new Field(String.class, "fingerprint", "Fingerprint", null),
+            new Field(String.class, "consistency", "Consistency Level", null),
+            new Field(long.class, "rows", "Rows", null),
+            new Field(int.class, "pages", "Pages", null),
+            new Field(boolean.class, "failed", "Failed", null));
+
+    static final EventType PAGE_FETCH = new EventType("PageFetch", "Wait of ResultSet.next() for the next page",
+            new Field(String.class, "fingerprint", "Fingerprint", null),
+            new Field(long.class, "pageBytes", "Page Size", "BYTES"),
+            new Field(int.class, "rows", "Rows", null));
+
+    static {
+        try {
+            final Class<?> recorderClass = Class.forName("jdk.jfr.FlightRecorder");
+            final Class<?> listenerClass = Class.forName("jdk.jfr.FlightRecorderListener");
+            final Object listener = Proxy.newProxyInstance(JfrEvents.class.getClassLoader(), new Class<?>[]{listenerClass}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "recordingStateChanged":
+                        updateRecording(recorderClass);
+                        return null;
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return "JfrEvents listener";
+                    default:
+                        return null;
+                }
+            });
+            recorderClass.getMethod("addListener", listenerClass).invoke(null, listener);
+            if ((Boolean) recorderClass.getMethod("isInitialized").invoke(null)) {
+                updateRecording(recorderClass);
+            }
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+            LOGGER.log(Level.FINE, "Java Flight Recorder events are not available", ex);
+        }
+    }
+
+    private static void updateRecording(Class<?> recorderClass) throws ReflectiveOperationException {
+        final Object recorder = recorderClass.getMethod("getFlightRecorder").invoke(null);
+        boolean running = false;
+        for (Object recording : (List<?>) recorderClass.getMethod("getRecordings").invoke(recorder)) {
+            running |= "RUNNING".equals(String.valueOf(recording.getClass().getMethod("getState").invoke(recording)));
+        }
+        recording = running;
+    }
+
+    static boolean isRecording() {
+        return recording;
+    }
+
+    static class Field {
+        final Class<?> type;
+        final String name;
+        final String label;
+        final String dataAmount;
+
+        Field(Class<?> type, String name, String label, String dataAmount) {
+            this.type = type;
+            this.name = name;
+            this.label = label;
+            this.dataAmount = dataAmount;
+        }
+    }
+
+    /**
+     * One event type, created with jdk.jfr.EventFactory. Unavailable types return null from begin().
+     */
+    static class EventType {
+        private Object factory;
+        private Method newEvent, begin, end, shouldCommit, set, commit;
+
+        EventType(String name, String description, Field... fields) {
+            try {
+                final Class<?> annotationElement = Class.forName("jdk.jfr.AnnotationElement");
+                final Constructor<?> annotation = annotationElement.getConstructor(Class.class, Object.class);
+                final List<Object> annotations = new ArrayList<>();
+                annotations.add(annotation.newInstance(annotationType("jdk.jfr.Name"), JmxUtil.DOMAIN + "." + name));
+                annotations.add(annotation.newInstance(annotationType("jdk.jfr.Label"), name.replaceAll("([a-z])([A-Z])", "$1 $2")));
+                annotations.add(annotation.newInstance(annotationType("jdk.jfr.Description"), description));
+                final Object category = Array.newInstance(String.class, 1);
+                Array.set(category, 0, CATEGORY);
+                annotations.add(annotation.newInstance(annotationType("jdk.jfr.Category"), category));
+
+                final Class<?> valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                final Constructor<?> descriptor = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+                final List<Object> descriptors = new ArrayList<>();
+                for (Field field : fields) {
+                    final List<Object> fieldAnnotations = new ArrayList<>();
+                    fieldAnnotations.add(annotation.newInstance(annotationType("jdk.jfr.Label"), field.label));
+                    if (field.dataAmount != null) {
+                        fieldAnnotations.add(annotation.newInstance(annotationType("jdk.jfr.DataAmount"), field.dataAmount));
+                    }
+                    descriptors.add(descriptor.newInstance(field.type, field.name, fieldAnnotations));
+                }
+                final Class<?> eventFactory = Class.forName("jdk.jfr.EventFactory");
+                final Class<?> event = Class.forName("jdk.jfr.Event");
+                factory = eventFactory.getMethod("create", List.class, List.class).invoke(null, annotations, descriptors);
+                newEvent = eventFactory.getMethod("newEvent");
+                begin = event.getMethod("begin");
+                end = event.getMethod("end");
+                shouldCommit = event.getMethod("shouldCommit");
+                set = event.getMethod("set", int.class, Object.class);
+                commit = event.getMethod("commit");
+            } catch (ReflectiveOperationException | RuntimeException | LinkageError ex) {
+                factory = null;
+                LOGGER.log(Level.FINE, "Cannot create Java Flight Recorder event " + name, ex);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<? extends Annotation> annotationType(String name) throws ClassNotFoundException {
+            return (Class<? extends Annotation>) Class.forName(name);
+        }
+
+        /**
+         * @return a started event, or null if no recording is running.
+         */
+        Object begin() {
+            if (!recording || factory == null) {
+                return null;
+            }
+            try {
+                final Object event = newEvent.invoke(factory);
+                begin.invoke(event);
+                return event;
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return null;
+            }
+        }
+
+        /**
+         * End and commit the event with the field values, in the order of the fields. Does nothing if event is null.
+         */
+        void commit(Object event, Object... values) {
+            if (event == null) {
+                return;
+            }
+            try {
+                end.invoke(event);
+                if ((Boolean) shouldCommit.invoke(event)) {
+                    for (int i = 0; i < values.length; i++) {
+                        set.invoke(event, i, values[i]);
+                    }
+                    commit.invoke(event);
+                }
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                LOGGER.log(Level.FINE, "Cannot commit Java Flight Recorder event", ex);
+            }
+        }
+    }
+
+    static List<String> availableTypes() {
+        final List<String> types = new ArrayList<>();
+        if (CONNECT.factory != null) types.add("Connect");
+        if (STATEMENT.factory != null) types.add("StatementExecution");
+        if (PAGE_FETCH.factory != null) types.add("PageFetch");
+        return Collections.unmodifiableList(types);
+    }
+}
@@ -0,0 +1,51 @@
+package com.wisecoders.dbschema.cassandra;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.logging.Level;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Registration of the driver MBeans in the platform MBean server, as com.wisecoders.dbschema.cassandra:type=type,session=session name.
+ * Failures are logged and ignored, the driver works without JMX.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class JmxUtil {
+
+    static final String DOMAIN = "com.wisecoders.dbschema.cassandra";
+
+    /**
+     * @return the name the MBean was registered with, or null if it could not be registered.
+     */
+    static ObjectName register(Object mbean, String type, String sessionName) {
+        try {
+            final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            final ObjectName name = new ObjectName(DOMAIN + ":type=" + type + ",session=" + ObjectName.quote(sessionName));
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(mbean, name);
+            return name;
+        } catch (JMException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Cannot register MBean " + type, ex);
+            return null;
+        }
+    }
+
+    static void unregister(ObjectName name) {
+        if (name != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            } catch (JMException | RuntimeException ex) {
+                LOGGER.log(Level.FINE, "Cannot unregister MBean " + name, ex);
+            }
+        }
+    }
+}
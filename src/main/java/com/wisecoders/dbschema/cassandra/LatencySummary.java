@@ -0,0 +1,74 @@
+package com.wisecoders.dbschema.cassandra;
+
+/**
+ * Percentiles of one LatencyHistogram, as returned by StatementMetricsMXBean. All values are in microseconds.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class LatencySummary {
+
+    private final String fingerprint;
+    private final String phase;
+    private final long count;
+    private final double mean;
+    private final long p50, p90, p99, p999, max;
+
+    LatencySummary(String fingerprint, String phase, LatencyHistogram histogram) {
+        this.fingerprint = fingerprint;
+        this.phase = phase;
+        this.count = histogram.getCount();
+        this.mean = histogram.getMeanMicros();
+        this.p50 = histogram.getPercentileMicros(50);
+        this.p90 = histogram.getPercentileMicros(90);
+        this.p99 = histogram.getPercentileMicros(99);
+        this.p999 = histogram.getPercentileMicros(99.9);
+        this.max = histogram.getMaxMicros();
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return execute, first-row or page-fetch.
+     */
+    public String getPhase() {
+        return phase;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMeanMicros() {
+        return mean;
+    }
+
+    public long getP50Micros() {
+        return p50;
+    }
+
+    public long getP90Micros() {
+        return p90;
+    }
+
+    public long getP99Micros() {
+        return p99;
+    }
+
+    public long getP999Micros() {
+        return p999;
+    }
+
+    public long getMaxMicros() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return phase + " " + fingerprint + " count=" + count + " p50=" + p50 + "us p99=" + p99 + "us max=" + max + "us";
+    }
+}
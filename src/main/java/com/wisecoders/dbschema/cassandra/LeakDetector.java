@@ -0,0 +1,129 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Detection of connections, statements and result sets which are not closed, enabled with the leakdetection URL option,
+ * the threshold in milliseconds. Objects still open after the threshold are reported once, objects reclaimed by the garbage
+ * collector without being closed are reported and released: for a connection the CqlSession is closed.
+ * One object of leaksampling ( default 16 ) records the stack trace where it was opened, use leaksampling=1 to record all of them.
+ * The reports are written at WARNING level to the LeakDetector logger.
+ * The objects are tracked with phantom references, polled by a daemon thread which also checks the threshold every second.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class LeakDetector {
+
+    static final Logger LEAK_LOGGER = Logger.getLogger(LeakDetector.class.getName());
+    static final int DEFAULT_SAMPLING = 16;
+
+    private static final ReferenceQueue<Object> queue = new ReferenceQueue<>();
+    private static final Set<Tracked> tracked = ConcurrentHashMap.newKeySet();
+    private static Thread reaper;
+
+    private final long thresholdMillis;
+    private final int sampling;
+    private final AtomicLong opened = new AtomicLong();
+
+    LeakDetector(long thresholdMillis, int sampling) {
+        this.thresholdMillis = thresholdMillis;
+        this.sampling = Math.max(1, sampling);
+    }
+
+    /**
+     * Handle of one tracked object, closed when the object is closed. Holds no reference to the object.
+     */
+    static class Tracked extends PhantomReference<Object> {
+        private final String kind;
+        private final long openedAt = System.currentTimeMillis();
+        private final long thresholdMillis;
+        private final Throwable allocation;
+        private final Runnable release;
+        private volatile boolean reported;
+
+        private Tracked(Object resource, String kind, long thresholdMillis, Throwable allocation, Runnable release) {
+            super(resource, queue);
+            this.kind = kind;
+            this.thresholdMillis = thresholdMillis;
+            this.allocation = allocation;
+            this.release = release;
+        }
+
+        void closed() {
+            tracked.remove(this);
+            clear();
+        }
+
+        private void report(String problem) {
+            final String message = kind + " " + problem + ", opened " + (System.currentTimeMillis() - openedAt) + " ms ago" +
+                    (allocation == null ? ". Set leaksampling=1 to record where it was opened." : ".");
+            LEAK_LOGGER.log(Level.WARNING, message, allocation);
+        }
+    }
+
+    /**
+     * @param release called if the object is reclaimed without being closed, or null. Must not reference the object.
+     */
+    Tracked track(Object resource, String kind, Runnable release) {
+        startReaper();
+        final Throwable allocation = opened.getAndIncrement() % sampling == 0 ? new Throwable(kind + " opened here") : null;
+        final Tracked handle = new Tracked(resource, kind, thresholdMillis, allocation, release);
+        tracked.add(handle);
+        return handle;
+    }
+
+    static int getOpenCount() {
+        return tracked.size();
+    }
+
+    private static synchronized void startReaper() {
+        if (reaper == null) {
+            reaper = new Thread(LeakDetector::reap, "cassandra-jdbc-leak-detector");
+            reaper.setDaemon(true);
+            reaper.start();
+        }
+    }
+
+    private static void reap() {
+        while (true) {
+            try {
+                final Tracked reclaimed = (Tracked) queue.remove(1000);
+                if (reclaimed != null && tracked.remove(reclaimed)) {
+                    reclaimed.report("was reclaimed by the garbage collector without being closed");
+                    if (reclaimed.release != null) {
+                        reclaimed.release.run();
+                    }
+                }
+                checkThreshold();
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                LEAK_LOGGER.log(Level.FINE, "Leak detection failed", ex);
+            }
+        }
+    }
+
+    static synchronized void checkThreshold() {
+        final long now = System.currentTimeMillis();
+        for (Tracked handle : tracked) {
+            if (!handle.reported && now - handle.openedAt >= handle.thresholdMillis) {
+                handle.reported = true;
+                handle.report("is still open after " + handle.thresholdMillis + " ms");
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "LeakDetector{threshold=" + thresholdMillis + "ms, sampling=" + sampling + "}";
+    }
+}
@@ -0,0 +1,140 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * JDBC DatabaseMetaData search pattern: '%' matches any sequence, '_' matches one character, and the escape character '\'
+ * makes the next character literal. The pattern is compiled once per metadata call.
+ * Patterns without wildcards are kept as exact names, so the keyspace or table can be looked up directly instead of scanned.
+ * Like CQL identifiers, unquoted patterns match also the lower case names, so MY_KS finds my_ks. Patterns in double quotes are case sensitive.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class LikePattern {
+
+    static final String ESCAPE = "\\";
+
+    private static final LikePattern ANY = new LikePattern(null, Collections.emptyList(), null, null);
+
+    private final String exact;
+    private final List<CqlIdentifier> literalIdentifiers;
+    private final Pattern regex;
+    private final Pattern foldedRegex;
+
+    private LikePattern(String exact, List<CqlIdentifier> literalIdentifiers, Pattern regex, Pattern foldedRegex) {
+        this.exact = exact;
+        this.literalIdentifiers = literalIdentifiers;
+        this.regex = regex;
+        this.foldedRegex = foldedRegex;
+    }
+
+    static LikePattern compile(String pattern) {
+        if (pattern == null || "%".equals(pattern)) {
+            return ANY;
+        }
+        final boolean quoted = pattern.length() > 1 && pattern.startsWith("\"") && pattern.endsWith("\"");
+        if (quoted) {
+            pattern = pattern.substring(1, pattern.length() - 1).replace("\"\"", "\"");
+        }
+        final StringBuilder regex = new StringBuilder();
+        final StringBuilder folded = new StringBuilder();
+        final StringBuilder literal = new StringBuilder();
+        final StringBuilder run = new StringBuilder();
+        boolean wildcard = false, anySequence = false;
+        for (int i = 0; i < pattern.length(); i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                final char next = pattern.charAt(++i);
+                literal.append(next);
+                run.append(next);
+            } else if (c == '%' || c == '_') {
+                wildcard = true;
+                anySequence |= c == '%';
+                if (run.length() > 0) {
+                    appendLiteral(regex, folded, run);
+                    run.setLength(0);
+                }
+                regex.append(c == '%' ? ".*" : ".");
+                folded.append(c == '%' ? ".*" : ".");
+                if (c == '_') {
+                    literal.append(c);
+                }
+            } else {
+                literal.append(c);
+                run.append(c);
+            }
+        }
+        // the name as written, with '_' taken literally, then for unquoted names the name folded to lower case like in CQL
+        final List<CqlIdentifier> literalIdentifiers = new ArrayList<>(2);
+        if (!anySequence && literal.length() > 0) {
+            final String name = literal.toString(), lowerCase = name.toLowerCase(Locale.ROOT);
+            literalIdentifiers.add(CqlIdentifier.fromInternal(name));
+            if (!quoted && !lowerCase.equals(name)) {
+                literalIdentifiers.add(CqlIdentifier.fromInternal(lowerCase));
+            }
+        }
+        if (!wildcard) {
+            return new LikePattern(literal.toString(), literalIdentifiers, null, null);
+        }
+        if (run.length() > 0) {
+            appendLiteral(regex, folded, run);
+        }
+        return new LikePattern(null, literalIdentifiers, Pattern.compile(regex.toString(), Pattern.DOTALL),
+                quoted || folded.toString().equals(regex.toString()) ? null : Pattern.compile(folded.toString(), Pattern.DOTALL));
+    }
+
+    private static void appendLiteral(StringBuilder regex, StringBuilder folded, StringBuilder run) {
+        regex.append(Pattern.quote(run.toString()));
+        folded.append(Pattern.quote(run.toString().toLowerCase(Locale.ROOT)));
+    }
+
+    boolean matchesAll() {
+        return exact == null && regex == null;
+    }
+
+    /**
+     * @return the name, if the pattern has no wildcards, otherwise null.
+     */
+    String getExact() {
+        return exact;
+    }
+
+    /**
+     * Identifiers to look up before scanning, if the pattern has no '%': the name as written, the exact names returned by
+     * getCatalogs() or getTables() included, then for unquoted patterns the name folded to lower case like in CQL.
+     * The '_' wildcards are taken as literal underscores, which is what clients usually mean by names like MY_TABLE.
+     * If nothing is found with them, names with wildcards are scanned.
+     */
+    List<CqlIdentifier> getLiteralIdentifiers() {
+        return literalIdentifiers;
+    }
+
+    boolean matches(String name) {
+        if (regex != null) {
+            return name != null && (regex.matcher(name).matches() || (foldedRegex != null && foldedRegex.matcher(name).matches()));
+        }
+        if (exact != null) {
+            for (CqlIdentifier identifier : literalIdentifiers) {
+                if (identifier.asInternal().equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return exact != null ? exact : regex != null ? regex.pattern() : "%";
+    }
+}
@@ -0,0 +1,634 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.data.UdtValue;
+import com.datastax.oss.driver.api.core.metadata.schema.*;
+import com.datastax.oss.driver.api.core.session.Session;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+
+import java.sql.DatabaseMetaData;
+import java.sql.Types;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Per-session cache of the rows returned by CassandraMetaData. The rows of a keyspace or table are built once from the driver
+ * schema metadata, and are never modified afterwards. The cache is registered as SchemaChangeListener on the session,
+ * and drops the rows of a keyspace or table when the driver reports a schema change for it.
+ * All connections and CassandraMetaData instances working with the session share the same cache.
+ * The rows can be preloaded from the on-disk SchemaFileCache, while the driver loads the schema metadata in background.
+ * Rows built while a schema change is reported are not kept, as they may have been read from the previous metadata.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class MetadataCache extends SchemaChangeListenerBase {
+
+    static final String TABLE = "TABLE";
+    static final String MATERIALIZED_VIEW = "MATERIALIZED VIEW";
+
+    private final ConcurrentMap<CqlIdentifier, List<Object[]>> keyspaceTables = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CqlIdentifier, ConcurrentMap<CqlIdentifier, TableRows>> tableRows = new ConcurrentHashMap<>();
+    private final ConcurrentMap<CqlIdentifier, RoutineRows> keyspaceRoutines = new ConcurrentHashMap<>();
+    private final AtomicLong builds = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private volatile CqlSession session;
+    private volatile CompletionStage<?> schemaLoad = CompletableFuture.completedFuture(null);
+    private volatile List<CqlIdentifier> preloadedKeyspaces;
+    private final List<Runnable> pendingInvalidations = new ArrayList<>();
+
+    /**
+     * Immutable JDBC metadata rows of one table.
+     */
+    static class TableRows {
+        final List<Object[]> columns;
+        final List<Object[]> primaryKeys;
+        final List<Object[]> indexInfo;
+
+        TableRows(List<Object[]> columns, List<Object[]> primaryKeys, List<Object[]> indexInfo) {
+            this.columns = Collections.unmodifiableList(columns);
+            this.primaryKeys = Collections.unmodifiableList(primaryKeys);
+            this.indexInfo = Collections.unmodifiableList(indexInfo);
+        }
+    }
+
+    /**
+     * Immutable getUDTs() and getFunctions() rows of one keyspace.
+     */
+    static class RoutineRows {
+        final List<Object[]> udts;
+        final List<Object[]> functions;
+
+        RoutineRows(List<Object[]> udts, List<Object[]> functions) {
+            this.udts = Collections.unmodifiableList(udts);
+            this.functions = Collections.unmodifiableList(functions);
+        }
+    }
+
+    /**
+     * All rows of one keyspace, as saved in the SchemaFileCache.
+     */
+    static class KeyspaceRows {
+        final List<Object[]> tables;
+        final Map<CqlIdentifier, TableRows> tableRows;
+
+        KeyspaceRows(List<Object[]> tables, Map<CqlIdentifier, TableRows> tableRows) {
+            this.tables = Collections.unmodifiableList(tables);
+            this.tableRows = Collections.unmodifiableMap(tableRows);
+        }
+    }
+
+    void setSession(CqlSession session) {
+        this.session = session;
+    }
+
+    /**
+     * Rows missing in the cache wait for this stage before reading the driver schema metadata.
+     */
+    void setSchemaLoad(CompletionStage<?> schemaLoad) {
+        this.schemaLoad = schemaLoad;
+    }
+
+    @Override
+    public void onSessionReady(Session session) {
+        if (session instanceof CqlSession) {
+            this.session = (CqlSession) session;
+        }
+    }
+
+    /**
+     * @return the getTables() rows of the keyspace, or an empty list if the keyspace does not exist.
+     */
+    List<Object[]> getTables(CqlIdentifier keyspace) {
+        final long generation = invalidations.get();
+        final List<Object[]> tables = keyspaceTables.computeIfAbsent(keyspace, ks -> {
+            builds.incrementAndGet();
+            final List<Object[]> rows = new ArrayList<>();
+            keyspace(ks).ifPresent(keyspaceMetadata -> {
+                for (CqlIdentifier table : keyspaceMetadata.getTables().keySet()) {
+                    rows.add(tableRow(ks, table, TABLE, null));
+                }
+                for (ViewMetadata view : keyspaceMetadata.getViews().values()) {
+                    rows.add(tableRow(ks, view.getName(), MATERIALIZED_VIEW, "Materialized view of " + view.getBaseTable().asInternal()));
+                }
+            });
+            return Collections.unmodifiableList(rows);
+        });
+        if (invalidations.get() != generation) {
+            keyspaceTables.remove(keyspace, tables);
+        }
+        return tables;
+    }
+
+    private static String[] tableRow(CqlIdentifier keyspace, CqlIdentifier table, String type, String remarks) {
+        return new String[]{
+                keyspace.asInternal(), // TABLE_CAT
+                "", // TABLE_SCHEM
+                table.asInternal(), // TABLE_NAME
+                type, // TABLE_TYPE
+                remarks, // REMARKS
+                "", // TYPE_CAT
+                "", // TYPE_SCHEM
+                "", // TYPE_NAME
+                "", // SELF_REFERENCING_COL_NAME
+                "" // REF_GENERATION
+        };
+    }
+
+    /**
+     * @return the column, primary key and index rows of the table or materialized view, or null if it does not exist.
+     */
+    TableRows getTable(CqlIdentifier keyspace, CqlIdentifier table) {
+        final long generation = invalidations.get();
+        final ConcurrentMap<CqlIdentifier, TableRows> tables = tableRows.computeIfAbsent(keyspace, ks -> new ConcurrentHashMap<>());
+        final TableRows rows = tables.computeIfAbsent(table, tb -> {
+            final KeyspaceMetadata keyspaceMetadata = keyspace(keyspace).orElse(null);
+            if (keyspaceMetadata == null) {
+                return null;
+            }
+            final RelationMetadata relationMetadata = keyspaceMetadata.getTable(tb).map(RelationMetadata.class::cast)
+                    .orElseGet(() -> keyspaceMetadata.getView(tb).orElse(null));
+            if (relationMetadata == null) {
+                return null;
+            }
+            builds.incrementAndGet();
+            return buildTableRows(relationMetadata);
+        });
+        if (rows != null && invalidations.get() != generation) {
+            tables.remove(table, rows);
+        }
+        return rows;
+    }
+
+    /**
+     * @return the user defined types, functions and aggregates of the keyspace, sorted by name.
+     */
+    RoutineRows getRoutines(CqlIdentifier keyspace) {
+        final long generation = invalidations.get();
+        final RoutineRows routines = keyspaceRoutines.computeIfAbsent(keyspace, ks -> {
+            builds.incrementAndGet();
+            final List<Object[]> udts = new ArrayList<>();
+            final List<Object[]> functions = new ArrayList<>();
+            keyspace(ks).ifPresent(keyspaceMetadata -> {
+                for (UserDefinedType type : keyspaceMetadata.getUserDefinedTypes().values()) {
+                    udts.add(new String[]{
+                            ks.asInternal(), // TYPE_CAT
+                            null, // TYPE_SCHEM
+                            type.getName().asInternal(), // TYPE_NAME
+                            UdtValue.class.getName(), // CLASS_NAME
+                            String.valueOf(Types.STRUCT), // DATA_TYPE
+                            fieldList(type), // REMARKS
+                            null // BASE_TYPE
+                    });
+                }
+                for (FunctionMetadata function : keyspaceMetadata.getFunctions().values()) {
+                    functions.add(functionRow(ks, function.getSignature(),
+                            "FUNCTION RETURNS " + function.getReturnType().asCql(true, true) + " LANGUAGE " + function.getLanguage()));
+                }
+                for (AggregateMetadata aggregate : keyspaceMetadata.getAggregates().values()) {
+                    functions.add(functionRow(ks, aggregate.getSignature(),
+                            "AGGREGATE RETURNS " + aggregate.getReturnType().asCql(true, true) + " SFUNC " + aggregate.getStateFuncSignature().getName().asInternal()));
+                }
+            });
+            udts.sort(Comparator.comparing(row -> (String) row[2]));
+            functions.sort(Comparator.comparing((Object[] row) -> (String) row[2]).thenComparing(row -> (String) row[5]));
+            return new RoutineRows(udts, functions);
+        });
+        if (invalidations.get() != generation) {
+            keyspaceRoutines.remove(keyspace, routines);
+        }
+        return routines;
+    }
+
+    private static String fieldList(UserDefinedType type) {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < type.getFieldNames().size(); i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(type.getFieldNames().get(i).asCql(true)).append(' ').append(type.getFieldTypes().get(i).asCql(true, true));
+        }
+        return sb.toString();
+    }
+
+    private static String[] functionRow(CqlIdentifier keyspace, FunctionSignature signature, String remarks) {
+        final StringBuilder specificName = new StringBuilder(signature.getName().asInternal()).append('(');
+        for (int i = 0; i < signature.getParameterTypes().size(); i++) {
+            if (i > 0) specificName.append(", ");
+            specificName.append(signature.getParameterTypes().get(i).asCql(true, true));
+        }
+        return new String[]{
+                keyspace.asInternal(), // FUNCTION_CAT
+                null, // FUNCTION_SCHEM
+                signature.getName().asInternal(), // FUNCTION_NAME
+                remarks, // REMARKS
+                String.valueOf(DatabaseMetaData.functionNoTable), // FUNCTION_TYPE
+                specificName.append(')').toString() // SPECIFIC_NAME, unique for overloaded functions
+        };
+    }
+
+    private Optional<KeyspaceMetadata> keyspace(CqlIdentifier keyspace) {
+        final CqlSession session = this.session;
+        if (session == null) {
+            return Optional.empty();
+        }
+        awaitSchema();
+        return session.getMetadata().getKeyspace(keyspace);
+    }
+
+    /**
+     * Wait until the driver schema metadata is loaded, if it is loaded in background.
+     */
+    void awaitSchema() {
+        final CompletionStage<?> schemaLoad = this.schemaLoad;
+        try {
+            schemaLoad.toCompletableFuture().join();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Schema metadata load failed", ex);
+        }
+    }
+
+    /**
+     * @return the keyspace names, from the preloaded rows while the driver schema metadata is loading.
+     */
+    List<CqlIdentifier> getKeyspaces() {
+        final List<CqlIdentifier> preloaded = preloadedKeyspaces;
+        if (preloaded != null) {
+            return preloaded;
+        }
+        final CqlSession session = this.session;
+        if (session == null) {
+            return Collections.emptyList();
+        }
+        awaitSchema();
+        return new ArrayList<>(session.getMetadata().getKeyspaces().keySet());
+    }
+
+    /**
+     * Fill the cache with rows saved by the SchemaFileCache. Until endPreload() the schema change events are queued,
+     * as the driver reports every keyspace as created while it loads the schema metadata.
+     */
+    void preload(Map<CqlIdentifier, KeyspaceRows> keyspaces) {
+        for (Map.Entry<CqlIdentifier, KeyspaceRows> entry : keyspaces.entrySet()) {
+            keyspaceTables.put(entry.getKey(), entry.getValue().tables);
+            tableRows.put(entry.getKey(), new ConcurrentHashMap<>(entry.getValue().tableRows));
+        }
+        preloadedKeyspaces = Collections.unmodifiableList(new ArrayList<>(keyspaces.keySet()));
+    }
+
+    /**
+     * Apply the schema change events received during the preload. The rows of the changed keyspaces and tables are
+     * built again from the loaded driver schema metadata.
+     */
+    void endPreload() {
+        final List<Runnable> pending;
+        synchronized (pendingInvalidations) {
+            preloadedKeyspaces = null;
+            pending = new ArrayList<>(pendingInvalidations);
+            pendingInvalidations.clear();
+        }
+        pending.forEach(Runnable::run);
+    }
+
+    /**
+     * @return true if the invalidation was queued until the end of the preload.
+     */
+    private boolean queueWhilePreloaded(Runnable invalidation) {
+        synchronized (pendingInvalidations) {
+            if (isPreloaded()) {
+                pendingInvalidations.add(invalidation);
+                return true;
+            }
+            return false;
+        }
+    }
+
+    boolean isPreloaded() {
+        return preloadedKeyspaces != null;
+    }
+
+    /**
+     * Build the rows of all keyspaces and tables, to be saved by the SchemaFileCache.
+     */
+    Map<CqlIdentifier, KeyspaceRows> snapshot() {
+        final Map<CqlIdentifier, KeyspaceRows> keyspaces = new LinkedHashMap<>();
+        for (CqlIdentifier keyspace : getKeyspaces()) {
+            final List<Object[]> tables = getTables(keyspace);
+            final Map<CqlIdentifier, TableRows> rows = new LinkedHashMap<>();
+            for (Object[] table : tables) {
+                final CqlIdentifier name = CqlIdentifier.fromInternal((String) table[2]);
+                final TableRows tableRows = getTable(keyspace, name);
+                if (tableRows != null) {
+                    rows.put(name, tableRows);
+                }
+            }
+            keyspaces.put(keyspace, new KeyspaceRows(tables, rows));
+        }
+        return keyspaces;
+    }
+
+    private static TableRows buildTableRows(RelationMetadata tableMetadata) {
+        final String keyspaceName = tableMetadata.getKeyspace().asInternal();
+        final String tableName = tableMetadata.getName().asInternal();
+
+        final List<Object[]> columns = new ArrayList<>(tableMetadata.getColumns().size());
+        for (ColumnMetadata columnMetadata : tableMetadata.getColumns().values()) {
+            columns.add(new String[]{
+                    keyspaceName, // "TABLE_CAT",
+                    null, // "TABLE_SCHEMA",
+                    tableName, // "TABLE_NAME", (i.e. Cassandra Collection Name)
+                    columnMetadata.getName().asInternal(), // "COLUMN_NAME",
+                    "" + columnMetadata.getType(), // "DATA_TYPE",
+                    "" + columnMetadata.getType(), // "TYPE_NAME", -- I LET THIS INTENTIONALLY TO USE .toString() BECAUSE OF USER DEFINED TYPES.
+                    "800", // "COLUMN_SIZE",
+                    "0", // "BUFFER_LENGTH", (not used)
+                    "0", // "DECIMAL_DIGITS",
+                    "10", // "NUM_PREC_RADIX",
+                    "0", // "NULLABLE", // I RETREIVE HERE IF IS FROZEN ( MANDATORY ) OR NOT ( NULLABLE )
+                    "", // "REMARKS",
+                    "", // "COLUMN_DEF",
+                    "0", // "SQL_DATA_TYPE", (not used)
+                    "0", // "SQL_DATETIME_SUB", (not used)
+                    "800", // "CHAR_OCTET_LENGTH",
+                    "1", // "ORDINAL_POSITION",
+                    "NO", // "IS_NULLABLE",
+                    null, // "SCOPE_CATLOG", (not a REF type)
+                    null, // "SCOPE_SCHEMA", (not a REF type)
+                    null, // "SCOPE_TABLE", (not a REF type)
+                    null, // "SOURCE_DATA_TYPE", (not a DISTINCT or REF type)
+                    "NO", // "IS_AUTOINCREMENT" (can be auto-generated, but can also be specified)
+                    "" // TABLE_OPTIONS
+            });
+        }
+
+        final List<Object[]> primaryKeys = new ArrayList<>();
+        int seq = 0;
+        for (ColumnMetadata columnMetadata : tableMetadata.getPrimaryKey()) {
+            primaryKeys.add(new String[]{
+                    keyspaceName, // "TABLE_CAT",
+                    null, // "TABLE_SCHEMA",
+                    tableName, // "TABLE_NAME", (i.e. Cassandra Collection Name)
+                    columnMetadata.getName().asInternal(), // "COLUMN_NAME",
+                    "" + seq++, // "ORDINAL_POSITION"
+                    "PRIMARY KEY" // "PK_NAME"
+            });
+        }
+
+        final List<Object[]> indexInfo = new ArrayList<>();
+        seq = 0;
+        for (Map.Entry<ColumnMetadata, ClusteringOrder> entry : tableMetadata.getClusteringColumns().entrySet()) {
+            indexInfo.add(new String[]{
+                    keyspaceName, // "TABLE_CAT",
+                    null, // "TABLE_SCHEMA",
+                    tableName, // "TABLE_NAME", (i.e. Cassandra Collection Name)
+                    "FALSE", // "NON-UNIQUE",
+                    entry.getKey().getName().asInternal(), // "INDEX QUALIFIER",
+                    "CLUSTER KEY", // "INDEX_NAME",
+                    "0", // "TYPE",
+                    "" + seq++, // "ORDINAL_POSITION"
+                    entry.getKey().getName().asInternal(), // "COLUMN_NAME",
+                    entry.getValue() == ClusteringOrder.ASC ? "A" : "D", // "ASC_OR_DESC",
+                    "0", // "CARDINALITY",
+                    "0", // "PAGES",
+                    "", // "FILTER_CONDITION",
+                    "CLUSTERING", // "INDEX_KIND",
+                    entry.getKey().getName().asInternal(), // "INDEX_TARGET",
+                    "" // "INDEX_OPTIONS"
+            });
+        }
+        if (tableMetadata instanceof TableMetadata) {
+            for (IndexMetadata indexMetadata : ((TableMetadata) tableMetadata).getIndexes().values()) {
+                indexInfo.add(new String[]{
+                        keyspaceName, // "TABLE_CAT",
+                        null, // "TABLE_SCHEMA",
+                        tableName, // "TABLE_NAME",
+                        "TRUE", // "NON-UNIQUE",
+                        keyspaceName, // "INDEX QUALIFIER",
+                        indexMetadata.getName().asInternal(), // "INDEX_NAME",
+                        String.valueOf(DatabaseMetaData.tableIndexOther), // "TYPE",
+                        "1", // "ORDINAL_POSITION"
+                        indexedColumn(indexMetadata.getTarget()), // "COLUMN_NAME",
+                        null, // "ASC_OR_DESC",
+                        "0", // "CARDINALITY",
+                        "0", // "PAGES",
+                        null, // "FILTER_CONDITION",
+                        indexKind(indexMetadata), // "INDEX_KIND",
+                        indexMetadata.getTarget(), // "INDEX_TARGET",
+                        String.valueOf(indexMetadata.getOptions()) // "INDEX_OPTIONS"
+                });
+            }
+        }
+        return new TableRows(columns, primaryKeys, indexInfo);
+    }
+
+    /**
+     * @return SECONDARY for native secondary indexes, SAI or SASI for the storage attached and SSTable attached indexes,
+     * or CUSTOM with the index class name.
+     */
+    static String indexKind(IndexMetadata indexMetadata) {
+        if (indexMetadata.getKind() != IndexKind.CUSTOM) {
+            return "SECONDARY";
+        }
+        final String className = indexMetadata.getClassName().orElse(indexMetadata.getOptions().get("class_name"));
+        if (className == null) {
+            return "CUSTOM";
+        }
+        if (className.endsWith("StorageAttachedIndex")) {
+            return "SAI";
+        }
+        if (className.endsWith("SASIIndex")) {
+            return "SASI";
+        }
+        return "CUSTOM " + className;
+    }
+
+    /**
+     * The index target is the column name, optionally wrapped as keys(column), values(column), entries(column) or full(column).
+     */
+    static String indexedColumn(String target) {
+        if (target == null) {
+            return null;
+        }
+        String column = target.trim();
+        final int open = column.indexOf('(');
+        if (open > 0 && column.endsWith(")")) {
+            column = column.substring(open + 1, column.length() - 1).trim();
+        }
+        if (column.length() > 1 && column.startsWith("\"") && column.endsWith("\"")) {
+            column = column.substring(1, column.length() - 1).replace("\"\"", "\"");
+        }
+        return column;
+    }
+
+    /**
+     * Drop all rows of the keyspace. Queued while the rows are preloaded from the schema file cache.
+     */
+    public void invalidate(CqlIdentifier keyspace) {
+        if (queueWhilePreloaded(() -> invalidate(keyspace))) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        keyspaceTables.remove(keyspace);
+        tableRows.remove(keyspace);
+        keyspaceRoutines.remove(keyspace);
+    }
+
+    /**
+     * Drop the user defined type and function rows of the keyspace.
+     */
+    public void invalidateRoutines(CqlIdentifier keyspace) {
+        if (queueWhilePreloaded(() -> invalidateRoutines(keyspace))) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        keyspaceRoutines.remove(keyspace);
+    }
+
+    /**
+     * Drop the rows of one table. If the table was created or dropped, the table list of the keyspace is dropped as well.
+     */
+    public void invalidate(CqlIdentifier keyspace, CqlIdentifier table, boolean tableListChanged) {
+        if (queueWhilePreloaded(() -> invalidate(keyspace, table, tableListChanged))) {
+            return;
+        }
+        invalidations.incrementAndGet();
+        if (tableListChanged) {
+            keyspaceTables.remove(keyspace);
+        }
+        final ConcurrentMap<CqlIdentifier, TableRows> tables = tableRows.get(keyspace);
+        if (tables != null) {
+            tables.remove(table);
+        }
+    }
+
+    public void clear() {
+        invalidations.incrementAndGet();
+        keyspaceTables.clear();
+        tableRows.clear();
+        keyspaceRoutines.clear();
+    }
+
+    /**
+     * @return how many times keyspace or table rows were built from the driver metadata.
+     */
+    public long getBuildCount() {
+        return builds.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    /**
+     * Nothing to release, declared without the InterruptedException of the base class.
+     */
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void onKeyspaceCreated(KeyspaceMetadata keyspace) {
+        invalidate(keyspace.getName());
+    }
+
+    @Override
+    public void onKeyspaceDropped(KeyspaceMetadata keyspace) {
+        invalidate(keyspace.getName());
+    }
+
+    @Override
+    public void onKeyspaceUpdated(KeyspaceMetadata current, KeyspaceMetadata previous) {
+        invalidate(current.getName());
+    }
+
+    @Override
+    public void onTableCreated(TableMetadata table) {
+        invalidate(table.getKeyspace(), table.getName(), true);
+    }
+
+    @Override
+    public void onTableDropped(TableMetadata table) {
+        invalidate(table.getKeyspace(), table.getName(), true);
+    }
+
+    @Override
+    public void onTableUpdated(TableMetadata current, TableMetadata previous) {
+        invalidate(current.getKeyspace(), current.getName(), false);
+    }
+
+    @Override
+    public void onViewCreated(ViewMetadata view) {
+        invalidate(view.getKeyspace(), view.getName(), true);
+    }
+
+    @Override
+    public void onViewDropped(ViewMetadata view) {
+        invalidate(view.getKeyspace(), view.getName(), true);
+    }
+
+    @Override
+    public void onViewUpdated(ViewMetadata current, ViewMetadata previous) {
+        invalidate(current.getKeyspace(), current.getName(), false);
+    }
+
+    /**
+     * Column types are rendered with the type name and fields, so a changed type may change the rows of any table in the keyspace.
+     */
+    @Override
+    public void onUserDefinedTypeUpdated(UserDefinedType current, UserDefinedType previous) {
+        invalidate(current.getKeyspace());
+    }
+
+    @Override
+    public void onUserDefinedTypeCreated(UserDefinedType type) {
+        invalidateRoutines(type.getKeyspace());
+    }
+
+    @Override
+    public void onUserDefinedTypeDropped(UserDefinedType type) {
+        invalidateRoutines(type.getKeyspace());
+    }
+
+    @Override
+    public void onFunctionCreated(FunctionMetadata function) {
+        invalidateRoutines(function.getKeyspace());
+    }
+
+    @Override
+    public void onFunctionDropped(FunctionMetadata function) {
+        invalidateRoutines(function.getKeyspace());
+    }
+
+    @Override
+    public void onFunctionUpdated(FunctionMetadata current, FunctionMetadata previous) {
+        invalidateRoutines(current.getKeyspace());
+    }
+
+    @Override
+    public void onAggregateCreated(AggregateMetadata aggregate) {
+        invalidateRoutines(aggregate.getKeyspace());
+    }
+
+    @Override
+    public void onAggregateDropped(AggregateMetadata aggregate) {
+        invalidateRoutines(aggregate.getKeyspace());
+    }
+
+    @Override
+    public void onAggregateUpdated(AggregateMetadata current, AggregateMetadata previous) {
+        invalidateRoutines(current.getKeyspace());
+    }
+
+    @Override
+    public String toString() {
+        return "MetadataCache{keyspaces=" + keyspaceTables.size() + ", builds=" + builds + ", invalidations=" + invalidations + "}";
+    }
+}
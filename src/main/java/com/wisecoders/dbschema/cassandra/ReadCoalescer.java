@@ -0,0 +1,130 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.DriverException;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Single-flight execution of prepared reads. While a read is in flight, identical reads ( same statement id and bound values )
+ * wait for it instead of sending their own request. Each caller receives an independent cursor over the shared rows.
+ * Results which do not fit in one page are not shared, the waiting callers execute the read themselves.
+ * They do the same if the leading read does not answer within their own request timeout.
+ *
+ * Enable it with the URL option coalescereads=true. Connections created with the same URL and user share one coalescer.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ReadCoalescer {
+
+    private final ConcurrentHashMap<StatementKey, CompletableFuture<CachedResultSet>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong executed = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    /**
+     * Only SELECT statements are coalesced, writes are always sent.
+     */
+    static boolean isRead(PreparedStatement preparedStatement) {
+        return preparedStatement.getResultSetDefinitions().size() > 0 && CqlStatementInfo.classify(preparedStatement.getQuery()).getKind() == CqlStatementInfo.Kind.SELECT;
+    }
+
+    ResultSet execute(BoundStatement statement, Function<BoundStatement, ResultSet> executor) {
+        return execute(statement, statement.getTimeout(), executor);
+    }
+
+    /**
+     * @param timeout how long to wait for an identical read in flight, or null to wait until it completes.
+     */
+    ResultSet execute(BoundStatement statement, Duration timeout, Function<BoundStatement, ResultSet> executor) {
+        final StatementKey key = new StatementKey(statement);
+        final CompletableFuture<CachedResultSet> future = new CompletableFuture<>();
+        final CompletableFuture<CachedResultSet> leader = inFlight.putIfAbsent(key, future);
+        if (leader != null) {
+            final CachedResultSet shared = await(leader, timeout);
+            if (shared != null) {
+                coalesced.incrementAndGet();
+                return shared.replay();
+            }
+            executed.incrementAndGet();
+            return executor.apply(statement);
+        }
+        executed.incrementAndGet();
+        try {
+            final ResultSet resultSet = executor.apply(statement);
+            if (!resultSet.isFullyFetched()) {
+                future.complete(null);
+                return resultSet;
+            }
+            final CachedResultSet shared = CachedResultSet.copyOf(resultSet);
+            future.complete(shared);
+            return shared.replay();
+        } catch (RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Wait for the leading request. Its failure is rethrown as a copy, so the stack trace shows the waiting thread.
+     * @return the shared rows, or null if they are not shared or the leading request did not complete within the timeout.
+     */
+    private static CachedResultSet await(CompletableFuture<CachedResultSet> leader, Duration timeout) {
+        try {
+            return timeout == null ? leader.get() : leader.get(timeout.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            return null;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof DriverException) {
+                throw ((DriverException) cause).copy();
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * @return the number of reads sent to the cluster.
+     */
+    public long getExecutedCount() {
+        return executed.get();
+    }
+
+    /**
+     * @return the number of reads answered with the rows of another in-flight read.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public String toString() {
+        return "ReadCoalescer{executed=" + executed + ", coalesced=" + coalesced + ", inFlight=" + inFlight.size() + "}";
+    }
+}
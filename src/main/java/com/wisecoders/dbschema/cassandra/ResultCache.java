@@ -0,0 +1,249 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Optional client side cache for the results of prepared queries on read-mostly tables.
+ * Entries are keyed by the prepared statement id and the bound values, and expire after the TTL configured for their table.
+ * Only results which fit in one page are cached. The cache is shared by the connections using the same URL and user,
+ * writes executed through any of them invalidate the entries of the written table.
+ * A read running while a table is invalidated is not cached, it may have read the rows from before the write.
+ *
+ * Enable it with the URL option resultcache=keyspace.table:ttlMillis[,keyspace.*:ttlMillis...].
+ * The cache size is limited by resultcachemaxentries ( default 10000 ) and resultcachemaxbytes ( default 64MB ).
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ResultCache {
+
+    static final int DEFAULT_MAX_ENTRIES = 10000;
+    static final long DEFAULT_MAX_BYTES = 64L * 1024 * 1024;
+
+    private final Map<String, Long> tableTtls = new HashMap<>();
+    private final int maxEntries;
+    private final long maxBytes;
+    private final LinkedHashMap<StatementKey, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    // incremented by each invalidation, a read started before it must not be cached
+    private long generation;
+
+    /**
+     * @param tables comma separated list of keyspace.table:ttlMillis. Use keyspace.* for all the tables of a keyspace.
+     */
+    public ResultCache(String tables, int maxEntries, long maxBytes) {
+        for (String spec : tables.split(",")) {
+            final int idx = spec.lastIndexOf(':');
+            if (idx <= 0) {
+                throw new IllegalArgumentException("Result cache table should be given as keyspace.table:ttlMillis, not '" + spec + "'");
+            }
+            tableTtls.put(spec.substring(0, idx).trim().replace("\"", "").toLowerCase(Locale.ENGLISH), Long.parseLong(spec.substring(idx + 1).trim()));
+        }
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return the TTL in milliseconds for results read from this table, or -1 if the table results are not cached.
+     */
+    long ttlFor(String keyspace, String table) {
+        if (keyspace == null || table == null) return -1;
+        final String ks = unquote(keyspace);
+        Long ttl = tableTtls.get(ks + "." + unquote(table));
+        if (ttl == null) ttl = tableTtls.get(ks + ".*");
+        return ttl == null ? -1 : ttl;
+    }
+
+    /**
+     * @return the TTL for the results of this prepared query, or -1 if they are not cached.
+     */
+    long ttlFor(com.datastax.oss.driver.api.core.cql.PreparedStatement preparedStatement) {
+        final ColumnDefinitions definitions = preparedStatement.getResultSetDefinitions();
+        if (definitions.size() == 0) return -1;
+        final ColumnDefinition first = definitions.get(0);
+        return ttlFor(first.getKeyspace().asInternal(), first.getTable().asInternal());
+    }
+
+    /**
+     * @return a new result set replaying the cached rows, or null if the entry is missing or expired.
+     */
+    ResultSet get(BoundStatement statement) {
+        final StatementKey key = new StatementKey(statement);
+        final Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null && entry.expires < System.currentTimeMillis()) {
+                remove(key);
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        hits.incrementAndGet();
+        return entry.replay();
+    }
+
+    /**
+     * @return the invalidation generation, to read before executing a statement whose result is cached with put().
+     */
+    synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache the current page of the result set, if the result is complete and fits in the cache,
+     * and no table was invalidated since the generation was read.
+     * The rows are consumed, use the returned result set instead.
+     */
+    ResultSet put(BoundStatement statement, ResultSet resultSet, long ttl, long generation) {
+        if (!resultSet.isFullyFetched()) {
+            return resultSet;
+        }
+        final CachedResultSet rows = CachedResultSet.copyOf(resultSet);
+        long size = 0;
+        for (Row row : rows.getRows()) {
+            for (int i = 0; i < row.size(); i++) {
+                final ByteBuffer value = row.getBytesUnsafe(i);
+                if (value != null) size += value.remaining();
+            }
+        }
+        final StatementKey key = new StatementKey(statement);
+        final Entry entry = new Entry(rows, size + key.size(), System.currentTimeMillis() + ttl);
+        if (entry.size <= maxBytes) {
+            synchronized (this) {
+                if (generation != this.generation) {
+                    return rows.replay();
+                }
+                remove(key);
+                entries.put(key, entry);
+                bytes += entry.size;
+                final Iterator<Entry> iterator = entries.values().iterator();
+                while ((entries.size() > maxEntries || bytes > maxBytes) && iterator.hasNext()) {
+                    bytes -= iterator.next().size;
+                    iterator.remove();
+                    evictions.incrementAndGet();
+                }
+            }
+        }
+        return rows.replay();
+    }
+
+    /**
+     * Invalidate the entries of the tables written by this CQL: INSERT, UPDATE, DELETE, TRUNCATE, DROP TABLE and ALTER TABLE,
+     * also inside batches.
+     */
+    void invalidate(String cql, String defaultKeyspace) {
+        for (String[] table : CqlStatementInfo.classify(cql).getWrittenTables()) {
+            invalidateTable(table[0] != null ? table[0] : defaultKeyspace, table[1]);
+        }
+    }
+
+    public synchronized void invalidateTable(String keyspace, String table) {
+        if (keyspace == null || ttlFor(keyspace, table) < 0) return;
+        final String ks = unquote(keyspace), tb = unquote(table);
+        generation++;
+        final Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            final Entry entry = iterator.next();
+            if (entry.keyspace.equals(ks) && entry.table.equals(tb)) {
+                bytes -= entry.size;
+                iterator.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    private void remove(StatementKey key) {
+        final Entry old = entries.remove(key);
+        if (old != null) bytes -= old.size;
+    }
+
+    /**
+     * Names are compared case insensitive, quoted or not.
+     */
+    private static String unquote(String name) {
+        if (name.length() > 1 && name.startsWith("\"") && name.endsWith("\"")) {
+            name = name.substring(1, name.length() - 1);
+        }
+        return name.toLowerCase(Locale.ENGLISH);
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEvictionCount() {
+        return evictions.get();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.get();
+    }
+
+    public double getHitRatio() {
+        final long h = hits.get(), total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getSizeInBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCache{entries=" + size() + ", bytes=" + getSizeInBytes() + ", hits=" + hits + ", misses=" + misses +
+                ", hitRatio=" + String.format(Locale.ENGLISH, "%.3f", getHitRatio()) + ", evictions=" + evictions + ", invalidations=" + invalidations + "}";
+    }
+
+    private static class Entry {
+        private final String keyspace;
+        private final String table;
+        private final CachedResultSet rows;
+        private final long size;
+        private final long expires;
+
+        Entry(CachedResultSet rows, long size, long expires) {
+            final ColumnDefinition first = rows.getColumnDefinitions().get(0);
+            this.keyspace = unquote(first.getKeyspace().asInternal());
+            this.table = unquote(first.getTable().asInternal());
+            this.rows = rows;
+            this.size = size;
+            this.expires = expires;
+        }
+
+        ResultSet replay() {
+            return rows.replay();
+        }
+    }
+}
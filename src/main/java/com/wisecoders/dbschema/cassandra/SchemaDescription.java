@@ -0,0 +1,149 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.*;
+import com.datastax.oss.driver.api.core.type.*;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * DESC SCHEMA and DESC KEYSPACE as one row per object instead of one string for the whole keyspace.
+ * The objects are listed in dependency order: keyspace, user defined types ( a type after the types used in its fields ),
+ * tables with their indexes, materialized views, functions and aggregates. The CQL of each object is built in parallel,
+ * the order of the rows is kept.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class SchemaDescription {
+
+    static final String[] COLUMNS = {"KEYSPACE", "CAT", "OBJECT", "DESC", "TYPE"};
+
+    private static final Set<String> SYSTEM_KEYSPACES = new HashSet<>(Arrays.asList(
+            "system", "system_schema", "system_auth", "system_distributed", "system_traces", "system_views", "system_virtual_schema"));
+
+    /**
+     * One object to describe. The CQL is computed later, in parallel with the other objects.
+     */
+    private static class Item {
+        private final String keyspace;
+        private final String name;
+        private final String type;
+        private final Supplier<String> cql;
+
+        Item(CqlIdentifier keyspace, String name, String type, Supplier<String> cql) {
+            this.keyspace = keyspace.asInternal();
+            this.name = name;
+            this.type = type;
+            this.cql = cql;
+        }
+
+        Object[] toRow() {
+            return new String[]{keyspace, null, name, cql.get(), type};
+        }
+    }
+
+    /**
+     * @return the rows of all keyspaces except the system keyspaces, sorted by keyspace name.
+     */
+    static List<Object[]> describeSchema(Metadata metadata) {
+        final List<KeyspaceMetadata> keyspaces = new ArrayList<>();
+        for (KeyspaceMetadata keyspace : metadata.getKeyspaces().values()) {
+            if (!SYSTEM_KEYSPACES.contains(keyspace.getName().asInternal())) {
+                keyspaces.add(keyspace);
+            }
+        }
+        keyspaces.sort(Comparator.comparing(keyspace -> keyspace.getName().asInternal()));
+        return describe(keyspaces);
+    }
+
+    static List<Object[]> describe(List<KeyspaceMetadata> keyspaces) {
+        final List<Item> items = new ArrayList<>();
+        for (KeyspaceMetadata keyspace : keyspaces) {
+            addItems(keyspace, items);
+        }
+        return items.parallelStream().map(Item::toRow).collect(Collectors.toList());
+    }
+
+    private static void addItems(KeyspaceMetadata keyspace, List<Item> items) {
+        final CqlIdentifier name = keyspace.getName();
+        items.add(new Item(name, name.asInternal(), "KEYSPACE", () -> keyspace.describe(true)));
+        for (UserDefinedType type : sortTypes(keyspace.getUserDefinedTypes().values())) {
+            items.add(new Item(name, type.getName().asInternal(), "TYPE", () -> type.describe(true)));
+        }
+        for (TableMetadata table : sorted(keyspace.getTables().values(), table -> table.getName().asInternal())) {
+            items.add(new Item(name, table.getName().asInternal(), "TABLE", () -> table.describeWithChildren(true)));
+        }
+        for (ViewMetadata view : sorted(keyspace.getViews().values(), view -> view.getName().asInternal())) {
+            items.add(new Item(name, view.getName().asInternal(), "MATERIALIZED VIEW", () -> view.describe(true)));
+        }
+        for (FunctionMetadata function : sorted(keyspace.getFunctions().values(), function -> function.getSignature().toString())) {
+            items.add(new Item(name, function.getSignature().getName().asInternal(), "FUNCTION", () -> function.describe(true)));
+        }
+        for (AggregateMetadata aggregate : sorted(keyspace.getAggregates().values(), aggregate -> aggregate.getSignature().toString())) {
+            items.add(new Item(name, aggregate.getSignature().getName().asInternal(), "AGGREGATE", () -> aggregate.describe(true)));
+        }
+    }
+
+    private static <T> List<T> sorted(Collection<T> values, Function<T, String> name) {
+        final List<T> list = new ArrayList<>(values);
+        list.sort(Comparator.comparing(name));
+        return list;
+    }
+
+    /**
+     * Sort the user defined types by name, moving each type after the types of the same keyspace used in its fields.
+     */
+    static List<UserDefinedType> sortTypes(Collection<UserDefinedType> types) {
+        final Map<CqlIdentifier, UserDefinedType> byName = new TreeMap<>(Comparator.comparing(CqlIdentifier::asInternal));
+        for (UserDefinedType type : types) {
+            byName.put(type.getName(), type);
+        }
+        final List<UserDefinedType> sorted = new ArrayList<>(byName.size());
+        final Set<CqlIdentifier> visited = new HashSet<>();
+        for (UserDefinedType type : byName.values()) {
+            visit(type, byName, visited, sorted);
+        }
+        return sorted;
+    }
+
+    private static void visit(UserDefinedType type, Map<CqlIdentifier, UserDefinedType> byName, Set<CqlIdentifier> visited, List<UserDefinedType> sorted) {
+        if (!visited.add(type.getName())) {
+            return;
+        }
+        final Set<CqlIdentifier> dependencies = new TreeSet<>(Comparator.comparing(CqlIdentifier::asInternal));
+        for (DataType fieldType : type.getFieldTypes()) {
+            collectTypes(fieldType, dependencies);
+        }
+        for (CqlIdentifier dependency : dependencies) {
+            final UserDefinedType dependencyType = byName.get(dependency);
+            if (dependencyType != null) {
+                visit(dependencyType, byName, visited, sorted);
+            }
+        }
+        sorted.add(type);
+    }
+
+    private static void collectTypes(DataType type, Set<CqlIdentifier> names) {
+        if (type instanceof UserDefinedType) {
+            names.add(((UserDefinedType) type).getName());
+        } else if (type instanceof ListType) {
+            collectTypes(((ListType) type).getElementType(), names);
+        } else if (type instanceof SetType) {
+            collectTypes(((SetType) type).getElementType(), names);
+        } else if (type instanceof MapType) {
+            collectTypes(((MapType) type).getKeyType(), names);
+            collectTypes(((MapType) type).getValueType(), names);
+        } else if (type instanceof TupleType) {
+            for (DataType component : ((TupleType) type).getComponentTypes()) {
+                collectTypes(component, names);
+            }
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.Row;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * On-disk copy of the MetadataCache rows, one file per cluster name, tagged with the schema version it was saved for.
+ * Enabled with the URL option schemacache=directory, or schemacache=true for the default directory in the user home.
+ * At connect, if the file matches the cluster schema version, the rows are preloaded and CassandraMetaData answers from them
+ * right away, while the driver loads the schema metadata in background. After the load the schema version is checked again,
+ * and the file is rewritten only if the schema has changed.
+ *
+ * The file is binary: a header, a table of the distinct strings, then the rows of each keyspace and table as string indexes.
+ * Catalog, table and type names repeat in almost every row, so the file is much smaller than the rows.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class SchemaFileCache {
+
+    static final File DEFAULT_DIRECTORY = new File(System.getProperty("user.home"), ".dbschema/cassandra/schema");
+
+    private static final int MAGIC = 0x43514C53;
+    private static final int FORMAT_VERSION = 1;
+    private static final String SCHEMA_VERSION_QUERY = "SELECT schema_version FROM system.local";
+
+    // the refresh queries the schema version and writes the file, so it must not run on the common pool or on a driver thread.
+    // One daemon thread for all sessions, stopped when idle.
+    private static final ThreadPoolExecutor REFRESH_EXECUTOR = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), runnable -> {
+                final Thread thread = new Thread(runnable, "cassandra-jdbc-schema-cache");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    private final File directory;
+
+    SchemaFileCache(File directory) {
+        this.directory = directory;
+    }
+
+    File getFile(String clusterName) {
+        return new File(directory, clusterName.replaceAll("[^A-Za-z0-9._-]", "_") + ".schema");
+    }
+
+    /**
+     * Preload the metadata cache from the file, if it matches the current schema version.
+     * @param schemaLoad starts the load of the driver schema metadata, after the rows are preloaded.
+     * @return completes after the file was checked against the loaded schema, and rewritten if needed.
+     */
+    CompletableFuture<Void> open(CqlSession session, MetadataCache metadataCache, Supplier<CompletionStage<?>> schemaLoad) {
+        final String clusterName = session.getMetadata().getClusterName().orElse("cluster");
+        final String schemaVersion = schemaVersion(session);
+        final File file = getFile(clusterName);
+        String loadedVersion = null;
+        if (schemaVersion != null && file.isFile()) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                final Map<CqlIdentifier, MetadataCache.KeyspaceRows> keyspaces = read(in, schemaVersion);
+                if (keyspaces != null) {
+                    metadataCache.preload(keyspaces);
+                    loadedVersion = schemaVersion;
+                    if (LOGGER.isLoggable(Level.INFO)) {
+                        LOGGER.info("Loaded schema metadata of " + keyspaces.size() + " keyspaces from " + file);
+                    }
+                }
+            } catch (IOException | RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Cannot read schema cache " + file, ex);
+            }
+        }
+        final CompletionStage<?> load = schemaLoad.get();
+        metadataCache.setSchemaLoad(load);
+        final String preloadedVersion = loadedVersion;
+        return load.toCompletableFuture()
+                .handle((metadata, ex) -> ex)
+                .thenAcceptAsync(ex -> {
+                    metadataCache.endPreload();
+                    if (ex == null) {
+                        refresh(session, metadataCache, file, preloadedVersion);
+                    }
+                }, REFRESH_EXECUTOR);
+    }
+
+    private void refresh(CqlSession session, MetadataCache metadataCache, File file, String preloadedVersion) {
+        try {
+            final String schemaVersion = schemaVersion(session);
+            if (schemaVersion == null || schemaVersion.equals(preloadedVersion)) {
+                return;
+            }
+            if (preloadedVersion != null) {
+                metadataCache.clear();
+            }
+            save(file, schemaVersion, metadataCache.snapshot());
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Cannot write schema cache " + file, ex);
+        }
+    }
+
+    private static String schemaVersion(CqlSession session) {
+        try {
+            final Row row = session.execute(SCHEMA_VERSION_QUERY).one();
+            return row == null || row.getUuid(0) == null ? null : row.getUuid(0).toString();
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.FINE, "Cannot read schema version", ex);
+            return null;
+        }
+    }
+
+    private void save(File file, String schemaVersion, Map<CqlIdentifier, MetadataCache.KeyspaceRows> keyspaces) throws IOException {
+        Files.createDirectories(directory.toPath());
+        final File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                write(out, schemaVersion, keyspaces);
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        if (LOGGER.isLoggable(Level.INFO)) {
+            LOGGER.info("Saved schema metadata of " + keyspaces.size() + " keyspaces to " + file);
+        }
+    }
+
+    static void write(DataOutputStream out, String schemaVersion, Map<CqlIdentifier, MetadataCache.KeyspaceRows> keyspaces) throws IOException {
+        final Map<String, Integer> strings = new LinkedHashMap<>();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream body = new DataOutputStream(bytes);
+        writeVarInt(body, keyspaces.size());
+        for (Map.Entry<CqlIdentifier, MetadataCache.KeyspaceRows> keyspace : keyspaces.entrySet()) {
+            writeString(body, strings, keyspace.getKey().asInternal());
+            writeRows(body, strings, keyspace.getValue().tables);
+            writeVarInt(body, keyspace.getValue().tableRows.size());
+            for (Map.Entry<CqlIdentifier, MetadataCache.TableRows> table : keyspace.getValue().tableRows.entrySet()) {
+                writeString(body, strings, table.getKey().asInternal());
+                writeRows(body, strings, table.getValue().columns);
+                writeRows(body, strings, table.getValue().primaryKeys);
+                writeRows(body, strings, table.getValue().indexInfo);
+            }
+        }
+        body.flush();
+
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(schemaVersion);
+        writeVarInt(out, strings.size());
+        for (String string : strings.keySet()) {
+            final byte[] utf8 = string.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(out, utf8.length);
+            out.write(utf8);
+        }
+        bytes.writeTo(out);
+    }
+
+    /**
+     * @return the rows, or null if the file was saved for another schema version or by another format version.
+     */
+    static Map<CqlIdentifier, MetadataCache.KeyspaceRows> read(DataInputStream in, String schemaVersion) throws IOException {
+        if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !schemaVersion.equals(in.readUTF())) {
+            return null;
+        }
+        final String[] strings = new String[readVarInt(in)];
+        for (int i = 0; i < strings.length; i++) {
+            final byte[] utf8 = new byte[readVarInt(in)];
+            in.readFully(utf8);
+            strings[i] = new String(utf8, StandardCharsets.UTF_8);
+        }
+        final int keyspaceCount = readVarInt(in);
+        final Map<CqlIdentifier, MetadataCache.KeyspaceRows> keyspaces = new LinkedHashMap<>(keyspaceCount * 2);
+        for (int i = 0; i < keyspaceCount; i++) {
+            final CqlIdentifier keyspace = CqlIdentifier.fromInternal(readString(in, strings));
+            final List<Object[]> tables = readRows(in, strings);
+            final int tableCount = readVarInt(in);
+            final Map<CqlIdentifier, MetadataCache.TableRows> tableRows = new LinkedHashMap<>(tableCount * 2);
+            for (int j = 0; j < tableCount; j++) {
+                final CqlIdentifier table = CqlIdentifier.fromInternal(readString(in, strings));
+                tableRows.put(table, new MetadataCache.TableRows(readRows(in, strings), readRows(in, strings), readRows(in, strings)));
+            }
+            keyspaces.put(keyspace, new MetadataCache.KeyspaceRows(tables, tableRows));
+        }
+        return keyspaces;
+    }
+
+    private static void writeRows(DataOutputStream out, Map<String, Integer> strings, List<Object[]> rows) throws IOException {
+        writeVarInt(out, rows.size());
+        for (Object[] row : rows) {
+            writeVarInt(out, row.length);
+            for (Object value : row) {
+                writeString(out, strings, value == null ? null : value.toString());
+            }
+        }
+    }
+
+    private static List<Object[]> readRows(DataInputStream in, String[] strings) throws IOException {
+        final int count = readVarInt(in);
+        final List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String[] row = new String[readVarInt(in)];
+            for (int j = 0; j < row.length; j++) {
+                row[j] = readString(in, strings);
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    /**
+     * Strings are written as index in the string table plus one, zero is null.
+     */
+    private static void writeString(DataOutputStream out, Map<String, Integer> strings, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+        } else {
+            Integer index = strings.get(value);
+            if (index == null) {
+                index = strings.size();
+                strings.put(value, index);
+            }
+            writeVarInt(out, index + 1);
+        }
+    }
+
+    private static String readString(DataInputStream in, String[] strings) throws IOException {
+        final int index = readVarInt(in);
+        if (index > strings.length) {
+            throw new IOException("Invalid string index " + index);
+        }
+        return index == 0 ? null : strings[index - 1];
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            final int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid variable length integer");
+    }
+
+    @Override
+    public String toString() {
+        return "SchemaFileCache{" + directory + "}";
+    }
+}
@@ -0,0 +1,100 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The CqlSession together with the state derived from it: the metadata rows cache, the node versions, the table size estimates,
+ * the statement latency histograms and the driver metrics.
+ * With the schemacache option the metadata rows are preloaded from disk and the driver schema metadata is loaded in background.
+ * Their listeners are registered when the session is built. Each connection opens its own session, and with it its own context.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class SessionContext {
+
+    private final CqlSession session;
+    private final MetadataCache metadataCache;
+    private final ClusterVersions clusterVersions;
+    private final SizeEstimates sizeEstimates;
+    private final StatementMetrics statementMetrics = new StatementMetrics();
+    private final SessionMetrics sessionMetrics;
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    private SessionContext(CqlSession session, MetadataCache metadataCache, ClusterVersions clusterVersions, SizeEstimates sizeEstimates) {
+        this.session = session;
+        this.metadataCache = metadataCache;
+        this.clusterVersions = clusterVersions;
+        this.sizeEstimates = sizeEstimates;
+        statementMetrics.register(session.getName());
+        this.sessionMetrics = session.getMetrics().map(SessionMetrics::new).orElse(null);
+        if (sessionMetrics != null) {
+            sessionMetrics.register(session.getName());
+        }
+    }
+
+    static SessionContext open(CassandraClientURI clientURI) throws IOException, GeneralSecurityException {
+        final MetadataCache metadataCache = new MetadataCache();
+        final ClusterVersions clusterVersions = new ClusterVersions();
+        final CqlSession session = clientURI.createCqlSession(metadataCache, clusterVersions);
+        metadataCache.setSession(session);
+        clusterVersions.setSession(session);
+        final SchemaFileCache schemaFileCache = clientURI.createSchemaFileCache();
+        if (schemaFileCache != null) {
+            final boolean deferred = clientURI.isSchemaLoadDeferred();
+            schemaFileCache.open(session, metadataCache,
+                    () -> deferred ? session.setSchemaMetadataEnabled(true) : CompletableFuture.completedFuture(session.getMetadata()));
+        }
+        return new SessionContext(session, metadataCache, clusterVersions, new SizeEstimates(clientURI.getStatsTtl()));
+    }
+
+    CqlSession getSession() {
+        return session;
+    }
+
+    MetadataCache getMetadataCache() {
+        return metadataCache;
+    }
+
+    ClusterVersions getClusterVersions() {
+        return clusterVersions;
+    }
+
+    SizeEstimates getSizeEstimates() {
+        return sizeEstimates;
+    }
+
+    StatementMetrics getStatementMetrics() {
+        return statementMetrics;
+    }
+
+    SessionMetrics getSessionMetrics() {
+        return sessionMetrics;
+    }
+
+    /**
+     * Unregister the MBeans and close the session. Only the first call closes the session, a later call with force set
+     * force-closes a session still closing.
+     * @param force if true the in-flight requests are cancelled, otherwise the session waits for them.
+     * @return completed when the session is closed.
+     */
+    CompletionStage<Void> close(boolean force) {
+        if (closed.compareAndSet(false, true)) {
+            statementMetrics.unregister();
+            if (sessionMetrics != null) {
+                sessionMetrics.unregister();
+            }
+        } else if (!force) {
+            return session.closeFuture();
+        }
+        return force ? session.forceCloseAsync() : session.closeAsync();
+    }
+}
@@ -0,0 +1,158 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.codahale.metrics.*;
+import com.datastax.oss.driver.api.core.metrics.Metrics;
+
+import javax.management.*;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The DataStax driver session and node metrics enabled with the sessionmetrics and nodemetrics URL options,
+ * like sessionmetrics=cql-requests,bytes-sent&nodemetrics=pool.in-flight,pool.open-connections or sessionmetrics=all.
+ * Published over JMX as com.wisecoders.dbschema.cassandra:type=DriverMetrics,session=name of the session, one attribute per value:
+ * counters and gauges by their metric name, meters as name.count and name.m1-rate, timers as name.count, name.mean-ms,
+ * name.p50-ms, name.p99-ms and name.max-ms. The driver Metrics and the Dropwizard MetricRegistry can be reached with unwrap().
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SessionMetrics implements DynamicMBean {
+
+    private final Metrics metrics;
+    private ObjectName objectName;
+
+    SessionMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Metrics getDriverMetrics() {
+        return metrics;
+    }
+
+    public MetricRegistry getRegistry() {
+        return metrics.getRegistry();
+    }
+
+    /**
+     * @return the current values, by attribute name.
+     */
+    public Map<String, Object> getValues() {
+        final Map<String, Object> values = new TreeMap<>();
+        for (Map.Entry<String, Metric> entry : metrics.getRegistry().getMetrics().entrySet()) {
+            addValues(values, entry.getKey(), entry.getValue());
+        }
+        return values;
+    }
+
+    private static void addValues(Map<String, Object> values, String name, Metric metric) {
+        if (metric instanceof Gauge) {
+            final Object value = ((Gauge<?>) metric).getValue();
+            values.put(name, value instanceof Number || value instanceof Boolean ? value : String.valueOf(value));
+        } else if (metric instanceof Counter) {
+            values.put(name, ((Counter) metric).getCount());
+        } else if (metric instanceof Timer) {
+            // the driver timers record nanoseconds
+            final Snapshot snapshot = ((Timer) metric).getSnapshot();
+            values.put(name + ".count", ((Timer) metric).getCount());
+            values.put(name + ".mean-ms", nanosToMillis(snapshot.getMean()));
+            values.put(name + ".p50-ms", nanosToMillis(snapshot.getMedian()));
+            values.put(name + ".p99-ms", nanosToMillis(snapshot.get99thPercentile()));
+            values.put(name + ".max-ms", nanosToMillis(snapshot.getMax()));
+        } else if (metric instanceof Meter) {
+            values.put(name + ".count", ((Meter) metric).getCount());
+            values.put(name + ".m1-rate", ((Meter) metric).getOneMinuteRate());
+        } else if (metric instanceof Histogram) {
+            final Snapshot snapshot = ((Histogram) metric).getSnapshot();
+            values.put(name + ".count", ((Histogram) metric).getCount());
+            values.put(name + ".p50", snapshot.getMedian());
+            values.put(name + ".p99", snapshot.get99thPercentile());
+            values.put(name + ".max", snapshot.getMax());
+        }
+    }
+
+    private static double nanosToMillis(double nanos) {
+        return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return (T) this;
+        } else if (iface.isInstance(metrics)) {
+            return (T) metrics;
+        } else if (iface.isInstance(metrics.getRegistry())) {
+            return (T) metrics.getRegistry();
+        }
+        throw new SQLException("SessionMetrics is not a wrapper for " + iface.getName());
+    }
+
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this) || iface.isInstance(metrics) || iface.isInstance(metrics.getRegistry());
+    }
+
+    synchronized void register(String sessionName) {
+        objectName = JmxUtil.register(this, "DriverMetrics", sessionName);
+    }
+
+    synchronized void unregister() {
+        JmxUtil.unregister(objectName);
+        objectName = null;
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        final Object value = getValues().get(attribute);
+        if (value == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        return value;
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        final Map<String, Object> values = getValues();
+        final AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            if (values.containsKey(attribute)) {
+                list.add(new Attribute(attribute, values.get(attribute)));
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException("Driver metrics are read-only");
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws MBeanException {
+        throw new MBeanException(new UnsupportedOperationException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        final Map<String, Object> values = getValues();
+        final MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[values.size()];
+        int i = 0;
+        for (Map.Entry<String, Object> entry : values.entrySet()) {
+            attributes[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(), entry.getKey(), true, false, false);
+        }
+        return new MBeanInfo(getClass().getName(), "DataStax driver metrics of the session", attributes, null, null, null);
+    }
+
+    @Override
+    public String toString() {
+        return "SessionMetrics{metrics=" + metrics.getRegistry().getMetrics().size() + "}";
+    }
+}
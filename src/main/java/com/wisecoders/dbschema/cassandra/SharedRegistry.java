@@ -0,0 +1,48 @@
+package com.wisecoders.dbschema.cassandra;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Objects shared by the connections opened with the same key, usually the URL and user. Each connection acquires the object
+ * when it is opened and releases it when it is closed, the object is dropped with the last release.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class SharedRegistry<T> {
+
+    private static class Shared<T> {
+        private final T value;
+        private int references;
+
+        Shared(T value) {
+            this.value = value;
+        }
+    }
+
+    private final Map<String, Shared<T>> shared = new HashMap<>();
+
+    /**
+     * @return the object registered with the key, created with the factory if there is none.
+     */
+    synchronized T acquire(String key, Supplier<T> factory) {
+        final Shared<T> entry = shared.computeIfAbsent(key, k -> new Shared<>(factory.get()));
+        entry.references++;
+        return entry.value;
+    }
+
+    synchronized void release(String key) {
+        final Shared<T> entry = shared.get(key);
+        if (entry != null && --entry.references <= 0) {
+            shared.remove(key);
+        }
+    }
+
+    synchronized int size() {
+        return shared.size();
+    }
+}
@@ -0,0 +1,341 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+
+/**
+ * Table size estimates from system.size_estimates. Each node keeps there the estimates for its own token ranges.
+ * The table is read from every node in parallel, and the sum is scaled by the fraction of the Murmur3 token ring covered
+ * by the ranges, so ranges reported by several replicas or by no node do not bias the result.
+ * Estimates are cached per table for statsttl milliseconds ( default 5 minutes ).
+ * The estimates of several tables of a keyspace are loaded together, with one query per node for the whole keyspace.
+ * Use them with CassandraConnection.getTableStats() or with the pseudo-command SHOW STATS keyspace.table .
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SizeEstimates {
+
+    static final long DEFAULT_TTL_MILLIS = 5 * 60 * 1000;
+    static final int PAGE_SIZE = 4096;
+
+    private static final String KEYSPACE_QUERY = "SELECT table_name, range_start, range_end, partitions_count, mean_partition_size FROM system.size_estimates WHERE keyspace_name = ?";
+    private static final String TABLE_QUERY = KEYSPACE_QUERY + " AND table_name = ?";
+    private static final double RING_SIZE = Math.pow(2, 64);
+
+    private final ConcurrentHashMap<String, Estimate> cache = new ConcurrentHashMap<>();
+    private final long ttlMillis;
+
+    public SizeEstimates(long ttlMillis) {
+        this.ttlMillis = ttlMillis;
+    }
+
+    public static class Estimate {
+        private final long partitions;
+        private final long meanPartitionSize;
+        private final int ranges;
+        private final int nodes;
+        private final long loadedAt;
+
+        Estimate(long partitions, long meanPartitionSize, int ranges, int nodes, long loadedAt) {
+            this.partitions = partitions;
+            this.meanPartitionSize = meanPartitionSize;
+            this.ranges = ranges;
+            this.nodes = nodes;
+            this.loadedAt = loadedAt;
+        }
+
+        /**
+         * @return the estimated number of partitions in the cluster, not counting replicas.
+         */
+        public long getPartitions() {
+            return partitions;
+        }
+
+        public long getMeanPartitionSize() {
+            return meanPartitionSize;
+        }
+
+        public long getSizeInBytes() {
+            return partitions * meanPartitionSize;
+        }
+
+        /**
+         * @return the estimated data size in pages of PAGE_SIZE bytes, as reported in the PAGES column of getIndexInfo().
+         */
+        public long getPages() {
+            return (getSizeInBytes() + PAGE_SIZE - 1) / PAGE_SIZE;
+        }
+
+        /**
+         * @return the number of token ranges the estimate was computed from.
+         */
+        public int getRanges() {
+            return ranges;
+        }
+
+        /**
+         * @return the number of nodes which answered with their estimates.
+         */
+        public int getNodes() {
+            return nodes;
+        }
+
+        public long getLoadedAt() {
+            return loadedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "Estimate{partitions=" + partitions + ", meanPartitionSize=" + meanPartitionSize + ", ranges=" + ranges + ", nodes=" + nodes + "}";
+        }
+    }
+
+    /**
+     * Sum of the size_estimates rows of one table, from one or more nodes.
+     */
+    private static class Accumulator {
+        private double partitions, bytes, ringCovered;
+        private int ranges;
+        private boolean tokensKnown = true;
+
+        void add(Row row) {
+            final long count = row.getLong(3);
+            partitions += count;
+            bytes += (double) count * row.getLong(4);
+            ranges++;
+            if (tokensKnown) {
+                final double width = rangeWidth(row.getString(1), row.getString(2));
+                if (width < 0) {
+                    tokensKnown = false;
+                } else {
+                    ringCovered += width;
+                }
+            }
+        }
+
+        void add(Accumulator node) {
+            partitions += node.partitions;
+            bytes += node.bytes;
+            ringCovered += node.ringCovered;
+            ranges += node.ranges;
+            tokensKnown &= node.tokensKnown;
+        }
+
+        Estimate toEstimate(int nodes, long now) {
+            if (ranges == 0) {
+                return new Estimate(0, 0, 0, nodes, now);
+            }
+            final long meanPartitionSize = partitions == 0 ? 0 : Math.round(bytes / partitions);
+            final double scale = tokensKnown && ringCovered > 0 ? RING_SIZE / ringCovered : 1;
+            return new Estimate(Math.round(partitions * scale), meanPartitionSize, ranges, nodes, now);
+        }
+    }
+
+    /**
+     * The size_estimates rows of a keyspace by table, from one or more nodes.
+     */
+    private static class KeyspaceAccumulator {
+        private final Map<String, Accumulator> tables = new HashMap<>();
+        private int nodes;
+
+        void add(Row row) {
+            tables.computeIfAbsent(row.getString(0), table -> new Accumulator()).add(row);
+        }
+
+        synchronized void add(KeyspaceAccumulator node) {
+            for (Map.Entry<String, Accumulator> entry : node.tables.entrySet()) {
+                tables.computeIfAbsent(entry.getKey(), table -> new Accumulator()).add(entry.getValue());
+            }
+            nodes++;
+        }
+
+        synchronized Map<String, Estimate> toEstimates() {
+            final long now = System.currentTimeMillis();
+            final Map<String, Estimate> estimates = new HashMap<>();
+            for (Map.Entry<String, Accumulator> entry : tables.entrySet()) {
+                estimates.put(entry.getKey(), entry.getValue().toEstimate(nodes, now));
+            }
+            return estimates;
+        }
+
+        synchronized Estimate empty() {
+            return new Estimate(0, 0, 0, nodes, System.currentTimeMillis());
+        }
+    }
+
+    /**
+     * @param approximate if true a cached estimate younger than the TTL is returned, otherwise the estimate is reloaded.
+     * @return the estimate, or an estimate with zero partitions if the table has no estimates or system.size_estimates cannot be read.
+     */
+    public Estimate get(CqlSession session, String keyspace, String table, boolean approximate) {
+        return getAsync(session, keyspace, table, approximate).toCompletableFuture().join();
+    }
+
+    public CompletionStage<Estimate> getAsync(CqlSession session, String keyspace, String table, boolean approximate) {
+        final Estimate cached = approximate ? getCached(keyspace, table) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return load(session, keyspace, table).thenApply(loaded -> {
+            final Estimate estimate = loaded.getOrDefault(table, loaded.get(null));
+            cache.put(keyspace + '.' + table, estimate);
+            return estimate;
+        });
+    }
+
+    /**
+     * Estimates of several tables of one keyspace, by table name in the order of the tables.
+     * If one of them has to be loaded, the estimates of the whole keyspace are read with one query per node.
+     * @param approximate if true the cached estimates younger than the TTL are returned, otherwise the estimates are reloaded.
+     */
+    public Map<String, Estimate> getAll(CqlSession session, String keyspace, Collection<String> tables, boolean approximate) {
+        return getAllAsync(session, keyspace, tables, approximate).toCompletableFuture().join();
+    }
+
+    public CompletionStage<Map<String, Estimate>> getAllAsync(CqlSession session, String keyspace, Collection<String> tables, boolean approximate) {
+        final Map<String, Estimate> cachedEstimates = new LinkedHashMap<>();
+        for (String table : tables) {
+            final Estimate cached = approximate ? getCached(keyspace, table) : null;
+            if (cached == null) {
+                return load(session, keyspace, null).thenApply(loaded -> {
+                    final Map<String, Estimate> estimates = new LinkedHashMap<>();
+                    for (String name : tables) {
+                        estimates.put(name, loaded.getOrDefault(name, loaded.get(null)));
+                    }
+                    loaded.remove(null);
+                    loaded.forEach((name, estimate) -> cache.put(keyspace + '.' + name, estimate));
+                    estimates.forEach((name, estimate) -> cache.put(keyspace + '.' + name, estimate));
+                    return estimates;
+                });
+            }
+            cachedEstimates.put(table, cached);
+        }
+        return CompletableFuture.completedFuture(cachedEstimates);
+    }
+
+    private Estimate getCached(String keyspace, String table) {
+        final Estimate cached = cache.get(keyspace + '.' + table);
+        return cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMillis ? cached : null;
+    }
+
+    public void clear() {
+        cache.clear();
+    }
+
+    /**
+     * Read system.size_estimates from every node which is up, in parallel. If no node answers, the coordinator rows are used.
+     * @param table the table, or null for all tables of the keyspace.
+     * @return the estimates by table name. The null key holds the estimate for tables without rows.
+     */
+    static CompletionStage<Map<String, Estimate>> load(CqlSession session, String keyspace, String table) {
+        final KeyspaceAccumulator total = new KeyspaceAccumulator();
+        final List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (Node node : session.getMetadata().getNodes().values()) {
+            if (node.getState() != NodeState.UP) {
+                continue;
+            }
+            futures.add(read(session, statement(keyspace, table).setNode(node))
+                    .thenAccept(total::add)
+                    .exceptionally(ex -> {
+                        if (LOGGER.isLoggable(Level.FINE)) {
+                            LOGGER.log(Level.FINE, "Cannot read size estimates of " + describe(keyspace, table) + " from " + node.getEndPoint(), ex);
+                        }
+                        return null;
+                    })
+                    .toCompletableFuture());
+        }
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenCompose(done -> {
+            if (total.nodes > 0) {
+                return CompletableFuture.completedFuture(total);
+            }
+            return read(session, statement(keyspace, table))
+                    .thenApply(coordinator -> {
+                        total.add(coordinator);
+                        return total;
+                    })
+                    .exceptionally(ex -> {
+                        if (LOGGER.isLoggable(Level.FINE)) {
+                            LOGGER.log(Level.FINE, "Cannot read size estimates of " + describe(keyspace, table), ex);
+                        }
+                        return total;
+                    });
+        }).thenApply(accumulator -> {
+            final Map<String, Estimate> estimates = accumulator.toEstimates();
+            estimates.put(null, accumulator.empty());
+            return estimates;
+        });
+    }
+
+    private static SimpleStatement statement(String keyspace, String table) {
+        return table == null ? SimpleStatement.newInstance(KEYSPACE_QUERY, keyspace) : SimpleStatement.newInstance(TABLE_QUERY, keyspace, table);
+    }
+
+    private static String describe(String keyspace, String table) {
+        return table == null ? keyspace : keyspace + "." + table;
+    }
+
+    private static CompletionStage<KeyspaceAccumulator> read(CqlSession session, SimpleStatement statement) {
+        final CompletionStage<AsyncResultSet> resultSet;
+        try {
+            resultSet = session.executeAsync(statement);
+        } catch (RuntimeException ex) {
+            final CompletableFuture<KeyspaceAccumulator> failed = new CompletableFuture<>();
+            failed.completeExceptionally(ex);
+            return failed;
+        }
+        return resultSet.thenCompose(first -> readAll(first, new KeyspaceAccumulator()));
+    }
+
+    private static CompletionStage<KeyspaceAccumulator> readAll(AsyncResultSet resultSet, KeyspaceAccumulator accumulator) {
+        for (Row row : resultSet.currentPage()) {
+            accumulator.add(row);
+        }
+        if (resultSet.hasMorePages()) {
+            return resultSet.fetchNextPage().thenCompose(next -> readAll(next, accumulator));
+        }
+        return CompletableFuture.completedFuture(accumulator);
+    }
+
+    /**
+     * @return the width of a Murmur3 token range, or -1 if the tokens are not Murmur3 tokens.
+     */
+    static double rangeWidth(String start, String end) {
+        try {
+            final long from = Long.parseLong(start.trim());
+            final long to = Long.parseLong(end.trim());
+            double width = (double) to - (double) from;
+            if (width <= 0) {
+                width += RING_SIZE;
+            }
+            return width;
+        } catch (NumberFormatException | NullPointerException ex) {
+            return -1;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.ENGLISH, "SizeEstimates{tables=%d, ttl=%dms}", cache.size(), ttlMillis);
+    }
+}
@@ -0,0 +1,146 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.session.Request;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Log of the statements slower than the slowquerythreshold URL option, in milliseconds. The time is measured from the execution
+ * until the result set is exhausted or closed, so it includes the fetch of all pages. Each entry has the elapsed time, the page
+ * and row count, the coordinator, the fingerprint, the CQL and the bound values, redacted to their CQL type and size.
+ * The statements only add the entry to a bounded queue, a daemon thread formats and writes them to the SlowQueryLog logger
+ * at WARNING level. The logger is not the JdbcDriver logger, configure its handlers with java.util.logging.
+ * When the queue is full the entries are dropped and counted.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class SlowQueryLog {
+
+    static final Logger SLOW_QUERY_LOGGER = Logger.getLogger(SlowQueryLog.class.getName());
+
+    private static final int QUEUE_SIZE = 1024;
+    private static final int MAX_CQL_LENGTH = 2000;
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_SIZE);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static Thread writer;
+
+    private final long thresholdNanos;
+
+    SlowQueryLog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    static class Entry {
+        final String cql;
+        final String fingerprint;
+        final long elapsedNanos;
+        final long rows;
+        final int pages;
+        final ExecutionInfo executionInfo;
+
+        Entry(String cql, String fingerprint, long elapsedNanos, long rows, int pages, ExecutionInfo executionInfo) {
+            this.cql = cql;
+            this.fingerprint = fingerprint;
+            this.elapsedNanos = elapsedNanos;
+            this.rows = rows;
+            this.pages = pages;
+            this.executionInfo = executionInfo;
+        }
+
+        String format() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(String.format(Locale.ENGLISH, "Slow query %.1f ms, %d pages, %d rows", elapsedNanos / 1e6, pages, rows));
+            final Node coordinator = executionInfo != null ? executionInfo.getCoordinator() : null;
+            if (coordinator != null) {
+                sb.append(", coordinator ").append(coordinator.getEndPoint());
+            }
+            sb.append("\n  fingerprint: ").append(fingerprint);
+            sb.append("\n  cql: ").append(cql.length() > MAX_CQL_LENGTH ? cql.substring(0, MAX_CQL_LENGTH) + "..." : cql);
+            final Request request = executionInfo != null ? executionInfo.getRequest() : null;
+            if (request instanceof BoundStatement) {
+                sb.append("\n  values: ").append(redactValues((BoundStatement) request));
+            }
+            return sb.toString();
+        }
+    }
+
+    boolean isSlow(long elapsedNanos) {
+        return elapsedNanos >= thresholdNanos;
+    }
+
+    /**
+     * Queue the entry for the writer thread. Never blocks.
+     */
+    void offer(Entry entry) {
+        startWriter();
+        if (!queue.offer(entry)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private static synchronized void startWriter() {
+        if (writer == null) {
+            writer = new Thread(SlowQueryLog::write, "cassandra-jdbc-slow-query-log");
+            writer.setDaemon(true);
+            writer.start();
+        }
+    }
+
+    private static void write() {
+        while (true) {
+            try {
+                final Entry entry = queue.take();
+                final long droppedEntries = dropped.getAndSet(0);
+                if (droppedEntries > 0) {
+                    SLOW_QUERY_LOGGER.warning(droppedEntries + " slow queries were not logged, the log queue was full");
+                }
+                if (SLOW_QUERY_LOGGER.isLoggable(Level.WARNING)) {
+                    SLOW_QUERY_LOGGER.warning(entry.format());
+                }
+            } catch (InterruptedException ex) {
+                return;
+            } catch (RuntimeException ex) {
+                SLOW_QUERY_LOGGER.log(Level.FINE, "Cannot log slow query", ex);
+            }
+        }
+    }
+
+    /**
+     * @return the bound values as name type(size), without the values themselves.
+     */
+    static String redactValues(BoundStatement statement) {
+        final StringBuilder sb = new StringBuilder("[");
+        int i = 0;
+        for (ColumnDefinition variable : statement.getPreparedStatement().getVariableDefinitions()) {
+            if (i > 0) sb.append(", ");
+            sb.append(variable.getName().asCql(true)).append(' ').append(variable.getType().asCql(false, true));
+            if (!statement.isSet(i)) {
+                sb.append(" unset");
+            } else {
+                final ByteBuffer bytes = statement.getBytesUnsafe(i);
+                sb.append(bytes == null ? " null" : "(" + bytes.remaining() + " bytes)");
+            }
+            i++;
+        }
+        return sb.append(']').toString();
+    }
+
+    @Override
+    public String toString() {
+        return "SlowQueryLog{threshold=" + TimeUnit.NANOSECONDS.toMillis(thresholdNanos) + "ms}";
+    }
+}
@@ -0,0 +1,66 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Identity of a bound statement execution: the prepared statement id, the serialized bound values, the consistency level
+ * and the page size. Two executions with equal keys return the same rows, if the data did not change in between.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class StatementKey {
+    private final ByteBuffer statementId;
+    private final List<ByteBuffer> values;
+    private final ConsistencyLevel consistencyLevel;
+    private final int pageSize;
+    private final int hash;
+
+    StatementKey(BoundStatement statement) {
+        this.statementId = statement.getPreparedStatement().getId();
+        // values bound from pooled stream buffers are reused after execution, keep a copy of them
+        final List<ByteBuffer> values = new ArrayList<>(statement.getValues());
+        for (int i = 0; i < values.size(); i++) {
+            final ByteBuffer value = values.get(i);
+            if (value != null && value.isDirect()) {
+                final ByteBuffer copy = ByteBuffer.allocate(value.remaining());
+                copy.put(value.duplicate()).flip();
+                values.set(i, copy);
+            }
+        }
+        this.values = values;
+        this.consistencyLevel = statement.getConsistencyLevel();
+        this.pageSize = statement.getPageSize();
+        this.hash = 31 * (31 * (31 * statementId.hashCode() + values.hashCode()) + Objects.hashCode(consistencyLevel)) + pageSize;
+    }
+
+    long size() {
+        long size = statementId.remaining();
+        for (ByteBuffer value : values) {
+            if (value != null) size += value.remaining();
+        }
+        return size;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof StatementKey)) return false;
+        final StatementKey key = (StatementKey) o;
+        return hash == key.hash && pageSize == key.pageSize && Objects.equals(consistencyLevel, key.consistencyLevel) &&
+                statementId.equals(key.statementId) && values.equals(key.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
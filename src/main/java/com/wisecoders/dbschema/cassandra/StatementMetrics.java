@@ -0,0 +1,202 @@
+package com.wisecoders.dbschema.cassandra;
+
+import javax.management.ObjectName;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Statistics of the statements executed on a session, per CqlFingerprint, like pg_stat_statements: calls, rows, total and max time,
+ * errors, timeouts and response bytes, plus latency histograms per phase:
+ * execute is the time until the driver returns the first page, first-row the time until ResultSet.next() returns the first row,
+ * including decoding in the JDBC layer, and page-fetch the time next() waits for each of the following pages.
+ * The histograms are kept per session and published over JMX, see StatementMetricsMXBean.
+ * The counters can be queried with SELECT * FROM jdbc_stats.statements, see CassandraConnection.executeStatementStatsQuery().
+ * At most MAX_FINGERPRINTS fingerprints are kept, the statements above are counted under OTHER.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class StatementMetrics implements StatementMetricsMXBean {
+
+    static final int MAX_FINGERPRINTS = 1000;
+    static final String OTHER = "<other>";
+
+    /**
+     * Histograms and counters of one fingerprint. The counters are LongAdders, striped per thread under contention.
+     */
+    public static class Stats {
+        private final LatencyHistogram execute = new LatencyHistogram();
+        private final LatencyHistogram firstRow = new LatencyHistogram();
+        private final LatencyHistogram pageFetch = new LatencyHistogram();
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder timeouts = new LongAdder();
+        private final LongAdder bytes = new LongAdder();
+
+        public LatencyHistogram getExecute() {
+            return execute;
+        }
+
+        public LatencyHistogram getFirstRow() {
+            return firstRow;
+        }
+
+        public LatencyHistogram getPageFetch() {
+            return pageFetch;
+        }
+
+        public long getCalls() {
+            return calls.sum();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        /**
+         * @return the total time of the executions, each measured until its result set was exhausted or closed.
+         */
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        public long getMaxNanos() {
+            return maxNanos.get();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public long getTimeouts() {
+            return timeouts.sum();
+        }
+
+        /**
+         * @return the size of the responses received, as reported by the driver.
+         */
+        public long getBytes() {
+            return bytes.sum();
+        }
+
+        void recordFinished(long rowCount, long elapsedNanos, long responseBytes) {
+            calls.increment();
+            rows.add(rowCount);
+            totalNanos.add(elapsedNanos);
+            bytes.add(responseBytes);
+            long current = maxNanos.get();
+            while (elapsedNanos > current && !maxNanos.compareAndSet(current, elapsedNanos)) {
+                current = maxNanos.get();
+            }
+        }
+
+        void recordFailed(long elapsedNanos, boolean timeout) {
+            calls.increment();
+            errors.increment();
+            if (timeout) {
+                timeouts.increment();
+            }
+            totalNanos.add(elapsedNanos);
+        }
+
+        void reset() {
+            execute.reset();
+            firstRow.reset();
+            pageFetch.reset();
+            calls.reset();
+            rows.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            errors.reset();
+            timeouts.reset();
+            bytes.reset();
+        }
+    }
+
+    private final ConcurrentHashMap<String, Stats> stats = new ConcurrentHashMap<>();
+    private ObjectName objectName;
+
+    /**
+     * @return the statistics of the fingerprint, created if missing.
+     */
+    public Stats get(String fingerprint) {
+        Stats value = stats.get(fingerprint);
+        if (value == null) {
+            value = stats.computeIfAbsent(stats.size() < MAX_FINGERPRINTS ? fingerprint : OTHER, key -> new Stats());
+        }
+        return value;
+    }
+
+    /**
+     * Start timing the execution of a statement.
+     */
+    StatementTimer start(String cql, SlowQueryLog slowQueryLog) {
+        return start(cql, slowQueryLog, null);
+    }
+
+    /**
+     * @param done called once, with true when the statement is finished or false when it failed, or null.
+     */
+    StatementTimer start(String cql, SlowQueryLog slowQueryLog, Consumer<Boolean> done) {
+        final String fingerprint = CqlFingerprint.of(cql);
+        return new StatementTimer(get(fingerprint), cql, fingerprint, slowQueryLog, done);
+    }
+
+    public Map<String, Stats> getAll() {
+        return stats;
+    }
+
+    @Override
+    public int getFingerprintCount() {
+        return stats.size();
+    }
+
+    @Override
+    public LatencySummary[] getLatencies() {
+        final List<LatencySummary> summaries = new ArrayList<>();
+        for (Map.Entry<String, Stats> entry : stats.entrySet()) {
+            add(summaries, entry.getKey(), "execute", entry.getValue().execute);
+            add(summaries, entry.getKey(), "first-row", entry.getValue().firstRow);
+            add(summaries, entry.getKey(), "page-fetch", entry.getValue().pageFetch);
+        }
+        return summaries.toArray(new LatencySummary[0]);
+    }
+
+    private static void add(List<LatencySummary> summaries, String fingerprint, String phase, LatencyHistogram histogram) {
+        if (histogram.getCount() > 0) {
+            summaries.add(new LatencySummary(fingerprint, phase, histogram));
+        }
+    }
+
+    @Override
+    public void reset() {
+        for (Stats value : stats.values()) {
+            value.reset();
+        }
+        stats.clear();
+    }
+
+    synchronized void register(String sessionName) {
+        objectName = JmxUtil.register(this, "StatementMetrics", sessionName);
+    }
+
+    synchronized void unregister() {
+        JmxUtil.unregister(objectName);
+        objectName = null;
+    }
+
+    @Override
+    public String toString() {
+        return "StatementMetrics{fingerprints=" + stats.size() + "}";
+    }
+}
@@ -0,0 +1,22 @@
+package com.wisecoders.dbschema.cassandra;
+
+/**
+ * JMX view of the StatementMetrics of a session, registered as
+ * com.wisecoders.dbschema.cassandra:type=StatementMetrics,session=name of the session.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public interface StatementMetricsMXBean {
+
+    int getFingerprintCount();
+
+    /**
+     * @return one summary per fingerprint and phase, for the phases with recorded values.
+     */
+    LatencySummary[] getLatencies();
+
+    void reset();
+}
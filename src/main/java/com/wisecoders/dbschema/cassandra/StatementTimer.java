@@ -0,0 +1,122 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.servererrors.ReadTimeoutException;
+import com.datastax.oss.driver.api.core.servererrors.WriteTimeoutException;
+import com.datastax.oss.driver.api.core.session.Request;
+
+import java.util.function.Consumer;
+
+/**
+ * Times one execution of a statement into the StatementMetrics histograms and counters of its fingerprint,
+ * passes it to the SlowQueryLog when it is finished, if it took longer than the threshold, and emits the JfrEvents
+ * while a flight recording is running. The done callback tells the connection that the request is no longer in flight, and if it succeeded.
+ * Used by the thread executing the statement and reading its result set.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+class StatementTimer {
+
+    private final StatementMetrics.Stats stats;
+    private final String cql;
+    private final String fingerprint;
+    private final SlowQueryLog slowQueryLog;
+    private final Consumer<Boolean> done;
+    private final long start = System.nanoTime();
+    private final Object jfrEvent = JfrEvents.STATEMENT.begin();
+    private long rows;
+    private boolean finished;
+
+    /**
+     * @param done called once, with true when the statement is finished or false when it failed, or null.
+     */
+    StatementTimer(StatementMetrics.Stats stats, String cql, String fingerprint, SlowQueryLog slowQueryLog, Consumer<Boolean> done) {
+        this.stats = stats;
+        this.cql = cql;
+        this.fingerprint = fingerprint;
+        this.slowQueryLog = slowQueryLog;
+        this.done = done;
+    }
+
+    void executed() {
+        stats.getExecute().recordNanos(System.nanoTime() - start);
+    }
+
+    void rowRead() {
+        if (rows++ == 0) {
+            stats.getFirstRow().recordNanos(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * @param jfrEvent the page fetch event started before the fetch, or null.
+     */
+    void pageFetched(long nanos, ResultSet resultSet, Object jfrEvent) {
+        stats.getPageFetch().recordNanos(nanos);
+        if (jfrEvent != null) {
+            JfrEvents.PAGE_FETCH.commit(jfrEvent, fingerprint, (long) resultSet.getExecutionInfo().getResponseSizeInBytes(),
+                    resultSet.getAvailableWithoutFetching());
+        }
+    }
+
+    /**
+     * Called when the result set is exhausted or closed, or right after the execution of statements without rows.
+     */
+    void finished(ResultSet resultSet) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            final long elapsed = System.nanoTime() - start;
+            long bytes = 0;
+            for (ExecutionInfo executionInfo : resultSet.getExecutionInfos()) {
+                bytes += Math.max(0, executionInfo.getResponseSizeInBytes());
+            }
+            stats.recordFinished(rows, elapsed, bytes);
+            if (jfrEvent != null) {
+                final Request request = resultSet.getExecutionInfo().getRequest();
+                final ConsistencyLevel consistency = request instanceof Statement ? ((Statement<?>) request).getConsistencyLevel() : null;
+                JfrEvents.STATEMENT.commit(jfrEvent, fingerprint, consistency == null ? "default" : consistency.name(), rows,
+                        resultSet.getExecutionInfos().size(), false);
+            }
+            if (slowQueryLog != null && slowQueryLog.isSlow(elapsed)) {
+                slowQueryLog.offer(new SlowQueryLog.Entry(cql, fingerprint, elapsed, rows,
+                        resultSet.getExecutionInfos().size(), resultSet.getExecutionInfo()));
+            }
+        } finally {
+            if (done != null) {
+                done.accept(true);
+            }
+        }
+    }
+
+    /**
+     * Called when the execution or a page fetch failed. Client timeouts and server read or write timeouts are counted as timeouts.
+     */
+    void failed(Throwable error) {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            stats.recordFailed(System.nanoTime() - start, isTimeout(error) || isTimeout(error.getCause()));
+            JfrEvents.STATEMENT.commit(jfrEvent, fingerprint, null, rows, 0, true);
+        } finally {
+            if (done != null) {
+                done.accept(false);
+            }
+        }
+    }
+
+    private static boolean isTimeout(Throwable error) {
+        return error instanceof DriverTimeoutException || error instanceof ReadTimeoutException || error instanceof WriteTimeoutException;
+    }
+}
@@ -0,0 +1,53 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+
+/**
+ * Result set returned by CollectionArrayImpl.getResultSet(). It has the columns INDEX and VALUE,
+ * and decodes one element of the collection bytes at each call of next().
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+public class ArrayElementResultSet extends ArrayResultSet {
+
+    private final ByteBuffer buffer;
+    private final TypeCodec<?> codec;
+    private final ProtocolVersion protocolVersion;
+    private long index;
+    private int remaining;
+    private Object[] current;
+
+    ArrayElementResultSet(ByteBuffer buffer, TypeCodec<?> codec, ProtocolVersion protocolVersion, long firstIndex, int count) {
+        super("INDEX", "VALUE");
+        this.buffer = buffer;
+        this.codec = codec;
+        this.protocolVersion = protocolVersion;
+        this.index = firstIndex;
+        this.remaining = count;
+    }
+
+    @Override
+    public boolean next() throws SQLException {
+        if (isClosed() || remaining <= 0) {
+            current = null;
+            return false;
+        }
+        current = new Object[]{index++, codec.decode(CollectionArrayImpl.nextElement(buffer), protocolVersion)};
+        remaining--;
+        return true;
+    }
+
+    @Override
+    protected Object[] getCurrentRowValues() throws SQLException {
+        if (current == null) {
+            throw new SQLException("ResultSet exhausted.");
+        }
+        return current;
+    }
+}
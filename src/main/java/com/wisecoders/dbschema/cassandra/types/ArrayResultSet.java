@@ -19,8 +19,15 @@ import java.util.Map;
 
 public class ArrayResultSet implements ResultSet
 {
+	private static final int INITIAL_CAPACITY = 16;
+
+	/**
+	 * Rows are appended in place, the array grows geometrically. Only the first rowCount entries are used.
+	 */
 	private Object[][] data = null;
 
+	private int rowCount = 0;
+
 	private String[] columnNames = null;
 
 	private int currentRow = -1;
@@ -42,13 +49,12 @@ public class ArrayResultSet implements ResultSet
 		if (data != null && data.length > 0 && data[0] != null)
 		{
 			int numRows = data.length;
-			int numColumns = data[0].length;
-			this.data = new Object[numRows][numColumns];
+			this.data = new Object[numRows][];
 			for (int i = 0; i < numRows; i++)
 			{
 				this.data[i] = Arrays.copyOf(data[i], data[i].length);
 			}
-
+			this.rowCount = numRows;
 		}
 		this.columnNames = columnNames;
 	}
@@ -65,54 +71,44 @@ public class ArrayResultSet implements ResultSet
 		this.statement = statement;
 	}
 
+	/**
+	 * Append the rows of another result set. The row arrays are shared, not copied.
+	 */
 	public void addResultSet(ArrayResultSet toCopy)
 	{
-		if ( toCopy.data == null || toCopy.data.length < 0 ) {
+		if ( toCopy.rowCount == 0 ) {
 			return;
 		}
-		if ( data == null )	{
-			data = new Object[toCopy.data.length][toCopy.data[0].length];
-			for (int i = 0; i < toCopy.data.length; i++ ) {
-				data[i] = Arrays.copyOf(toCopy.data[i], toCopy.data[i].length);
-			}
-		} else {
-			if (toCopy.data[0].length != data[0].length) {
-				throw new IllegalArgumentException("Array toCopy column length (" + toCopy.data[0].length
-						+ ") is not " + " the same as this result sets column length (" + toCopy.data[0].length + ")");
-			}
-			Object[][] newdata = new String[data.length + toCopy.data.length][data[0].length];
-			for (int i = 0; i < data.length; i++) {
-				newdata[i] = Arrays.copyOf(data[i], data[i].length);
-			}
-			for (int i = 0; i < toCopy.data.length; i++) {
-				newdata[data.length+i] = Arrays.copyOf(toCopy.data[i], toCopy.data[i].length);
-			}
-			data = newdata;
+		if ( rowCount > 0 && toCopy.data[0].length != data[0].length ) {
+			throw new IllegalArgumentException("Array toCopy column length (" + toCopy.data[0].length
+					+ ") is not " + " the same as this result sets column length (" + data[0].length + ")");
 		}
+		ensureCapacity(rowCount + toCopy.rowCount);
+		System.arraycopy(toCopy.data, 0, data, rowCount, toCopy.rowCount);
+		rowCount += toCopy.rowCount;
 	}
 
+	/**
+	 * Append a row in amortized constant time. The array is kept as it is, without a copy,
+	 * so the caller should not modify it after adding it.
+	 */
 	public void addRow(Object[] columnValues)
+	{
+		ensureCapacity(rowCount + 1);
+		data[rowCount++] = columnValues;
+	}
+
+	private void ensureCapacity(int minCapacity)
 	{
 		if (data == null) {
-			data = new Object[1][columnValues.length];
-			data[0] = Arrays.copyOf(columnValues, columnValues.length);
-		} else {
-			int numRows = data.length;
-			Object[][] newdata = new Object[numRows + 1][data[0].length];
-			for (int i = 0; i < numRows; i++)
-			{
-				newdata[i] = Arrays.copyOf(data[i], data[i].length);
-			}
-			newdata[numRows] = Arrays.copyOf(columnValues, columnValues.length);
-			data = newdata;
+			data = new Object[Math.max(INITIAL_CAPACITY, minCapacity)][];
+		} else if (minCapacity > data.length) {
+			data = Arrays.copyOf(data, Math.max(data.length + (data.length >> 1), minCapacity));
 		}
 	}
 
 	public int getRowCount() {
-		if (data == null) {
-			return 0;
-		}
-		return data.length;
+		return rowCount;
 	}
 
 	public <T> T unwrap(Class<T> iface) throws SQLException	{
@@ -127,10 +123,7 @@ public class ArrayResultSet implements ResultSet
 	 * @see ResultSet#next()
 	 */
 	public boolean next() throws SQLException {
-		if (data == null) {
-			return false;
-		}
-		if (currentRow < data.length - 1) {
+		if (currentRow < rowCount - 1) {
 			currentRow++;
 			return true;
 		}
@@ -153,14 +146,7 @@ public class ArrayResultSet implements ResultSet
 	}
 
 	public String getString(int columnIndex) throws SQLException {
-		if (currentRow >= data.length) {
-			throw new SQLException("ResultSet exhausted, request currentRow = " + currentRow);
-		}
-		int adjustedColumnIndex = columnIndex - 1;
-		if (adjustedColumnIndex >= data[currentRow].length)	{
-			throw new SQLException("Column index does not exist: " + columnIndex);
-		}
-		final Object val = data[currentRow][adjustedColumnIndex];
+		final Object val = getObject(columnIndex);
 		return val != null ? val.toString() : null;
 	}
 
@@ -516,16 +502,24 @@ public class ArrayResultSet implements ResultSet
 	}
 
 	public Object getObject(int columnIndex) throws SQLException {
-		if (currentRow >= data.length)
-		{
-			throw new SQLException("ResultSet exhausted, request currentRow = " + currentRow);
-		}
+		final Object[] row = getCurrentRowValues();
 		int adjustedColumnIndex = columnIndex - 1;
-		if (adjustedColumnIndex >= data[currentRow].length)
+		if (adjustedColumnIndex < 0 || adjustedColumnIndex >= row.length)
 		{
 			throw new SQLException("Column index does not exist: " + columnIndex);
 		}
-		return data[currentRow][adjustedColumnIndex];
+		return row[adjustedColumnIndex];
+	}
+
+	/**
+	 * Values of the row the cursor is positioned on. Subclasses producing rows on the fly override this together with next().
+	 */
+	protected Object[] getCurrentRowValues() throws SQLException {
+		if (currentRow < 0 || currentRow >= rowCount)
+		{
+			throw new SQLException("ResultSet exhausted, request currentRow = " + currentRow);
+		}
+		return data[currentRow];
 	}
 
 	public Object getObject(String columnLabel) throws SQLException
@@ -1,49 +1,124 @@
 package com.wisecoders.dbschema.cassandra.types;
 
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.sql.Blob;
 import java.sql.SQLException;
 import java.sql.SQLFeatureNotSupportedException;
 
 /**
+ * Read-only Blob over the bytes of a blob column, as received in the response. No copy is done when the Blob is created,
+ * streams and pattern searches read directly from the buffer. Only getBytes() copies, and only the requested range.
+ *
  * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
  * Free to use by everyone, code modifications allowed only to
  * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
  */
 
 public class BlobImpl implements Blob {
-    private byte[] bytes;
+    private ByteBuffer buffer;
+
+    public BlobImpl(ByteBuffer buffer) {
+        this.buffer = buffer.asReadOnlyBuffer();
+    }
 
     public BlobImpl(byte[] bytes) {
-        this.bytes = bytes;
+        this(ByteBuffer.wrap(bytes));
+    }
+
+    /**
+     * @return a read-only view of the blob bytes, positioned at the first byte.
+     */
+    public ByteBuffer getByteBuffer() throws SQLException {
+        checkFreed();
+        return buffer.duplicate();
     }
 
     @Override
-    public long length() {
-        return bytes.length;
+    public long length() throws SQLException {
+        checkFreed();
+        return buffer.remaining();
     }
 
     @Override
-    public byte[] getBytes(long pos, int length) {
-        byte[] newBytes = new byte[length];
-        System.arraycopy(bytes, (int) pos - 1, newBytes, 0, length);
-        return newBytes;
+    public byte[] getBytes(long pos, int length) throws SQLException {
+        final ByteBuffer view = view(pos, length);
+        final byte[] bytes = new byte[view.remaining()];
+        view.get(bytes);
+        return bytes;
     }
 
     @Override
     public InputStream getBinaryStream() throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        return new ByteBufferBackedInputStream(getByteBuffer());
+    }
+
+    @Override
+    public InputStream getBinaryStream(long pos, long length) throws SQLException {
+        checkFreed();
+        if (pos < 1 || length < 0 || pos - 1 + length > buffer.remaining()) {
+            throw new SQLException("Invalid range pos=" + pos + " length=" + length + " for Blob of length " + buffer.remaining());
+        }
+        return new ByteBufferBackedInputStream(view(pos, (int) length));
     }
 
     @Override
     public long position(byte[] pattern, long start) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        if (pattern == null) throw new SQLException("Pattern is null");
+        return indexOf(ByteBuffer.wrap(pattern), start);
     }
 
     @Override
     public long position(Blob pattern, long start) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        if (pattern == null) throw new SQLException("Pattern is null");
+        if (pattern instanceof BlobImpl) {
+            return indexOf(((BlobImpl) pattern).getByteBuffer(), start);
+        }
+        return position(pattern.getBytes(1, (int) pattern.length()), start);
+    }
+
+    /**
+     * @return 1 based position of the pattern, or -1 if not found. Compares the bytes in place, using absolute reads.
+     */
+    private long indexOf(ByteBuffer pattern, long start) throws SQLException {
+        checkFreed();
+        if (start < 1) throw new SQLException("Start position should be at least 1");
+        final int base = buffer.position();
+        final int patternBase = pattern.position();
+        final int patternLength = pattern.remaining();
+        final int last = buffer.limit() - patternLength;
+        if (patternLength == 0) {
+            return start <= buffer.remaining() + 1 ? start : -1;
+        }
+        final byte first = pattern.get(patternBase);
+        for (int i = base + (int) start - 1; i <= last; i++) {
+            if (buffer.get(i) != first) continue;
+            int j = 1;
+            while (j < patternLength && buffer.get(i + j) == pattern.get(patternBase + j)) j++;
+            if (j == patternLength) return i - base + 1;
+        }
+        return -1;
+    }
+
+    /**
+     * View on the bytes starting at 1 based pos, with up to length bytes.
+     */
+    private ByteBuffer view(long pos, int length) throws SQLException {
+        checkFreed();
+        if (pos < 1 || pos - 1 > buffer.remaining() || length < 0) {
+            throw new SQLException("Invalid range pos=" + pos + " length=" + length + " for Blob of length " + buffer.remaining());
+        }
+        final ByteBuffer view = buffer.duplicate();
+        view.position(buffer.position() + (int) pos - 1);
+        view.limit(view.position() + Math.min(length, view.remaining()));
+        return view;
+    }
+
+    private void checkFreed() throws SQLException {
+        if (buffer == null) throw new SQLException("Blob was freed");
     }
 
     @Override
@@ -68,11 +143,6 @@ public class BlobImpl implements Blob {
 
     @Override
     public void free() {
-        bytes = null;
-    }
-
-    @Override
-    public InputStream getBinaryStream(long pos, long length) throws SQLException {
-        throw new SQLFeatureNotSupportedException();
+        buffer = null;
     }
 }
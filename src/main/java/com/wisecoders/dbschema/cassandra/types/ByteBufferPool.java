@@ -0,0 +1,110 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of direct buffers used to bind blob parameters given as streams. Buffers are grouped by power of two capacity.
+ * Released buffers are kept for reuse until the pool holds MAX_RETAINED_BYTES, larger buffers are left to the GC.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+public class ByteBufferPool {
+
+    private static final int MIN_SHIFT = 12; // 4 KB
+    private static final int MAX_SHIFT = 24; // 16 MB
+    private static final long MAX_RETAINED_BYTES = 64L * 1024 * 1024;
+
+    public static final ByteBufferPool INSTANCE = new ByteBufferPool();
+
+    private final List<Queue<ByteBuffer>> free = new ArrayList<>(MAX_SHIFT - MIN_SHIFT + 1);
+    private final AtomicLong retainedBytes = new AtomicLong();
+
+    private ByteBufferPool() {
+        for (int shift = MIN_SHIFT; shift <= MAX_SHIFT; shift++) {
+            free.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    /**
+     * @return a cleared direct buffer with the limit set to the requested capacity.
+     */
+    public ByteBuffer acquire(int capacity) {
+        final int shift = shiftFor(capacity);
+        ByteBuffer buffer = null;
+        if (shift <= MAX_SHIFT) {
+            buffer = free.get(shift - MIN_SHIFT).poll();
+            if (buffer != null) {
+                retainedBytes.addAndGet(-buffer.capacity());
+            }
+        }
+        if (buffer == null) {
+            buffer = ByteBuffer.allocateDirect(shift <= MAX_SHIFT ? 1 << shift : capacity);
+        }
+        buffer.clear();
+        buffer.limit(capacity);
+        return buffer;
+    }
+
+    public void release(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect()) return;
+        final int capacity = buffer.capacity();
+        final int shift = shiftFor(capacity);
+        if (shift > MAX_SHIFT || capacity != 1 << shift) return;
+        if (retainedBytes.addAndGet(capacity) > MAX_RETAINED_BYTES) {
+            retainedBytes.addAndGet(-capacity);
+            return;
+        }
+        free.get(shift - MIN_SHIFT).offer(buffer);
+    }
+
+    /**
+     * Read the stream into a pooled buffer. If length is negative the stream is read until its end, growing the buffer as needed.
+     * @return the buffer flipped for reading. Release it to the pool after the statement was executed.
+     */
+    public ByteBuffer read(InputStream in, long length) throws IOException {
+        if (length > Integer.MAX_VALUE) {
+            throw new IOException("Stream length " + length + " exceeds the maximum blob size");
+        }
+        final ReadableByteChannel channel = Channels.newChannel(in);
+        ByteBuffer buffer = acquire(length >= 0 ? (int) length : 1 << MIN_SHIFT);
+        try {
+            while (true) {
+                if (!buffer.hasRemaining()) {
+                    if (length >= 0) break;
+                    final ByteBuffer larger = acquire(buffer.capacity() * 2);
+                    buffer.flip();
+                    larger.put(buffer);
+                    release(buffer);
+                    buffer = larger;
+                }
+                if (channel.read(buffer) < 0) {
+                    if (length >= 0 && buffer.hasRemaining()) {
+                        throw new IOException("Stream ended after " + buffer.position() + " bytes, expected " + length);
+                    }
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException ex) {
+            release(buffer);
+            throw ex;
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int shiftFor(int capacity) {
+        if (capacity <= 1 << MIN_SHIFT) return MIN_SHIFT;
+        return 32 - Integer.numberOfLeadingZeros(capacity - 1);
+    }
+}
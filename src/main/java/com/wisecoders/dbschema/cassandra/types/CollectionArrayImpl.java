@@ -0,0 +1,237 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.CodecNotFoundException;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodec;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+
+import java.lang.reflect.Array;
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Map;
+
+/**
+ * java.sql.Array over the serialized bytes of a CQL list or set column.
+ * The bytes are kept as received from the server ( [int count] followed by [int length][bytes] for each element )
+ * and only the elements requested are decoded. Numeric lists can be read into primitive arrays without boxing
+ * by passing a map from the base type name to the primitive array class, for example "bigint" -> long[].class.
+ * Primitive arrays cannot hold null, a null element is read there as 0, or false for boolean lists. Read lists which may
+ * contain null elements into an Object array, for example with getArray(), to tell null apart from 0.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+public class CollectionArrayImpl implements java.sql.Array {
+
+    private ByteBuffer bytes;
+    private final DataType elementType;
+    private final CodecRegistry codecRegistry;
+    private final ProtocolVersion protocolVersion;
+    private final int size;
+    private int[] offsets;
+
+    public CollectionArrayImpl(ByteBuffer bytes, DataType elementType, CodecRegistry codecRegistry, ProtocolVersion protocolVersion) {
+        this.bytes = bytes;
+        this.elementType = elementType;
+        this.codecRegistry = codecRegistry;
+        this.protocolVersion = protocolVersion;
+        this.size = bytes.remaining() < 4 ? 0 : bytes.getInt(bytes.position());
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String getBaseTypeName() {
+        return elementType.asCql(false, true);
+    }
+
+    @Override
+    public int getBaseType() {
+        if (DataTypes.BIGINT.equals(elementType) || DataTypes.COUNTER.equals(elementType)) return Types.BIGINT;
+        if (DataTypes.INT.equals(elementType)) return Types.INTEGER;
+        if (DataTypes.VARINT.equals(elementType)) return Types.NUMERIC;
+        if (DataTypes.SMALLINT.equals(elementType)) return Types.SMALLINT;
+        if (DataTypes.TINYINT.equals(elementType)) return Types.TINYINT;
+        if (DataTypes.DOUBLE.equals(elementType)) return Types.DOUBLE;
+        if (DataTypes.FLOAT.equals(elementType)) return Types.FLOAT;
+        if (DataTypes.DECIMAL.equals(elementType)) return Types.DECIMAL;
+        if (DataTypes.BOOLEAN.equals(elementType)) return Types.BOOLEAN;
+        if (DataTypes.TEXT.equals(elementType) || DataTypes.ASCII.equals(elementType)) return Types.VARCHAR;
+        if (DataTypes.BLOB.equals(elementType)) return Types.BLOB;
+        if (DataTypes.TIMESTAMP.equals(elementType)) return Types.TIMESTAMP;
+        if (DataTypes.DATE.equals(elementType)) return Types.DATE;
+        if (DataTypes.TIME.equals(elementType)) return Types.TIME;
+        return Types.JAVA_OBJECT;
+    }
+
+    @Override
+    public Object[] getArray() throws SQLException {
+        return (Object[]) getArray(1, size, null);
+    }
+
+    @Override
+    public Object getArray(Map<String, Class<?>> map) throws SQLException {
+        return getArray(1, size, map);
+    }
+
+    @Override
+    public Object getArray(long index, int count) throws SQLException {
+        return getArray(index, count, null);
+    }
+
+    @Override
+    public Object getArray(long index, int count, Map<String, Class<?>> map) throws SQLException {
+        checkRange(index, count);
+        final int from = (int) index - 1;
+        final Class<?> target = map != null ? map.get(getBaseTypeName()) : null;
+        if (target != null && (target.isPrimitive() || (target.isArray() && target.getComponentType().isPrimitive()))) {
+            return readPrimitives(from, count, target.isArray() ? target.getComponentType() : target);
+        }
+        final TypeCodec<?> codec = codecFor(target);
+        final Object[] array = (Object[]) Array.newInstance(target != null ? target : codec.getJavaType().getRawType(), count);
+        final ByteBuffer buffer = bytes.duplicate();
+        buffer.position(offsetOf(from));
+        for (int i = 0; i < count; i++) {
+            array[i] = codec.decode(nextElement(buffer), protocolVersion);
+        }
+        return array;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return getResultSet(1, size, null);
+    }
+
+    @Override
+    public ResultSet getResultSet(Map<String, Class<?>> map) throws SQLException {
+        return getResultSet(1, size, map);
+    }
+
+    @Override
+    public ResultSet getResultSet(long index, int count) throws SQLException {
+        return getResultSet(index, count, null);
+    }
+
+    /**
+     * The result set has the columns INDEX and VALUE. Elements are decoded one by one as the cursor moves.
+     */
+    @Override
+    public ResultSet getResultSet(long index, int count, Map<String, Class<?>> map) throws SQLException {
+        checkRange(index, count);
+        final Class<?> target = map != null ? map.get(getBaseTypeName()) : null;
+        final ByteBuffer buffer = bytes.duplicate();
+        buffer.position(offsetOf((int) index - 1));
+        return new ArrayElementResultSet(buffer, codecFor(target), protocolVersion, index, count);
+    }
+
+    @Override
+    public void free() {
+        bytes = null;
+        offsets = null;
+    }
+
+    private void checkRange(long index, int count) throws SQLException {
+        if (bytes == null) throw new SQLException("Array was freed");
+        if (index < 1 || count < 0 || index - 1 + count > size) {
+            throw new SQLException("Array range [" + index + ", " + (index + count - 1) + "] out of bounds, array size is " + size);
+        }
+    }
+
+    private TypeCodec<?> codecFor(Class<?> target) throws SQLException {
+        try {
+            return target != null ? codecRegistry.codecFor(elementType, target) : codecRegistry.codecFor(elementType);
+        } catch (CodecNotFoundException ex) {
+            throw new SQLException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Absolute position of the element length field. The offsets are computed at the first access after the first element,
+     * by skipping over the element lengths without decoding anything. An empty or truncated collection has no elements
+     * and no length fields, the only valid offset is its limit.
+     */
+    private int offsetOf(int elementIndex) {
+        if (size == 0) return bytes.limit();
+        if (elementIndex == 0) return bytes.position() + 4;
+        if (offsets == null) {
+            final int[] newOffsets = new int[size + 1];
+            int position = bytes.position() + 4;
+            for (int i = 0; i < size; i++) {
+                newOffsets[i] = position;
+                final int length = bytes.getInt(position);
+                position += 4 + Math.max(length, 0);
+            }
+            newOffsets[size] = position;
+            offsets = newOffsets;
+        }
+        return offsets[elementIndex];
+    }
+
+    /**
+     * Position the buffer after the next element and return a view on the element bytes, or null for a null element.
+     */
+    static ByteBuffer nextElement(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0) return null;
+        final ByteBuffer element = buffer.duplicate();
+        element.limit(buffer.position() + length);
+        buffer.position(buffer.position() + length);
+        return element;
+    }
+
+    private Object readPrimitives(int from, int count, Class<?> componentType) throws SQLException {
+        final ByteBuffer buffer = bytes.duplicate();
+        buffer.position(offsetOf(from));
+        if (componentType == long.class && (DataTypes.BIGINT.equals(elementType) || DataTypes.COUNTER.equals(elementType) || DataTypes.TIME.equals(elementType))) {
+            final long[] array = new long[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() < 0 ? 0 : buffer.getLong();
+            }
+            return array;
+        } else if (componentType == int.class && DataTypes.INT.equals(elementType)) {
+            final int[] array = new int[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() < 0 ? 0 : buffer.getInt();
+            }
+            return array;
+        } else if (componentType == short.class && DataTypes.SMALLINT.equals(elementType)) {
+            final short[] array = new short[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() < 0 ? 0 : buffer.getShort();
+            }
+            return array;
+        } else if (componentType == byte.class && DataTypes.TINYINT.equals(elementType)) {
+            final byte[] array = new byte[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() < 0 ? 0 : buffer.get();
+            }
+            return array;
+        } else if (componentType == double.class && DataTypes.DOUBLE.equals(elementType)) {
+            final double[] array = new double[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() < 0 ? 0 : buffer.getDouble();
+            }
+            return array;
+        } else if (componentType == float.class && DataTypes.FLOAT.equals(elementType)) {
+            final float[] array = new float[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() < 0 ? 0 : buffer.getFloat();
+            }
+            return array;
+        } else if (componentType == boolean.class && DataTypes.BOOLEAN.equals(elementType)) {
+            final boolean[] array = new boolean[count];
+            for (int i = 0; i < count; i++) {
+                array[i] = buffer.getInt() >= 0 && buffer.get() != 0;
+            }
+            return array;
+        }
+        throw new SQLException("Cannot read " + getBaseTypeName() + " elements into " + componentType.getName() + "[]");
+    }
+}
@@ -8,6 +8,7 @@ import software.amazon.awssdk.services.secretsmanager.model.SecretsManagerExcept
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
 import java.security.GeneralSecurityException;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 
@@ -89,6 +90,20 @@ public class CassandraClientURITest {
         assertFalse(uri.getSslEnabled());
     }
 
+    @Test
+    public void testMetricsOptions() {
+        CassandraClientURI uri = new CassandraClientURI(
+                "jdbc:cassandra://localhost:9042/?sessionmetrics=cql-requests, Bytes-Sent&nodemetrics=all", null);
+        assertEquals(Arrays.asList("cql-requests", "bytes-sent"), uri.getSessionMetrics());
+        assertTrue(uri.getNodeMetrics().contains("pool.in-flight"));
+        assertTrue(new CassandraClientURI("jdbc:cassandra://localhost:9042/", null).getSessionMetrics().isEmpty());
+        try {
+            new CassandraClientURI("jdbc:cassandra://localhost:9042/?sessionmetrics=unknown", null);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
     @Test
     public void testAwsSecretNotFound() {
         SecretsManagerException sme = (SecretsManagerException) SecretsManagerException
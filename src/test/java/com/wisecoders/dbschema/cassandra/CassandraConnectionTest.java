@@ -0,0 +1,307 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CassandraConnectionTest {
+
+    private SessionContext sessionContext;
+    private CqlSession session;
+
+    @Before
+    public void setUp() {
+        sessionContext = mock(SessionContext.class);
+        session = mock(CqlSession.class);
+        final StatementMetrics statementMetrics = new StatementMetrics();
+        when(sessionContext.getSession()).thenReturn(session);
+        when(sessionContext.getStatementMetrics()).thenReturn(statementMetrics);
+        when(sessionContext.close(anyBoolean())).thenReturn(CompletableFuture.completedFuture(null));
+    }
+
+    private CassandraConnection connect(long closeGracePeriod) {
+        final CassandraClientURI uri = new CassandraClientURI("jdbc:cassandra://localhost/ks?closegraceperiod=" + closeGracePeriod, null);
+        return new CassandraConnection(sessionContext, new JdbcDriver(), uri, false);
+    }
+
+    @Test
+    public void testCloseWaitsForInFlightRequests() throws Exception {
+        CassandraConnection connection = connect(TimeUnit.SECONDS.toMillis(10));
+        StatementTimer timer = connection.startTimer("SELECT * FROM ks.t");
+        Thread closing = new Thread(connection::close);
+        closing.start();
+        closing.join(200);
+        assertTrue(closing.isAlive());
+        assertTrue(connection.isClosed());
+        verify(sessionContext, never()).close(anyBoolean());
+        try {
+            connection.startTimer("SELECT * FROM ks.t");
+            fail();
+        } catch (SQLException expected) {
+        }
+
+        timer.failed(new RuntimeException("done"));
+        closing.join(5000);
+        assertFalse(closing.isAlive());
+        verify(sessionContext).close(false);
+        verify(sessionContext, never()).close(true);
+    }
+
+    @Test
+    public void testReclaimedResultSetDoesNotDelayClose() throws Exception {
+        final CassandraClientURI uri = new CassandraClientURI("jdbc:cassandra://localhost/ks?closegraceperiod=60000&leakdetection=3600000", null);
+        final CassandraConnection connection = new CassandraConnection(sessionContext, new JdbcDriver(), uri, false);
+        final CassandraStatement statement = new CassandraStatement(connection);
+        final com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet = mock(com.datastax.oss.driver.api.core.cql.ResultSet.class);
+        new CassandraResultSet(statement, dsResultSet, true, connection.startTimer("SELECT * FROM ks.t"));
+        final Thread closing = new Thread(connection::close);
+        closing.start();
+        for (int i = 0; i < 50 && closing.isAlive(); i++) {
+            System.gc();
+            closing.join(100);
+        }
+        assertFalse(closing.isAlive());
+        verify(sessionContext).close(false);
+        verify(sessionContext, never()).close(true);
+    }
+
+    @Test
+    public void testPreparedQueryClosesThePreviousResultAndFinishesFailedTimers() throws Exception {
+        final PreparedStatement prepared = mock(PreparedStatement.class);
+        final BoundStatement bound = mock(BoundStatement.class);
+        final com.datastax.oss.driver.api.core.cql.ResultSet dsResultSet = mock(com.datastax.oss.driver.api.core.cql.ResultSet.class);
+        when(prepared.getQuery()).thenReturn("SELECT * FROM ks.t");
+        when(prepared.bind()).thenReturn(bound);
+        when(bound.setIdempotent(anyBoolean())).thenReturn(bound);
+        final ColumnDefinitions columns = mock(ColumnDefinitions.class);
+        when(columns.size()).thenReturn(1);
+        when(dsResultSet.getColumnDefinitions()).thenReturn(columns);
+        when(dsResultSet.iterator()).thenReturn(Collections.emptyIterator());
+        when(session.execute(bound)).thenReturn(dsResultSet).thenThrow(new IllegalStateException("failed"));
+        final CassandraConnection connection = connect(TimeUnit.SECONDS.toMillis(60));
+        final CassandraPreparedStatement statement = new CassandraPreparedStatement(connection, prepared, true);
+
+        final ResultSet first = statement.executeQuery();
+        assertFalse(first.isClosed());
+        try {
+            statement.executeQuery();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        assertTrue(first.isClosed());
+        final long start = System.nanoTime();
+        connection.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        verify(sessionContext, never()).close(true);
+    }
+
+    @Test
+    public void testReExecutedStatementDoesNotDelayClose() throws Exception {
+        final ColumnDefinitions rowColumns = mock(ColumnDefinitions.class);
+        final ColumnDefinitions noColumns = mock(ColumnDefinitions.class);
+        when(rowColumns.size()).thenReturn(1);
+        final com.datastax.oss.driver.api.core.cql.ResultSet rows = mock(com.datastax.oss.driver.api.core.cql.ResultSet.class);
+        final com.datastax.oss.driver.api.core.cql.ResultSet noRows = mock(com.datastax.oss.driver.api.core.cql.ResultSet.class);
+        when(rows.getColumnDefinitions()).thenReturn(rowColumns);
+        when(noRows.getColumnDefinitions()).thenReturn(noColumns);
+        when(session.execute(any(Statement.class))).thenReturn(rows, noRows, rows, noRows);
+        final CassandraConnection connection = connect(TimeUnit.SECONDS.toMillis(60));
+        final CassandraStatement statement = new CassandraStatement(connection);
+
+        // the unread result sets are closed by the next execution, the query without rows finishes right away
+        final ResultSet first = statement.executeQuery("SELECT * FROM ks.t");
+        assertEquals(1, statement.executeUpdate("INSERT INTO ks.t (id) VALUES (1)"));
+        assertTrue(first.isClosed());
+        statement.executeQuery("SELECT * FROM ks.t");
+        statement.executeQuery("CREATE TABLE ks.t2 (id int PRIMARY KEY)");
+        final long start = System.nanoTime();
+        connection.close();
+        assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(30));
+        verify(sessionContext).close(false);
+        verify(sessionContext, never()).close(true);
+    }
+
+    @Test
+    public void testResultCacheIsSharedByTheConnectionsOfAnUrl() {
+        final JdbcDriver driver = new JdbcDriver();
+        final CassandraClientURI uri = new CassandraClientURI("jdbc:cassandra://localhost/ks?resultcache=ks.t:1000&closegraceperiod=100", null);
+        final CassandraConnection first = new CassandraConnection(sessionContext, driver, uri, false);
+        final CassandraConnection second = new CassandraConnection(sessionContext, driver, uri, false);
+        assertNotNull(first.getResultCache());
+        assertSame(first.getResultCache(), second.getResultCache());
+        first.close();
+        first.close();
+        assertEquals(1, driver.getResultCaches().size());
+        second.close();
+        assertEquals(0, driver.getResultCaches().size());
+    }
+
+    @Test
+    public void testReadCoalescerIsDroppedWithTheLastConnection() {
+        final JdbcDriver driver = new JdbcDriver();
+        final CassandraClientURI uri = new CassandraClientURI("jdbc:cassandra://localhost/ks?coalescereads=true&closegraceperiod=100", null);
+        final CassandraConnection first = new CassandraConnection(sessionContext, driver, uri, false);
+        final CassandraConnection second = new CassandraConnection(sessionContext, driver, uri, false);
+        assertSame(first.getReadCoalescer(), second.getReadCoalescer());
+        first.close();
+        assertEquals(1, driver.getReadCoalescers().size());
+        second.close();
+        assertEquals(0, driver.getReadCoalescers().size());
+        final CassandraConnection third = new CassandraConnection(sessionContext, driver, uri, false);
+        assertNotSame(first.getReadCoalescer(), third.getReadCoalescer());
+        third.close();
+    }
+
+    @Test
+    public void testCloseForcesAfterGracePeriod() throws Exception {
+        when(sessionContext.close(false)).thenReturn(new CompletableFuture<>());
+        CassandraConnection connection = connect(100);
+        connection.startTimer("SELECT * FROM ks.t");
+        connection.close();
+        verify(sessionContext).close(false);
+        verify(sessionContext).close(true);
+        connection.close();
+        verify(sessionContext, times(1)).close(false);
+    }
+
+    @Test
+    public void testReadOnlyConnectionRejectsWritesAddedToABatch() throws Exception {
+        final CassandraConnection connection = connect(100);
+        connection.setReadOnly(true);
+        final CassandraStatement statement = new CassandraStatement(connection);
+        try {
+            statement.addBatch("INSERT INTO ks.t (id) VALUES (1)");
+            fail();
+        } catch (SQLException expected) {
+        }
+        try {
+            statement.executeBatch();
+            fail();
+        } catch (SQLException expected) {
+        }
+        verify(session, never()).execute(any(Statement.class));
+    }
+
+    @Test
+    public void testAbort() throws Exception {
+        CassandraConnection connection = connect(100);
+        try {
+            connection.abort(null);
+            fail();
+        } catch (SQLException expected) {
+        }
+        connection.abort(Runnable::run);
+        assertTrue(connection.isClosed());
+        verify(sessionContext).close(true);
+        connection.close();
+        verify(sessionContext, never()).close(false);
+    }
+
+    @Test
+    public void testIsValidUsesNodeStateAndCachesTheProbe() throws Exception {
+        final Node node = mock(Node.class);
+        final Metadata metadata = mock(Metadata.class);
+        when(node.getState()).thenReturn(NodeState.UP);
+        when(metadata.getNodes()).thenReturn(Collections.singletonMap(UUID.randomUUID(), node));
+        when(session.getMetadata()).thenReturn(metadata);
+        CassandraConnection connection = connect(100);
+        assertTrue(connection.isValid(1));
+        verify(session, never()).executeAsync(any(SimpleStatement.class));
+
+        when(node.getState()).thenReturn(NodeState.DOWN);
+        Thread.sleep(CassandraConnection.VALIDATION_CACHE_MILLIS + 50);
+        final CompletableFuture<AsyncResultSet> pending = new CompletableFuture<>();
+        when(session.executeAsync(any(SimpleStatement.class))).thenReturn(pending);
+        assertFalse(connection.isValid(1));
+        assertTrue(pending.isCancelled());
+        assertFalse(connection.isValid(1));
+        verify(session, times(1)).executeAsync(any(SimpleStatement.class));
+
+        connection.close();
+        assertFalse(connection.isValid(1));
+    }
+
+    @Test
+    public void testNetworkTimeoutIsTheRequestTimeout() throws Exception {
+        CassandraConnection connection = connect(100);
+        assertEquals(0, connection.getNetworkTimeout());
+        assertNull(connection.withNetworkTimeout(SimpleStatement.newInstance("SELECT * FROM ks.t")).getTimeout());
+        connection.setNetworkTimeout(Runnable::run, 1500);
+        assertEquals(1500, connection.getNetworkTimeout());
+        assertEquals(Duration.ofMillis(1500), connection.withNetworkTimeout(SimpleStatement.newInstance("SELECT * FROM ks.t")).getTimeout());
+        try {
+            connection.setNetworkTimeout(Runnable::run, -1);
+            fail();
+        } catch (SQLException expected) {
+        }
+        connection.close();
+        try {
+            connection.getNetworkTimeout();
+            fail();
+        } catch (SQLException expected) {
+        }
+    }
+
+    @Test
+    public void testShowStatsOfATableInTheCurrentKeyspace() throws Exception {
+        final CqlIdentifier ks = CqlIdentifier.fromCql("ks"), orders = CqlIdentifier.fromCql("orders");
+        final KeyspaceMetadata keyspaceMetadata = mock(KeyspaceMetadata.class);
+        final TableMetadata tableMetadata = mock(TableMetadata.class);
+        final Metadata metadata = mock(Metadata.class);
+        final AsyncResultSet noEstimates = mock(AsyncResultSet.class);
+        doReturn(Optional.of(tableMetadata)).when(keyspaceMetadata).getTable(orders);
+        doReturn(Collections.singletonMap(orders, tableMetadata)).when(keyspaceMetadata).getTables();
+        doReturn(Optional.of(keyspaceMetadata)).when(metadata).getKeyspace(ks);
+        when(metadata.getNodes()).thenReturn(Collections.emptyMap());
+        when(noEstimates.currentPage()).thenReturn(Collections.emptyList());
+        when(session.getMetadata()).thenReturn(metadata);
+        when(session.getKeyspace()).thenReturn(Optional.of(ks));
+        when(session.executeAsync(any(SimpleStatement.class))).thenReturn(CompletableFuture.completedFuture(noEstimates));
+        when(sessionContext.getMetadataCache()).thenReturn(mock(MetadataCache.class));
+        when(sessionContext.getSizeEstimates()).thenReturn(new SizeEstimates(SizeEstimates.DEFAULT_TTL_MILLIS));
+        CassandraConnection connection = connect(100);
+
+        ResultSet rs = connection.executeShowStatsCommand("SHOW STATS orders");
+        assertTrue(rs.next());
+        assertEquals("ks", rs.getString(1));
+        assertEquals("orders", rs.getString(2));
+        assertFalse(rs.next());
+
+        rs = connection.executeShowStatsCommand("SHOW STATS ks");
+        assertTrue(rs.next());
+        assertEquals("orders", rs.getString(2));
+        assertFalse(rs.next());
+        verify(session, times(1)).executeAsync(any(SimpleStatement.class));
+        connection.close();
+    }
+}
@@ -0,0 +1,44 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CassandraMetaDataTest {
+
+    @Test
+    public void testTypeInfoUsesSqlTypes() throws Exception {
+        final Set<Integer> sqlTypes = new HashSet<>();
+        for (Field field : Types.class.getFields()) {
+            if (Modifier.isStatic(field.getModifiers()) && field.getType() == int.class) {
+                sqlTypes.add(field.getInt(null));
+            }
+        }
+        final Map<String, Integer> dataTypes = new HashMap<>();
+        final ResultSet rs = new CassandraMetaData(null, null).getTypeInfo();
+        while (rs.next()) {
+            final int dataType = rs.getInt(2);
+            assertTrue(rs.getString(1) + " " + dataType, sqlTypes.contains(dataType) && dataType != Types.OTHER);
+            dataTypes.put(rs.getString(1), dataType);
+        }
+        assertEquals(Types.ARRAY, (int) dataTypes.get("list"));
+        assertEquals(Types.ARRAY, (int) dataTypes.get("vector"));
+        assertEquals(Types.JAVA_OBJECT, (int) dataTypes.get("map"));
+        assertEquals(Types.VARCHAR, (int) dataTypes.get("varchar"));
+    }
+}
@@ -0,0 +1,60 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.Version;
+import com.datastax.oss.driver.api.core.metadata.EndPoint;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ClusterVersionsTest {
+
+    private final Map<UUID, Node> nodes = new HashMap<>();
+
+    private Node addNode(String address, String version) {
+        EndPoint endPoint = Mockito.mock(EndPoint.class);
+        Mockito.when(endPoint.toString()).thenReturn(address);
+        Node node = Mockito.mock(Node.class);
+        Mockito.when(node.getEndPoint()).thenReturn(endPoint);
+        Mockito.when(node.getCassandraVersion()).thenReturn(Version.parse(version));
+        nodes.put(UUID.randomUUID(), node);
+        return node;
+    }
+
+    @Test
+    public void testLowestVersionIsCachedUntilTopologyChange() {
+        Metadata metadata = Mockito.mock(Metadata.class);
+        Mockito.when(metadata.getNodes()).thenReturn(nodes);
+        CqlSession session = Mockito.mock(CqlSession.class);
+        Mockito.when(session.getMetadata()).thenReturn(metadata);
+        ClusterVersions versions = new ClusterVersions();
+        versions.setSession(session);
+
+        addNode("10.0.0.1:9042", "4.1.3");
+        addNode("10.0.0.2:9042", "4.0.11");
+        assertEquals("4.0.11", versions.getVersion().toString());
+        assertEquals(2, versions.getNodeVersions().size());
+        assertEquals("4.1.3", versions.getNodeVersions().get("10.0.0.1:9042"));
+        assertTrue(versions.isAtLeast(4, 0));
+        assertFalse(versions.isAtLeast(4, 1));
+
+        Node added = addNode("10.0.0.3:9042", "3.11.16");
+        assertEquals("4.0.11", versions.getVersion().toString());
+        versions.onAdd(added);
+        assertEquals("3.11.16", versions.getVersion().toString());
+        Mockito.verify(session, Mockito.never()).execute(Mockito.anyString());
+    }
+}
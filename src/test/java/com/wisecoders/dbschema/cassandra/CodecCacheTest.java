@@ -0,0 +1,73 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CodecCacheTest {
+
+    private static final ProtocolVersion V4 = ProtocolVersion.V4;
+
+    private static CodecCache cacheFor(DataType... types) {
+        ColumnDefinitions definitions = Mockito.mock(ColumnDefinitions.class);
+        Mockito.when(definitions.size()).thenReturn(types.length);
+        for (int i = 0; i < types.length; i++) {
+            ColumnDefinition definition = Mockito.mock(ColumnDefinition.class);
+            Mockito.when(definition.getType()).thenReturn(types[i]);
+            Mockito.when(definitions.get(i)).thenReturn(definition);
+        }
+        return new CodecCache(definitions, CodecRegistry.DEFAULT);
+    }
+
+    @Test
+    public void testTimestampConversion() throws SQLException {
+        CodecCache cache = cacheFor(DataTypes.TIMESTAMP);
+        Instant instant = Instant.ofEpochMilli(1234567890L);
+        Object value = cache.readerFor(0, Timestamp.class).read(TypeCodecs.TIMESTAMP.encode(instant, V4), V4);
+        assertEquals(Timestamp.from(instant), value);
+        assertNull(cache.readerFor(0, Timestamp.class).read(null, V4));
+    }
+
+    @Test
+    public void testReaderIsCached() throws SQLException {
+        CodecCache cache = cacheFor(DataTypes.UUID, DataTypes.TEXT);
+        assertSame(cache.readerFor(0, UUID.class), cache.readerFor(0, UUID.class));
+        assertNotSame(cache.readerFor(0, UUID.class), cache.readerFor(0, String.class));
+    }
+
+    @Test
+    public void testCollectionAndNaturalFallback() throws SQLException {
+        CodecCache cache = cacheFor(DataTypes.listOf(DataTypes.BIGINT), DataTypes.INT);
+        ByteBuffer bytes = TypeCodecs.listOf(TypeCodecs.BIGINT).encode(Arrays.asList(1L, 2L), V4);
+        assertEquals(Arrays.asList(1L, 2L), cache.readerFor(0, List.class).read(bytes, V4));
+        assertEquals("42", cache.readerFor(1, String.class).read(TypeCodecs.INT.encode(42, V4), V4));
+        assertEquals(42, cache.readerFor(1, Number.class).read(TypeCodecs.INT.encode(42, V4), V4));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testIncompatibleClass() throws SQLException {
+        cacheFor(DataTypes.INT).readerFor(0, UUID.class);
+    }
+}
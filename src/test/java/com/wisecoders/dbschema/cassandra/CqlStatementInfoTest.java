@@ -0,0 +1,101 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CqlStatementInfoTest {
+
+    @Test
+    public void testQueriesAndWrites() {
+        CqlStatementInfo select = CqlStatementInfo.classify("/* list */ select id, writetime(v) from \"Shop\".orders where id = 'from x' -- comment");
+        assertEquals(CqlStatementInfo.Kind.SELECT, select.getKind());
+        assertEquals("\"Shop\"", select.getKeyspace());
+        assertEquals("orders", select.getTable());
+        assertTrue(select.isIdempotent());
+        assertTrue(select.isQuery());
+        assertFalse(select.isWrite());
+
+        CqlStatementInfo insert = CqlStatementInfo.classify("INSERT INTO users (id, name) VALUES (1, 'if not exists')");
+        assertEquals(CqlStatementInfo.Kind.INSERT, insert.getKind());
+        assertNull(insert.getKeyspace());
+        assertTrue(insert.isIdempotent());
+        assertFalse(insert.isLwt());
+
+        CqlStatementInfo lwt = CqlStatementInfo.classify("INSERT INTO users (id) VALUES (1) IF NOT EXISTS");
+        assertTrue(lwt.isLwt());
+        assertFalse(lwt.isIdempotent());
+
+        assertFalse(CqlStatementInfo.classify("UPDATE ks.counts SET hits = hits + 1 WHERE id = 1").isIdempotent());
+        assertFalse(CqlStatementInfo.classify("UPDATE ks.t SET l = [1, 2] + l WHERE id = 1").isIdempotent());
+        assertFalse(CqlStatementInfo.classify("UPDATE ks.t SET l = ? + l WHERE id = ?").isIdempotent());
+        assertFalse(CqlStatementInfo.classify("UPDATE ks.t SET a = ?, l = :v + l WHERE id = :id").isIdempotent());
+        assertFalse(CqlStatementInfo.classify("UPDATE ks.t SET l = ? + l").isIdempotent());
+        assertTrue(CqlStatementInfo.classify("UPDATE ks.t SET l = ?, m = ? WHERE id = ?").isIdempotent());
+        assertTrue(CqlStatementInfo.classify("UPDATE ks.t SET a = ? + b WHERE id = ?").isIdempotent());
+        assertFalse(CqlStatementInfo.classify("INSERT INTO ks.t (id, ts) VALUES (now(), 1)").isIdempotent());
+        assertTrue(CqlStatementInfo.classify("UPDATE ks.t SET a = b, c = 5 WHERE id = 1").isIdempotent());
+        assertTrue(CqlStatementInfo.classify("UPDATE ks.t SET v = 1 WHERE id = 1 IF v = 0").isLwt());
+        assertFalse(CqlStatementInfo.classify("DELETE l[0] FROM ks.t WHERE id = 1").isIdempotent());
+        assertTrue(CqlStatementInfo.classify("DELETE FROM ks.t WHERE id = 1").isIdempotent());
+    }
+
+    @Test
+    public void testBatchAndDdl() {
+        CqlStatementInfo batch = CqlStatementInfo.classify("BEGIN UNLOGGED BATCH USING TIMESTAMP 5 " +
+                "INSERT INTO a.t1 (id) VALUES (1); UPDATE t2 SET v = 'x;y' WHERE id = 2; DELETE FROM a.t3 WHERE id = 3; APPLY BATCH");
+        assertEquals(CqlStatementInfo.Kind.BATCH, batch.getKind());
+        assertTrue(batch.isIdempotent());
+        List<String[]> tables = batch.getWrittenTables();
+        assertEquals(3, tables.size());
+        assertArrayEquals(new String[]{"a", "t1"}, tables.get(0));
+        assertArrayEquals(new String[]{null, "t2"}, tables.get(1));
+        assertArrayEquals(new String[]{"a", "t3"}, tables.get(2));
+        assertFalse(CqlStatementInfo.classify("BEGIN COUNTER BATCH UPDATE c SET n = n + 1 WHERE id = 1; APPLY BATCH").isIdempotent());
+
+        CqlStatementInfo drop = CqlStatementInfo.classify("DROP TABLE IF EXISTS ks.t");
+        assertEquals(CqlStatementInfo.Kind.DDL, drop.getKind());
+        assertEquals("TABLE", drop.getObjectType());
+        assertArrayEquals(new String[]{"ks", "t"}, drop.getWrittenTables().get(0));
+        assertTrue(CqlStatementInfo.classify("CREATE TABLE ks.t (id int PRIMARY KEY)").getWrittenTables().isEmpty());
+        assertEquals("t", CqlStatementInfo.classify("CREATE INDEX IF NOT EXISTS idx ON ks.t (v)").getTable());
+        assertEquals("ks", CqlStatementInfo.classify("CREATE KEYSPACE IF NOT EXISTS ks WITH replication = {}").getKeyspace());
+        assertEquals(CqlStatementInfo.Kind.DCL, CqlStatementInfo.classify("GRANT SELECT ON ks.t TO reader").getKind());
+        assertFalse(CqlStatementInfo.classify("LIST ROLES").isKnown());
+    }
+
+    @Test
+    public void testPseudoCommands() {
+        CqlStatementInfo schema = CqlStatementInfo.classify("DESCRIBE SCHEMA;");
+        assertEquals(CqlStatementInfo.Kind.DESCRIBE, schema.getKind());
+        assertEquals("SCHEMA", schema.getObjectType());
+
+        CqlStatementInfo keyspace = CqlStatementInfo.classify("desc keyspace shop");
+        assertEquals("KEYSPACE", keyspace.getObjectType());
+        assertEquals("shop", keyspace.getKeyspace());
+
+        CqlStatementInfo table = CqlStatementInfo.classify("DESC shop.orders");
+        assertNull(table.getObjectType());
+        assertEquals("shop", table.getKeyspace());
+        assertEquals("orders", table.getTable());
+        assertTrue(table.isPseudoCommand());
+
+        assertEquals("orders", CqlStatementInfo.classify("DESC TABLE orders").getTable());
+        // left to the server
+        assertFalse(CqlStatementInfo.classify("DESC FUNCTION ks.f(int)").isKnown());
+
+        CqlStatementInfo stats = CqlStatementInfo.classify("SHOW STATS shop.orders");
+        assertEquals(CqlStatementInfo.Kind.SHOW_STATS, stats.getKind());
+        assertEquals("shop", stats.getKeyspace());
+        assertEquals("orders", stats.getTable());
+        assertSame(stats, CqlStatementInfo.classify("SHOW STATS shop.orders"));
+    }
+}
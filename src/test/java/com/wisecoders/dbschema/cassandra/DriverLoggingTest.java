@@ -0,0 +1,90 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import static com.wisecoders.dbschema.cassandra.JdbcDriver.LOGGER;
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class DriverLoggingTest {
+
+    @After
+    public void tearDown() {
+        DriverLogging.configure("OFF", null);
+    }
+
+    @Test
+    public void testAsyncHandlerWritesAllRecordsOnClose() {
+        List<String> messages = Collections.synchronizedList(new ArrayList<>());
+        DriverLogging.AsyncHandler handler = new DriverLogging.AsyncHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                messages.add(record.getMessage());
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+                messages.add("closed");
+            }
+        });
+        for (int i = 0; i < 100; i++) {
+            handler.publish(new LogRecord(Level.INFO, "message " + i));
+        }
+        handler.close();
+        assertEquals(101, messages.size());
+        assertEquals("message 99", messages.get(99));
+        assertEquals("closed", messages.get(100));
+    }
+
+    @Test
+    public void testConfigureCreatesDirectoryAndFile() throws Exception {
+        File directory = Files.createTempDirectory("jdbc-log").toFile();
+        File file = new File(directory, "logs/driver.log");
+        DriverLogging.configure("fine", file.getPath());
+        assertEquals(Level.FINE, LOGGER.getLevel());
+        LOGGER.fine("logged from the test");
+        DriverLogging.configure("OFF", null);
+        assertEquals(Level.OFF, LOGGER.getLevel());
+        for (Handler handler : LOGGER.getHandlers()) {
+            handler.close();
+            LOGGER.removeHandler(handler);
+        }
+        assertTrue(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).contains("logged from the test"));
+    }
+
+    @Test
+    public void testInvalidLevelTurnsTheLoggingOff() {
+        LOGGER.setLevel(Level.INFO);
+        DriverLogging.configure("LOUD", null);
+        assertEquals(Level.OFF, LOGGER.getLevel());
+
+        LOGGER.setLevel(Level.INFO);
+        System.setProperty(DriverLogging.LEVEL_PROPERTY, "LOUDER");
+        try {
+            assertEquals("ks", new CassandraClientURI("jdbc:cassandra://localhost/ks", null).getKeyspace());
+            assertEquals(Level.OFF, LOGGER.getLevel());
+        } finally {
+            System.clearProperty(DriverLogging.LEVEL_PROPERTY);
+        }
+    }
+}
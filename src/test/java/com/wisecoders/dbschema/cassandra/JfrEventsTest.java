@@ -0,0 +1,44 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.Assume;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * The driver is compiled for Java 8, the test drives jdk.jfr.Recording through reflection as well.
+ *
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class JfrEventsTest {
+
+    @Test
+    public void testEventsOnlyWhileRecording() throws Exception {
+        Class<?> recordingClass;
+        try {
+            recordingClass = Class.forName("jdk.jfr.Recording");
+        } catch (ClassNotFoundException ex) {
+            recordingClass = null;
+        }
+        Assume.assumeNotNull(recordingClass);
+        assertEquals(3, JfrEvents.availableTypes().size());
+        assertNull(JfrEvents.STATEMENT.begin());
+        JfrEvents.STATEMENT.commit(null, "SELECT ?", "ONE", 1L, 1, false);
+
+        Object recording = recordingClass.getConstructor().newInstance();
+        recordingClass.getMethod("start").invoke(recording);
+        try {
+            assertTrue(JfrEvents.isRecording());
+            Object event = JfrEvents.STATEMENT.begin();
+            assertNotNull(event);
+            JfrEvents.STATEMENT.commit(event, "SELECT * FROM t WHERE id = ?", "LOCAL_ONE", 10L, 1, false);
+        } finally {
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("close").invoke(recording);
+        }
+        assertFalse(JfrEvents.isRecording());
+    }
+}
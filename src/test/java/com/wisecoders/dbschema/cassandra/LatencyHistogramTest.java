@@ -0,0 +1,73 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMicros(99));
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMaxMicros());
+        assertEquals(500.5, histogram.getMeanMicros(), 0.001);
+        assertEquals(500, histogram.getPercentileMicros(50), 500 / 16);
+        assertEquals(990, histogram.getPercentileMicros(99), 990 / 16);
+        assertEquals(1000, histogram.getPercentileMicros(100));
+
+        histogram.record(LatencyHistogram.MAX_MICROS * 2);
+        assertEquals(LatencyHistogram.MAX_MICROS, histogram.getMaxMicros());
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+    }
+
+    @Test
+    public void testBuckets() {
+        for (long value = 0; value < 100_000; value++) {
+            int index = LatencyHistogram.bucketIndex(value);
+            assertTrue(LatencyHistogram.bucketHighestValue(index) >= value);
+            assertTrue(index == 0 || LatencyHistogram.bucketHighestValue(index - 1) < value);
+        }
+        assertTrue(LatencyHistogram.bucketHighestValue(LatencyHistogram.bucketIndex(LatencyHistogram.MAX_MICROS)) >= LatencyHistogram.MAX_MICROS);
+    }
+
+    @Test
+    public void testConcurrentRecording() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.recordNanos(i * 1000L);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(9_999, histogram.getMaxMicros());
+    }
+
+    @Test
+    public void testFingerprint() {
+        assertEquals("select * from ks.t where id in (?) and name = ?",
+                CqlFingerprint.of("select * from ks.t where id in (1, 2, -3) and name = 'x' -- comment"));
+        assertEquals("INSERT INTO t (a, b) VALUES (?, ?)", CqlFingerprint.of("INSERT INTO t (a,b)\n VALUES ( ?, 0x0a );"));
+        assertEquals("UPDATE t SET v = ? WHERE id = ?", CqlFingerprint.of("UPDATE t SET v = true WHERE id = 5b6962dd-3f90-4c93-8f61-eabfa4a803e2"));
+    }
+}
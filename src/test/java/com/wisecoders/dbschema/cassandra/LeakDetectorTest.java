@@ -0,0 +1,93 @@
+package com.wisecoders.dbschema.cassandra;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class LeakDetectorTest {
+
+    private final List<LogRecord> records = Collections.synchronizedList(new ArrayList<>());
+    private final Handler handler = new Handler() {
+        @Override
+        public void publish(LogRecord record) {
+            records.add(record);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    @Before
+    public void setUp() {
+        LeakDetector.LEAK_LOGGER.addHandler(handler);
+    }
+
+    @After
+    public void tearDown() {
+        LeakDetector.LEAK_LOGGER.removeHandler(handler);
+    }
+
+    @Test
+    public void testUnclosedObjectIsReportedOnceAfterThreshold() {
+        LeakDetector detector = new LeakDetector(0, 1);
+        Object statement = new Object();
+        LeakDetector.Tracked handle = detector.track(statement, "Statement", null);
+        LeakDetector.checkThreshold();
+        LeakDetector.checkThreshold();
+        List<LogRecord> reports = reportsOf("Statement is still open");
+        assertEquals(1, reports.size());
+        assertNotNull(reports.get(0).getThrown());
+        handle.closed();
+
+        Object closed = new Object();
+        detector.track(closed, "ResultSet", null).closed();
+        LeakDetector.checkThreshold();
+        assertTrue(reportsOf("ResultSet").isEmpty());
+    }
+
+    @Test
+    public void testReclaimedObjectIsReleased() throws InterruptedException {
+        LeakDetector detector = new LeakDetector(TimeUnit.HOURS.toMillis(1), 2);
+        CountDownLatch released = new CountDownLatch(1);
+        detector.track(new Object(), "Connection", released::countDown);
+        for (int i = 0; i < 50 && released.getCount() > 0; i++) {
+            System.gc();
+            released.await(100, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(0, released.getCount());
+        assertEquals(1, reportsOf("Connection was reclaimed").size());
+    }
+
+    private List<LogRecord> reportsOf(String prefix) {
+        final List<LogRecord> reports = new ArrayList<>();
+        synchronized (records) {
+            for (LogRecord record : records) {
+                if (record.getMessage().startsWith(prefix)) {
+                    reports.add(record);
+                }
+            }
+        }
+        return reports;
+    }
+}
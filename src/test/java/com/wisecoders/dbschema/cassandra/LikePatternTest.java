@@ -0,0 +1,78 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class LikePatternTest {
+
+    @Test
+    public void testWildcards() {
+        LikePattern pattern = LikePattern.compile("user%");
+        assertNull(pattern.getExact());
+        assertTrue(pattern.matches("user"));
+        assertTrue(pattern.matches("users_by_email"));
+        assertFalse(pattern.matches("app_user"));
+
+        pattern = LikePattern.compile("t_b.e");
+        assertTrue(pattern.matches("tab.e"));
+        assertFalse(pattern.matches("tab_e"));
+        assertFalse(pattern.matches("tb.e"));
+
+        assertTrue(LikePattern.compile(null).matchesAll());
+        assertTrue(LikePattern.compile("%").matches("anything"));
+    }
+
+    @Test
+    public void testEscapes() {
+        LikePattern pattern = LikePattern.compile("user\\_%");
+        assertTrue(pattern.matches("user_id"));
+        assertFalse(pattern.matches("username"));
+
+        pattern = LikePattern.compile("users\\_by\\_email");
+        assertEquals("users_by_email", pattern.getExact());
+        assertTrue(pattern.matches("users_by_email"));
+        assertFalse(pattern.matches("usersXbyXemail"));
+    }
+
+    @Test
+    public void testExactNamesFollowCqlCase() {
+        LikePattern pattern = LikePattern.compile("Orders");
+        assertEquals(Arrays.asList(CqlIdentifier.fromInternal("Orders"), CqlIdentifier.fromInternal("orders")), pattern.getLiteralIdentifiers());
+        assertTrue(pattern.matches("orders"));
+        assertTrue(pattern.matches("Orders"));
+        assertEquals(Collections.singletonList(CqlIdentifier.fromInternal("Orders")), LikePattern.compile("\"Orders\"").getLiteralIdentifiers());
+        assertEquals(Collections.singletonList(CqlIdentifier.fromInternal("orders")), LikePattern.compile("orders").getLiteralIdentifiers());
+    }
+
+    @Test
+    public void testUnquotedPatternsFollowCqlCase() {
+        LikePattern pattern = LikePattern.compile("MY_TABLE");
+        assertNull(pattern.getExact());
+        assertEquals(Arrays.asList(CqlIdentifier.fromInternal("MY_TABLE"), CqlIdentifier.fromInternal("my_table")), pattern.getLiteralIdentifiers());
+        assertTrue(pattern.matches("my_table"));
+        assertTrue(pattern.matches("MY_TABLE"));
+        assertTrue(pattern.matches("myXtable"));
+        assertFalse(pattern.matches("My_Table"));
+
+        pattern = LikePattern.compile("\"MY_TABLE\"");
+        assertEquals(Collections.singletonList(CqlIdentifier.fromInternal("MY_TABLE")), pattern.getLiteralIdentifiers());
+        assertTrue(pattern.matches("MY_TABLE"));
+        assertFalse(pattern.matches("my_table"));
+
+        pattern = LikePattern.compile("USER%");
+        assertTrue(pattern.getLiteralIdentifiers().isEmpty());
+        assertTrue(pattern.matches("users"));
+        assertTrue(pattern.matches("USERS"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.FunctionMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.FunctionSignature;
+import com.datastax.oss.driver.api.core.metadata.schema.IndexKind;
+import com.datastax.oss.driver.api.core.metadata.schema.IndexMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.ResultSet;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class MetadataCacheTest {
+
+    private static final CqlIdentifier KS = CqlIdentifier.fromInternal("shop");
+    private static final CqlIdentifier TB = CqlIdentifier.fromInternal("orders");
+
+    private MetadataCache cache;
+    private TableMetadata table;
+    private KeyspaceMetadata keyspace;
+    private Metadata metadata;
+
+    @Before
+    public void setUp() {
+        CqlIdentifier id = CqlIdentifier.fromInternal("id");
+        ColumnMetadata column = Mockito.mock(ColumnMetadata.class);
+        Mockito.when(column.getName()).thenReturn(id);
+        Mockito.when(column.getType()).thenReturn(DataTypes.UUID);
+        table = Mockito.mock(TableMetadata.class);
+        Mockito.when(table.getKeyspace()).thenReturn(KS);
+        Mockito.when(table.getName()).thenReturn(TB);
+        Mockito.when(table.getColumns()).thenReturn(Collections.singletonMap(id, column));
+        Mockito.when(table.getPrimaryKey()).thenReturn(Collections.singletonList(column));
+        keyspace = Mockito.mock(KeyspaceMetadata.class);
+        Mockito.when(keyspace.getTables()).thenReturn(Collections.singletonMap(TB, table));
+        Mockito.when(keyspace.getTable(TB)).thenReturn(Optional.of(table));
+        metadata = Mockito.mock(Metadata.class);
+        Mockito.when(metadata.getKeyspace(KS)).thenReturn(Optional.of(keyspace));
+        CqlSession session = Mockito.mock(CqlSession.class);
+        Mockito.when(session.getMetadata()).thenReturn(metadata);
+        cache = new MetadataCache();
+        cache.setSession(session);
+    }
+
+    @Test
+    public void testRowsAreBuiltOnce() {
+        assertEquals(1, cache.getTables(KS).size());
+        assertEquals("orders", cache.getTables(KS).get(0)[2]);
+        MetadataCache.TableRows rows = cache.getTable(KS, TB);
+        assertEquals("id", rows.columns.get(0)[3]);
+        assertEquals("id", rows.primaryKeys.get(0)[3]);
+        assertSame(rows, cache.getTable(KS, TB));
+        assertEquals(2, cache.getBuildCount());
+        assertNull(cache.getTable(KS, CqlIdentifier.fromInternal("missing")));
+    }
+
+    @Test
+    public void testCaseSensitiveNamesAreLookedUpAsWritten() throws Exception {
+        final CqlIdentifier myTable = CqlIdentifier.fromInternal("MyTable");
+        final CqlIdentifier id = CqlIdentifier.fromInternal("id");
+        final ColumnMetadata column = Mockito.mock(ColumnMetadata.class);
+        Mockito.when(column.getName()).thenReturn(id);
+        Mockito.when(column.getType()).thenReturn(DataTypes.TEXT);
+        final TableMetadata caseSensitive = Mockito.mock(TableMetadata.class);
+        Mockito.when(caseSensitive.getKeyspace()).thenReturn(KS);
+        Mockito.when(caseSensitive.getName()).thenReturn(myTable);
+        Mockito.when(caseSensitive.getColumns()).thenReturn(Collections.singletonMap(id, column));
+        Mockito.when(caseSensitive.getPrimaryKey()).thenReturn(Collections.singletonList(column));
+        Mockito.when(keyspace.getTable(myTable)).thenReturn(Optional.of(caseSensitive));
+        Mockito.when(keyspace.getTable(CqlIdentifier.fromInternal("mytable"))).thenReturn(Optional.empty());
+        Mockito.when(metadata.getKeyspaces()).thenReturn(Collections.singletonMap(KS, keyspace));
+        final CassandraConnection connection = Mockito.mock(CassandraConnection.class);
+        Mockito.when(connection.getMetadataCache()).thenReturn(cache);
+        final CassandraMetaData metaData = new CassandraMetaData(connection, new JdbcDriver());
+
+        // the names returned by getTables() can be passed back as they are, unquoted names still fold to lower case
+        ResultSet columns = metaData.getColumns("shop", null, "MyTable", null);
+        assertTrue(columns.next());
+        assertEquals("MyTable", columns.getString(3));
+        assertFalse(columns.next());
+        columns = metaData.getColumns("SHOP", null, "ORDERS", null);
+        assertTrue(columns.next());
+        assertEquals("orders", columns.getString(3));
+        assertFalse(metaData.getColumns("shop", null, "mytable", null).next());
+    }
+
+    @Test
+    public void testRowsBuiltDuringSchemaChangeAreNotKept() {
+        // the change is reported while the table rows are built from the previous metadata
+        Mockito.when(keyspace.getTable(TB)).thenAnswer(invocation -> {
+            cache.invalidateRoutines(KS);
+            return Optional.of(table);
+        });
+        MetadataCache.TableRows stale = cache.getTable(KS, TB);
+        assertNotNull(stale);
+        Mockito.when(keyspace.getTable(TB)).thenReturn(Optional.of(table));
+        MetadataCache.TableRows rows = cache.getTable(KS, TB);
+        assertNotSame(stale, rows);
+        assertSame(rows, cache.getTable(KS, TB));
+    }
+
+    @Test
+    public void testSchemaChangesInvalidate() {
+        MetadataCache.TableRows rows = cache.getTable(KS, TB);
+        cache.getTables(KS);
+        cache.onTableUpdated(table, table);
+        assertNotSame(rows, cache.getTable(KS, TB));
+        assertEquals(3, cache.getBuildCount());
+        cache.getTables(KS);
+        assertEquals(3, cache.getBuildCount());
+        cache.onTableDropped(table);
+        cache.getTables(KS);
+        assertEquals(4, cache.getBuildCount());
+    }
+
+    @Test
+    public void testRoutines() {
+        CqlIdentifier street = CqlIdentifier.fromInternal("street");
+        CqlIdentifier address = CqlIdentifier.fromInternal("address");
+        UserDefinedType type = Mockito.mock(UserDefinedType.class);
+        Mockito.when(type.getKeyspace()).thenReturn(KS);
+        Mockito.when(type.getName()).thenReturn(address);
+        Mockito.when(type.getFieldNames()).thenReturn(Collections.singletonList(street));
+        Mockito.when(type.getFieldTypes()).thenReturn(Collections.singletonList(DataTypes.TEXT));
+        Mockito.when(keyspace.getUserDefinedTypes()).thenReturn(Collections.singletonMap(address, type));
+        FunctionSignature signature = new FunctionSignature("total", DataTypes.INT, DataTypes.TEXT);
+        FunctionMetadata function = Mockito.mock(FunctionMetadata.class);
+        Mockito.when(function.getSignature()).thenReturn(signature);
+        Mockito.when(function.getReturnType()).thenReturn(DataTypes.BIGINT);
+        Mockito.when(function.getLanguage()).thenReturn("java");
+        Mockito.when(keyspace.getFunctions()).thenReturn(Collections.singletonMap(signature, function));
+
+        MetadataCache.RoutineRows routines = cache.getRoutines(KS);
+        assertEquals("address", routines.udts.get(0)[2]);
+        assertEquals("street text", routines.udts.get(0)[5]);
+        assertEquals("total", routines.functions.get(0)[2]);
+        assertEquals("total(int, text)", routines.functions.get(0)[5]);
+        assertEquals("FUNCTION RETURNS bigint LANGUAGE java", routines.functions.get(0)[3]);
+        assertSame(routines, cache.getRoutines(KS));
+        cache.onUserDefinedTypeDropped(type);
+        assertNotSame(routines, cache.getRoutines(KS));
+    }
+
+    @Test
+    public void testIndexKinds() {
+        IndexMetadata secondary = Mockito.mock(IndexMetadata.class);
+        Mockito.when(secondary.getKind()).thenReturn(IndexKind.COMPOSITES);
+        assertEquals("SECONDARY", MetadataCache.indexKind(secondary));
+
+        IndexMetadata sai = Mockito.mock(IndexMetadata.class);
+        Mockito.when(sai.getKind()).thenReturn(IndexKind.CUSTOM);
+        Mockito.when(sai.getClassName()).thenReturn(Optional.of("org.apache.cassandra.index.sai.StorageAttachedIndex"));
+        assertEquals("SAI", MetadataCache.indexKind(sai));
+
+        assertEquals("tags", MetadataCache.indexedColumn("values(tags)"));
+        assertEquals("Email", MetadataCache.indexedColumn("\"Email\""));
+        assertEquals("name", MetadataCache.indexedColumn("name"));
+    }
+}
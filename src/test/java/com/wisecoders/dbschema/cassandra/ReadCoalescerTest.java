@@ -0,0 +1,155 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ReadCoalescerTest {
+
+    private static BoundStatement statement() {
+        PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+        Mockito.when(prepared.getId()).thenReturn(ByteBuffer.wrap(new byte[]{7}));
+        BoundStatement bound = Mockito.mock(BoundStatement.class);
+        Mockito.when(bound.getPreparedStatement()).thenReturn(prepared);
+        Mockito.when(bound.getValues()).thenReturn(Arrays.asList(ByteBuffer.wrap(new byte[]{1})));
+        // no request timeout, Mockito would answer Duration.ZERO
+        Mockito.when(bound.getTimeout()).thenReturn(null);
+        return bound;
+    }
+
+    @Test
+    public void testConcurrentReadsShareOneRequest() throws Exception {
+        final int callers = 8;
+        final ReadCoalescer coalescer = new ReadCoalescer();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger requests = new AtomicInteger();
+        final List<Row> rows = Arrays.asList(Mockito.mock(Row.class), Mockito.mock(Row.class));
+
+        final ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            final List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                results.add(executor.submit(() -> {
+                    ResultSet resultSet = coalescer.execute(statement(), bound -> {
+                        requests.incrementAndGet();
+                        started.countDown();
+                        try {
+                            release.await();
+                        } catch (InterruptedException ex) {
+                            throw new IllegalStateException(ex);
+                        }
+                        ResultSet live = Mockito.mock(ResultSet.class);
+                        Mockito.when(live.isFullyFetched()).thenReturn(true);
+                        Mockito.when(live.iterator()).thenReturn(rows.iterator());
+                        return live;
+                    });
+                    return resultSet.all().size();
+                }));
+            }
+            started.await();
+            // give the other callers time to join the in-flight read
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<Integer> result : results) {
+                assertEquals(2, (int) result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(requests.get(), coalescer.getExecutedCount());
+        assertEquals(callers, coalescer.getExecutedCount() + coalescer.getCoalescedCount());
+        assertTrue(coalescer.getCoalescedCount() > 0);
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void testFailureIsPropagated() {
+        final ReadCoalescer coalescer = new ReadCoalescer();
+        try {
+            coalescer.execute(statement(), bound -> {
+                throw new IllegalStateException("unavailable");
+            });
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals("unavailable", ex.getMessage());
+        }
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    @Test
+    public void testFollowerExecutesItselfAfterTimeout() throws Exception {
+        final ReadCoalescer coalescer = new ReadCoalescer();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ResultSet live = Mockito.mock(ResultSet.class);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<ResultSet> leader = executor.submit(() -> coalescer.execute(statement(), null, bound -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return live;
+            }));
+            started.await();
+            assertSame(live, coalescer.execute(statement(), Duration.ofMillis(100), bound -> live));
+            assertEquals(2, coalescer.getExecutedCount());
+            release.countDown();
+            leader.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testReadsWithAnotherConsistencyLevelAreNotMerged() throws Exception {
+        final ReadCoalescer coalescer = new ReadCoalescer();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ResultSet one = Mockito.mock(ResultSet.class), quorum = Mockito.mock(ResultSet.class);
+        final BoundStatement quorumStatement = statement();
+        Mockito.when(quorumStatement.getConsistencyLevel()).thenReturn(DefaultConsistencyLevel.QUORUM);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<ResultSet> leader = executor.submit(() -> coalescer.execute(statement(), bound -> {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ex) {
+                    throw new IllegalStateException(ex);
+                }
+                return one;
+            }));
+            started.await();
+            assertSame(quorum, coalescer.execute(quorumStatement, bound -> quorum));
+            assertEquals(0, coalescer.getCoalescedCount());
+            release.countDown();
+            assertSame(one, leader.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.DefaultConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BoundStatement;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinition;
+import com.datastax.oss.driver.api.core.cql.ColumnDefinitions;
+import com.datastax.oss.driver.api.core.cql.PreparedStatement;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.nio.ByteBuffer;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ResultCacheTest {
+
+    private static BoundStatement statement(int value) {
+        PreparedStatement prepared = Mockito.mock(PreparedStatement.class);
+        Mockito.when(prepared.getId()).thenReturn(ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        BoundStatement bound = Mockito.mock(BoundStatement.class);
+        Mockito.when(bound.getPreparedStatement()).thenReturn(prepared);
+        Mockito.when(bound.getValues()).thenReturn(Collections.singletonList(ByteBuffer.allocate(4).putInt(0, value)));
+        return bound;
+    }
+
+    private static ResultSet resultSet(String keyspace, String table) {
+        ColumnDefinition definition = Mockito.mock(ColumnDefinition.class);
+        Mockito.when(definition.getKeyspace()).thenReturn(CqlIdentifier.fromInternal(keyspace));
+        Mockito.when(definition.getTable()).thenReturn(CqlIdentifier.fromInternal(table));
+        ColumnDefinitions definitions = Mockito.mock(ColumnDefinitions.class);
+        Mockito.when(definitions.size()).thenReturn(1);
+        Mockito.when(definitions.get(0)).thenReturn(definition);
+        Row row = Mockito.mock(Row.class);
+        Mockito.when(row.size()).thenReturn(1);
+        Mockito.when(row.getBytesUnsafe(0)).thenReturn(ByteBuffer.wrap(new byte[16]));
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.isFullyFetched()).thenReturn(true);
+        Mockito.when(resultSet.getColumnDefinitions()).thenReturn(definitions);
+        Mockito.when(resultSet.iterator()).thenReturn(Collections.singletonList(row).iterator());
+        return resultSet;
+    }
+
+    @Test
+    public void testTtlSpec() {
+        ResultCache cache = new ResultCache("ks.countries:1000, \"Lookups\".*:5000", 10, 1000);
+        assertEquals(1000, cache.ttlFor("KS", "Countries"));
+        assertEquals(5000, cache.ttlFor("lookups", "any"));
+        assertEquals(-1, cache.ttlFor("ks", "users"));
+    }
+
+    @Test
+    public void testHitAndInvalidate() {
+        ResultCache cache = new ResultCache("ks.countries:60000", 10, 1000);
+        assertNull(cache.get(statement(1)));
+        ResultSet replay = cache.put(statement(1), resultSet("ks", "countries"), 60000, cache.getGeneration());
+        assertEquals(1, replay.all().size());
+        ResultSet hit = cache.get(statement(1));
+        assertNotNull(hit);
+        assertEquals(1, hit.all().size());
+        assertNull(cache.get(statement(2)));
+
+        cache.invalidate("SELECT * FROM countries", "ks");
+        assertEquals(1, cache.size());
+        cache.invalidate("BEGIN BATCH UPDATE countries SET name = ? WHERE id = ?; APPLY BATCH", "ks");
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.getInvalidationCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void testEvictionBySize() {
+        ResultCache cache = new ResultCache("ks.*:60000", 10, 40);
+        cache.put(statement(1), resultSet("ks", "t"), 60000, cache.getGeneration());
+        cache.put(statement(2), resultSet("ks", "t"), 60000, cache.getGeneration());
+        assertEquals(1, cache.size());
+        assertEquals(1, cache.getEvictionCount());
+        assertNotNull(cache.get(statement(2)));
+    }
+
+    @Test
+    public void testReadOverlappingAnInvalidationIsNotCached() {
+        ResultCache cache = new ResultCache("ks.countries:60000", 10, 1000);
+        long generation = cache.getGeneration();
+        // a write of the table completes while the read is running
+        cache.invalidate("UPDATE countries SET name = ? WHERE id = ?", "ks");
+        ResultSet replay = cache.put(statement(1), resultSet("ks", "countries"), 60000, generation);
+        assertEquals(1, replay.all().size());
+        assertEquals(0, cache.size());
+        cache.put(statement(1), resultSet("ks", "countries"), 60000, cache.getGeneration());
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testConsistencyLevelAndPageSizeArePartOfTheKey() {
+        ResultCache cache = new ResultCache("ks.countries:60000", 10, 1000);
+        cache.put(statement(1), resultSet("ks", "countries"), 60000, cache.getGeneration());
+        BoundStatement quorum = statement(1);
+        Mockito.when(quorum.getConsistencyLevel()).thenReturn(DefaultConsistencyLevel.QUORUM);
+        assertNull(cache.get(quorum));
+        BoundStatement paged = statement(1);
+        Mockito.when(paged.getPageSize()).thenReturn(10);
+        assertNull(cache.get(paged));
+        assertNotNull(cache.get(statement(1)));
+    }
+}
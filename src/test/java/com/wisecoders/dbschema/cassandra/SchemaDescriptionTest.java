@@ -0,0 +1,52 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.type.DataType;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.UserDefinedType;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SchemaDescriptionTest {
+
+    private static UserDefinedType type(String name, DataType... fieldTypes) {
+        CqlIdentifier id = CqlIdentifier.fromInternal(name);
+        UserDefinedType type = Mockito.mock(UserDefinedType.class);
+        Mockito.when(type.getName()).thenReturn(id);
+        Mockito.when(type.getFieldTypes()).thenReturn(Arrays.asList(fieldTypes));
+        return type;
+    }
+
+    @Test
+    public void testTypesAfterTheirDependencies() {
+        UserDefinedType address = type("c_address", DataTypes.TEXT);
+        UserDefinedType country = type("d_country", DataTypes.TEXT);
+        UserDefinedType person = type("b_person", DataTypes.listOf(address), DataTypes.mapOf(DataTypes.TEXT, DataTypes.tupleOf(country)));
+        UserDefinedType tag = type("a_tag", DataTypes.TEXT);
+        List<String> sorted = SchemaDescription.sortTypes(Arrays.asList(person, address, tag, country)).stream()
+                .map(type -> type.getName().asInternal())
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("a_tag", "c_address", "d_country", "b_person"), sorted);
+    }
+
+    @Test
+    public void testCyclicTypesAreListedOnce() {
+        UserDefinedType first = type("first");
+        UserDefinedType second = type("second", first);
+        Mockito.when(first.getFieldTypes()).thenReturn(Collections.singletonList(second));
+        assertEquals(2, SchemaDescription.sortTypes(Arrays.asList(first, second)).size());
+    }
+}
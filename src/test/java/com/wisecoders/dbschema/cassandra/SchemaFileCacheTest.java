@@ -0,0 +1,140 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.schema.ColumnMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.KeyspaceMetadata;
+import com.datastax.oss.driver.api.core.metadata.schema.TableMetadata;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SchemaFileCacheTest {
+
+    private static final CqlIdentifier KS = CqlIdentifier.fromInternal("shop");
+    private static final CqlIdentifier TB = CqlIdentifier.fromInternal("Orders");
+    private static final String VERSION = "5a5b4c3d-0000-1000-8000-000000000001";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private CqlSession session;
+    private Map<CqlIdentifier, MetadataCache.KeyspaceRows> snapshot;
+
+    @Before
+    public void setUp() {
+        CqlIdentifier id = CqlIdentifier.fromInternal("id");
+        ColumnMetadata column = Mockito.mock(ColumnMetadata.class);
+        Mockito.when(column.getName()).thenReturn(id);
+        Mockito.when(column.getType()).thenReturn(DataTypes.UUID);
+        TableMetadata table = Mockito.mock(TableMetadata.class);
+        Mockito.when(table.getKeyspace()).thenReturn(KS);
+        Mockito.when(table.getName()).thenReturn(TB);
+        Mockito.when(table.getColumns()).thenReturn(Collections.singletonMap(id, column));
+        Mockito.when(table.getPrimaryKey()).thenReturn(Collections.singletonList(column));
+        KeyspaceMetadata keyspace = Mockito.mock(KeyspaceMetadata.class);
+        Mockito.when(keyspace.getTables()).thenReturn(Collections.singletonMap(TB, table));
+        Mockito.when(keyspace.getTable(TB)).thenReturn(Optional.of(table));
+        Metadata metadata = Mockito.mock(Metadata.class);
+        Mockito.when(metadata.getKeyspace(KS)).thenReturn(Optional.of(keyspace));
+        Mockito.when(metadata.getKeyspaces()).thenReturn(Collections.singletonMap(KS, keyspace));
+        Mockito.when(metadata.getClusterName()).thenReturn(Optional.of("Test Cluster"));
+        session = Mockito.mock(CqlSession.class);
+        Mockito.when(session.getMetadata()).thenReturn(metadata);
+        MetadataCache cache = new MetadataCache();
+        cache.setSession(session);
+        snapshot = cache.snapshot();
+    }
+
+    private byte[] write() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            SchemaFileCache.write(out, VERSION, snapshot);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        Map<CqlIdentifier, MetadataCache.KeyspaceRows> read = SchemaFileCache.read(new DataInputStream(new ByteArrayInputStream(write())), VERSION);
+        assertNotNull(read);
+        assertEquals(snapshot.keySet(), read.keySet());
+        MetadataCache.KeyspaceRows expected = snapshot.get(KS);
+        MetadataCache.KeyspaceRows actual = read.get(KS);
+        assertArrayEquals(expected.tables.get(0), actual.tables.get(0));
+        assertEquals(expected.tableRows.keySet(), actual.tableRows.keySet());
+        MetadataCache.TableRows rows = actual.tableRows.get(TB);
+        assertArrayEquals(expected.tableRows.get(TB).columns.get(0), rows.columns.get(0));
+        assertArrayEquals(expected.tableRows.get(TB).primaryKeys.get(0), rows.primaryKeys.get(0));
+        assertNull(rows.columns.get(0)[1]);
+    }
+
+    @Test
+    public void testOtherSchemaVersionIsIgnored() throws IOException {
+        assertNull(SchemaFileCache.read(new DataInputStream(new ByteArrayInputStream(write())), "other"));
+    }
+
+    @Test
+    public void testPreloadedRowsServedWithoutSession() throws IOException {
+        MetadataCache cache = new MetadataCache();
+        cache.preload(SchemaFileCache.read(new DataInputStream(new ByteArrayInputStream(write())), VERSION));
+        assertEquals(Collections.singletonList(KS), cache.getKeyspaces());
+        // the driver reports all keyspaces as created while it loads the schema
+        cache.invalidate(KS);
+        assertEquals("Orders", cache.getTables(KS).get(0)[2]);
+        assertNotNull(cache.getTable(KS, TB));
+        cache.endPreload();
+        cache.invalidate(KS);
+        assertTrue(cache.getTables(KS).isEmpty());
+        assertEquals(1, cache.getBuildCount());
+    }
+
+    @Test
+    public void testRefreshRunsOnADedicatedThread() throws Exception {
+        final Row row = Mockito.mock(Row.class);
+        Mockito.when(row.getUuid(0)).thenReturn(UUID.fromString(VERSION));
+        final ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.one()).thenReturn(row);
+        final List<String> threads = new CopyOnWriteArrayList<>();
+        Mockito.when(session.execute(Mockito.anyString())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return resultSet;
+        });
+        final MetadataCache cache = new MetadataCache();
+        cache.setSession(session);
+        final SchemaFileCache schemaFileCache = new SchemaFileCache(folder.getRoot());
+
+        schemaFileCache.open(session, cache, () -> CompletableFuture.completedFuture(null)).get(10, TimeUnit.SECONDS);
+        assertEquals(2, threads.size());
+        assertEquals("cassandra-jdbc-schema-cache", threads.get(1));
+        assertTrue(schemaFileCache.getFile("Test Cluster").isFile());
+    }
+}
@@ -0,0 +1,53 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.codahale.metrics.MetricRegistry;
+import com.datastax.oss.driver.api.core.metrics.Metrics;
+import org.junit.Test;
+
+import javax.management.MBeanAttributeInfo;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SessionMetricsTest {
+
+    @Test
+    public void testValuesAndUnwrap() throws Exception {
+        MetricRegistry registry = new MetricRegistry();
+        registry.counter("s0.bytes-sent").inc(100);
+        registry.register("s0.connected-nodes", (com.codahale.metrics.Gauge<Integer>) () -> 3);
+        registry.timer("s0.cql-requests").update(2, TimeUnit.MILLISECONDS);
+        Metrics metrics = mock(Metrics.class);
+        when(metrics.getRegistry()).thenReturn(registry);
+
+        SessionMetrics sessionMetrics = new SessionMetrics(metrics);
+        Map<String, Object> values = sessionMetrics.getValues();
+        assertEquals(100L, values.get("s0.bytes-sent"));
+        assertEquals(3, values.get("s0.connected-nodes"));
+        assertEquals(1L, values.get("s0.cql-requests.count"));
+        assertEquals(2.0, (Double) values.get("s0.cql-requests.p99-ms"), 0.01);
+        assertEquals(100L, sessionMetrics.getAttribute("s0.bytes-sent"));
+
+        MBeanAttributeInfo[] attributes = sessionMetrics.getMBeanInfo().getAttributes();
+        assertEquals(values.size(), attributes.length);
+
+        assertSame(registry, sessionMetrics.unwrap(MetricRegistry.class));
+        assertSame(metrics, sessionMetrics.unwrap(Metrics.class));
+        assertFalse(sessionMetrics.isWrapperFor(String.class));
+        try {
+            sessionMetrics.unwrap(String.class);
+            fail();
+        } catch (SQLException expected) {
+        }
+    }
+}
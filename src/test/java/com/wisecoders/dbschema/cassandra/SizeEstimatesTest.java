@@ -0,0 +1,84 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlSession;
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.SimpleStatement;
+import com.datastax.oss.driver.api.core.metadata.Metadata;
+import com.datastax.oss.driver.api.core.metadata.Node;
+import com.datastax.oss.driver.api.core.metadata.NodeState;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SizeEstimatesTest {
+
+    @Test
+    public void testRangeWidth() {
+        assertEquals(100, SizeEstimates.rangeWidth("-50", "50"), 0);
+        // a range wrapping around the ring
+        assertEquals(Math.pow(2, 64) - 100, SizeEstimates.rangeWidth("50", "-50"), 1e6);
+        assertEquals(Math.pow(2, 64), SizeEstimates.rangeWidth(String.valueOf(Long.MIN_VALUE), String.valueOf(Long.MIN_VALUE)), 1e6);
+        // random partitioner tokens are not supported
+        assertEquals(-1, SizeEstimates.rangeWidth("abc", "def"), 0);
+        assertEquals(-1, SizeEstimates.rangeWidth(null, "5"), 0);
+    }
+
+    @Test
+    public void testPages() {
+        SizeEstimates.Estimate estimate = new SizeEstimates.Estimate(10, 1000, 4, 2, 0);
+        assertEquals(10000, estimate.getSizeInBytes());
+        assertEquals(3, estimate.getPages());
+    }
+
+    @Test
+    public void testTablesOfAKeyspaceAreLoadedTogether() {
+        final Node node = mock(Node.class);
+        final Metadata metadata = mock(Metadata.class);
+        final CqlSession session = mock(CqlSession.class);
+        final AsyncResultSet resultSet = mock(AsyncResultSet.class);
+        final Row orders = row("orders", 100, 50), users = row("users", 10, 200);
+        when(node.getState()).thenReturn(NodeState.UP);
+        when(metadata.getNodes()).thenReturn(Collections.singletonMap(UUID.randomUUID(), node));
+        when(session.getMetadata()).thenReturn(metadata);
+        when(resultSet.currentPage()).thenReturn(Arrays.asList(orders, users));
+        when(session.executeAsync(any(SimpleStatement.class))).thenReturn(CompletableFuture.completedFuture(resultSet));
+
+        final SizeEstimates sizeEstimates = new SizeEstimates(SizeEstimates.DEFAULT_TTL_MILLIS);
+        Map<String, SizeEstimates.Estimate> estimates = sizeEstimates.getAll(session, "ks", Arrays.asList("users", "orders", "empty"), false);
+        assertEquals(Arrays.asList("users", "orders", "empty"), Arrays.asList(estimates.keySet().toArray()));
+        assertEquals(200, estimates.get("users").getMeanPartitionSize());
+        assertEquals(1, estimates.get("orders").getRanges());
+        assertEquals(0, estimates.get("empty").getPartitions());
+        assertEquals(1, estimates.get("empty").getNodes());
+        verify(session, times(1)).executeAsync(any(SimpleStatement.class));
+
+        estimates = sizeEstimates.getAll(session, "ks", Arrays.asList("orders", "users"), true);
+        assertEquals(2, estimates.size());
+        assertSame(estimates.get("users"), sizeEstimates.get(session, "ks", "users", true));
+        verify(session, times(1)).executeAsync(any(SimpleStatement.class));
+    }
+
+    private static Row row(String table, long partitions, long meanPartitionSize) {
+        final Row row = mock(Row.class);
+        when(row.getString(0)).thenReturn(table);
+        when(row.getString(1)).thenReturn("-100");
+        when(row.getString(2)).thenReturn("100");
+        when(row.getLong(3)).thenReturn(partitions);
+        when(row.getLong(4)).thenReturn(meanPartitionSize);
+        return row;
+    }
+}
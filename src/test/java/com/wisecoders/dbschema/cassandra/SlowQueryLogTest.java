@@ -0,0 +1,57 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.CqlIdentifier;
+import com.datastax.oss.driver.api.core.cql.*;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class SlowQueryLogTest {
+
+    @Test
+    public void testEntryWithRedactedValues() {
+        ColumnDefinition id = variable("id");
+        ColumnDefinition name = variable("name");
+        ColumnDefinitions variables = mock(ColumnDefinitions.class);
+        when(variables.iterator()).thenAnswer(invocation -> Arrays.asList(id, name).iterator());
+        PreparedStatement prepared = mock(PreparedStatement.class);
+        when(prepared.getVariableDefinitions()).thenReturn(variables);
+        BoundStatement bound = mock(BoundStatement.class);
+        when(bound.getPreparedStatement()).thenReturn(prepared);
+        when(bound.isSet(0)).thenReturn(true);
+        when(bound.isSet(1)).thenReturn(true);
+        when(bound.getBytesUnsafe(0)).thenReturn(ByteBuffer.wrap("secret-value".getBytes()));
+        when(bound.getBytesUnsafe(1)).thenReturn(null);
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        when(executionInfo.getRequest()).thenReturn(bound);
+
+        String cql = "SELECT * FROM ks.users WHERE id = ? AND name = ?";
+        String text = new SlowQueryLog.Entry(cql, CqlFingerprint.of(cql), 1_500_000_000L, 42, 3, executionInfo).format();
+        assertTrue(text, text.startsWith("Slow query 1500.0 ms, 3 pages, 42 rows"));
+        assertTrue(text, text.contains("values: [id text(12 bytes), name text null]"));
+        assertFalse(text.contains("secret"));
+
+        SlowQueryLog log = new SlowQueryLog(100);
+        assertTrue(log.isSlow(100_000_000L));
+        assertFalse(log.isSlow(99_999_999L));
+    }
+
+    private static ColumnDefinition variable(String name) {
+        ColumnDefinition definition = mock(ColumnDefinition.class);
+        when(definition.getName()).thenReturn(CqlIdentifier.fromInternal(name));
+        when(definition.getType()).thenReturn(DataTypes.TEXT);
+        return definition;
+    }
+}
@@ -0,0 +1,65 @@
+package com.wisecoders.dbschema.cassandra;
+
+import com.datastax.oss.driver.api.core.DriverTimeoutException;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.ResultSet;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class StatementMetricsTest {
+
+    @Test
+    public void testCountersPerFingerprint() {
+        StatementMetrics metrics = new StatementMetrics();
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        when(executionInfo.getResponseSizeInBytes()).thenReturn(512);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getExecutionInfos()).thenReturn(Collections.singletonList(executionInfo));
+
+        for (int id = 0; id < 3; id++) {
+            StatementTimer timer = metrics.start("SELECT * FROM ks.t WHERE id = " + id, null);
+            timer.executed();
+            timer.rowRead();
+            timer.rowRead();
+            timer.finished(resultSet);
+            timer.finished(resultSet);
+        }
+        StatementTimer failed = metrics.start("SELECT * FROM ks.t WHERE id = 7", null);
+        failed.failed(new RuntimeException(new DriverTimeoutException("timeout")));
+
+        assertEquals(1, metrics.getFingerprintCount());
+        StatementMetrics.Stats stats = metrics.get("SELECT * FROM ks.t WHERE id = ?");
+        assertEquals(4, stats.getCalls());
+        assertEquals(6, stats.getRows());
+        assertEquals(1, stats.getErrors());
+        assertEquals(1, stats.getTimeouts());
+        assertEquals(3 * 512, stats.getBytes());
+        assertEquals(3, stats.getExecute().getCount());
+        assertEquals(3, stats.getFirstRow().getCount());
+        assertTrue(stats.getMaxNanos() > 0 && stats.getTotalNanos() >= stats.getMaxNanos());
+        assertEquals(2, metrics.getLatencies().length);
+
+        metrics.reset();
+        assertEquals(0, metrics.getFingerprintCount());
+    }
+
+    @Test
+    public void testStatsTableIsPseudoCommand() {
+        CqlStatementInfo info = CqlStatementInfo.classify("SELECT * FROM JDBC_STATS.statements LIMIT 10");
+        assertEquals(CqlStatementInfo.Kind.JDBC_STATS, info.getKind());
+        assertEquals("statements", info.getTable());
+        assertTrue(info.isPseudoCommand());
+        assertTrue(info.isQuery());
+    }
+}
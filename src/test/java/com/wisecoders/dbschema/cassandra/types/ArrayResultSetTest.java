@@ -0,0 +1,61 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import org.junit.Test;
+
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class ArrayResultSetTest {
+
+    @Test
+    public void testAddRowAndIterate() throws SQLException {
+        ArrayResultSet rs = new ArrayResultSet("ID", "NAME");
+        assertFalse(rs.next());
+        for (int i = 0; i < 1000; i++) {
+            rs.addRow(new Object[]{i, "name" + i});
+        }
+        assertEquals(1000, rs.getRowCount());
+        int count = 0;
+        while (rs.next()) {
+            assertEquals("name" + count, rs.getString(2));
+            assertEquals(count, rs.getObject(1));
+            count++;
+        }
+        assertEquals(1000, count);
+    }
+
+    @Test
+    public void testAddResultSet() throws SQLException {
+        ArrayResultSet first = new ArrayResultSet("NAME");
+        first.addRow(new String[]{"a"});
+        ArrayResultSet second = new ArrayResultSet("NAME");
+        for (int i = 0; i < 20; i++) {
+            second.addRow(new String[]{"b" + i});
+        }
+        ArrayResultSet all = new ArrayResultSet("NAME");
+        all.addResultSet(new ArrayResultSet("NAME"));
+        all.addResultSet(first);
+        all.addResultSet(second);
+        assertEquals(21, all.getRowCount());
+        assertTrue(all.next());
+        assertEquals("a", all.getString(1));
+        assertTrue(all.next());
+        assertEquals("b0", all.getString(1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddResultSetWithOtherColumnCount() {
+        ArrayResultSet first = new ArrayResultSet("NAME");
+        first.addRow(new String[]{"a"});
+        ArrayResultSet second = new ArrayResultSet("NAME", "TYPE");
+        second.addRow(new String[]{"b", "text"});
+        first.addResultSet(second);
+    }
+}
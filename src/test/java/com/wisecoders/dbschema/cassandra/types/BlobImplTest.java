@@ -0,0 +1,65 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class BlobImplTest {
+
+    private static BlobImpl blob(String text) {
+        // Use a buffer which doesn't start at offset zero, as buffers received from the server.
+        ByteBuffer buffer = ByteBuffer.wrap(("xx" + text).getBytes(StandardCharsets.US_ASCII));
+        buffer.position(2);
+        return new BlobImpl(buffer.slice());
+    }
+
+    @Test
+    public void testReadRanges() throws SQLException, IOException {
+        BlobImpl blob = blob("hello world");
+        assertEquals(11, blob.length());
+        assertArrayEquals("world".getBytes(StandardCharsets.US_ASCII), blob.getBytes(7, 100));
+        InputStream in = blob.getBinaryStream(1, 5);
+        byte[] read = new byte[10];
+        assertEquals(5, in.read(read));
+        assertEquals("hello", new String(read, 0, 5, StandardCharsets.US_ASCII));
+        assertEquals(-1, in.read());
+    }
+
+    @Test
+    public void testPosition() throws SQLException {
+        BlobImpl blob = blob("abcabcabd");
+        assertEquals(1, blob.position("abc".getBytes(StandardCharsets.US_ASCII), 1));
+        assertEquals(4, blob.position("abc".getBytes(StandardCharsets.US_ASCII), 2));
+        assertEquals(7, blob.position(blob("abd"), 1));
+        assertEquals(-1, blob.position("abe".getBytes(StandardCharsets.US_ASCII), 1));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testInvalidRange() throws SQLException {
+        blob("abc").getBinaryStream(2, 5);
+    }
+
+    @Test
+    public void testPooledRead() throws IOException {
+        byte[] data = new byte[10000];
+        for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+        ByteBuffer buffer = ByteBufferPool.INSTANCE.read(new ByteArrayInputStream(data), -1);
+        assertTrue(buffer.isDirect());
+        assertEquals(ByteBuffer.wrap(data), buffer);
+        ByteBufferPool.INSTANCE.release(buffer);
+        assertEquals(ByteBuffer.wrap(data, 0, 100), ByteBufferPool.INSTANCE.read(new ByteArrayInputStream(data), 100));
+    }
+}
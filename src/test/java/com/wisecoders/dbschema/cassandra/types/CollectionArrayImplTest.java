@@ -0,0 +1,79 @@
+package com.wisecoders.dbschema.cassandra.types;
+
+import com.datastax.oss.driver.api.core.ProtocolVersion;
+import com.datastax.oss.driver.api.core.type.DataTypes;
+import com.datastax.oss.driver.api.core.type.codec.TypeCodecs;
+import com.datastax.oss.driver.api.core.type.codec.registry.CodecRegistry;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Copyright Wise Coders GmbH. The Cassandra JDBC driver is build to be used with DbSchema Database Designer https://dbschema.com
+ * Free to use by everyone, code modifications allowed only to
+ * the public repository https://github.com/wise-coders/cassandra-jdbc-driver
+ */
+
+public class CollectionArrayImplTest {
+
+    private static CollectionArrayImpl bigintList(int size) {
+        List<Long> values = new ArrayList<>();
+        for (long i = 0; i < size; i++) values.add(i * 10);
+        return new CollectionArrayImpl(TypeCodecs.listOf(TypeCodecs.BIGINT).encode(values, ProtocolVersion.V4),
+                DataTypes.BIGINT, CodecRegistry.DEFAULT, ProtocolVersion.V4);
+    }
+
+    @Test
+    public void testSlices() throws SQLException {
+        CollectionArrayImpl array = bigintList(1000);
+        assertEquals(1000, array.getArray().length);
+        assertEquals("bigint", array.getBaseTypeName());
+        Object[] slice = (Object[]) array.getArray(501, 3);
+        assertArrayEquals(new Object[]{5000L, 5010L, 5020L}, slice);
+        long[] primitives = (long[]) array.getArray(999, 2, Collections.singletonMap("bigint", long[].class));
+        assertArrayEquals(new long[]{9980L, 9990L}, primitives);
+    }
+
+    @Test
+    public void testResultSet() throws SQLException {
+        ResultSet rs = bigintList(10).getResultSet(9, 2);
+        assertTrue(rs.next());
+        assertEquals(9L, rs.getLong(1));
+        assertEquals(80L, rs.getObject(2));
+        assertTrue(rs.next());
+        assertEquals("90", rs.getString(2));
+        assertFalse(rs.next());
+    }
+
+    @Test
+    public void testNullElements() throws SQLException {
+        // the driver codecs refuse to encode null elements, the server may still return them
+        ByteBuffer bytes = ByteBuffer.allocate(20).putInt(2).putInt(8).putLong(5).putInt(-1);
+        bytes.flip();
+        CollectionArrayImpl array = new CollectionArrayImpl(bytes, DataTypes.BIGINT, CodecRegistry.DEFAULT, ProtocolVersion.V4);
+        assertArrayEquals(new Object[]{5L, null}, array.getArray());
+        assertArrayEquals(new long[]{5, 0}, (long[]) array.getArray(Collections.singletonMap("bigint", long[].class)));
+    }
+
+    @Test(expected = SQLException.class)
+    public void testOutOfRange() throws SQLException {
+        bigintList(10).getArray(10, 2);
+    }
+
+    @Test
+    public void testEmptyAndTruncatedCollections() throws SQLException {
+        assertEquals(0, bigintList(0).getArray().length);
+        CollectionArrayImpl truncated = new CollectionArrayImpl(ByteBuffer.wrap(new byte[]{0, 0}),
+                DataTypes.BIGINT, CodecRegistry.DEFAULT, ProtocolVersion.V4);
+        assertEquals(0, truncated.getArray().length);
+        assertEquals(0, ((long[]) truncated.getArray(Collections.singletonMap("bigint", long[].class))).length);
+        assertFalse(truncated.getResultSet().next());
+    }
+}